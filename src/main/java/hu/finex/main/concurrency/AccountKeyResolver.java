@@ -0,0 +1,58 @@
+package hu.finex.main.concurrency;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import hu.finex.main.concurrency.AccountLockManager.Key;
+
+// A @SerializedPerAccount SpEL kifejezéseiből kiszámolja az érintett számlákat (zároláshoz és shard-választáshoz)
+
+@Component
+public class AccountKeyResolver {
+
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    public SerializedPerAccount annotation(Method method) {
+        return AnnotationUtils.findAnnotation(method, SerializedPerAccount.class);
+    }
+
+    // Annotáció nélkül üres lista
+    public List<Key> resolve(Method method, Object[] args) {
+        SerializedPerAccount annotation = annotation(method);
+        List<Key> keys = new ArrayList<>();
+        if (annotation == null) {
+            return keys;
+        }
+
+        EvaluationContext context = new MethodBasedEvaluationContext(null, method, args, PARAMETER_NAMES);
+        collect(annotation.accounts(), context, Key::account, keys);
+        collect(annotation.savingsAccounts(), context, Key::savings, keys);
+        return keys;
+    }
+
+    // A null azonosítót kihagyjuk: azt a validáció / a service úgyis elutasítja
+    private void collect(String[] spels, EvaluationContext context, LongFunction<Key> factory, List<Key> keys) {
+        for (String spel : spels) {
+            Object value = expressions.computeIfAbsent(spel, PARSER::parseExpression).getValue(context);
+            if (value instanceof Number id) {
+                keys.add(factory.apply(id.longValue()));
+            }
+        }
+    }
+}
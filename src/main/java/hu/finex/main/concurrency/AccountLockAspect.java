@@ -0,0 +1,40 @@
+package hu.finex.main.concurrency;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import hu.finex.main.concurrency.AccountLockManager.Held;
+import hu.finex.main.concurrency.AccountLockManager.Key;
+import lombok.RequiredArgsConstructor;
+
+// Sorrend: ServiceMetricsAspect -> LockRetryAspect -> (ShardedLedgerAspect) -> AccountLockAspect -> @Transactional.
+// A JVM-beli zárra várakozás így még kapcsolat nélkül történik, és a zár csak a commit után enged el.
+// Újrapróbáláskor a backoff alatt a zár nincs megtartva.
+
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@RequiredArgsConstructor
+public class AccountLockAspect {
+
+    private final AccountLockManager accountLockManager;
+    private final AccountKeyResolver accountKeyResolver;
+
+    @Around("@annotation(hu.finex.main.concurrency.SerializedPerAccount)")
+    public Object serialize(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        List<Key> keys = accountKeyResolver.resolve(method, joinPoint.getArgs());
+
+        try (Held held = accountLockManager.acquire(accountKeyResolver.annotation(method).value(), keys)) {
+            return joinPoint.proceed();
+        }
+    }
+}
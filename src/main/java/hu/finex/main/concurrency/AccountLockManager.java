@@ -0,0 +1,170 @@
+package hu.finex.main.concurrency;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Számlánkénti, csíkozott (striped) zártábla egy példányos futtatáshoz.
+// Az ugyanarra a számlára író kérések itt várnak, nem egy Hikari kapcsolatot fogva a Postgres sorzáron.
+// Fair zárak: a várakozók érkezési sorrendben jutnak sorra. A DB-s sorzárak maradnak, ez csak előszűrő.
+
+@Component
+public class AccountLockManager {
+
+    static final String WAIT_METRIC = "finex.account.lock.wait";
+    static final String TIMEOUT_METRIC = "finex.account.lock.timeout";
+    static final String QUEUED_METRIC = "finex.account.lock.queued";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long timeoutMs;
+    private final ReentrantLock[] stripes;
+
+    public AccountLockManager(
+            MeterRegistry meterRegistry,
+            @Value("${finex.account-lock.enabled:true}") boolean enabled,
+            @Value("${finex.account-lock.stripes:1024}") int stripes,
+            @Value("${finex.account-lock.timeout-ms:5000}") long timeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.timeoutMs = Math.max(0, timeoutMs);
+        this.stripes = new ReentrantLock[powerOfTwo(stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        Gauge.builder(QUEUED_METRIC, this, AccountLockManager::queuedThreads).register(meterRegistry);
+    }
+
+    public record Key(String scope, long id) {
+
+        public static Key account(long id) {
+            return new Key("account", id);
+        }
+
+        public static Key savings(long id) {
+            return new Key("savings", id);
+        }
+    }
+
+    // Feloldás fordított sorrendben; try-with-resources-szel használandó
+    public interface Held extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    // Több számla esetén a csíkok növekvő sorrendben zárolódnak, így két ellentétes irányú átutalás sem akad össze.
+    // Időtúllépéskor CannotAcquireLockException: a LockRetryAspect újrapróbálja, végül 409 lesz belőle.
+    // Már futó külső tranzakción belül (pl. a főkönyvi shard batch-tranzakciója) a csíkok a tranzakció végéig maradnak
+    // zárva, mert a sorzárak is addig élnek; a close() ilyenkor nem enged el semmit.
+    public Held acquire(String operation, Collection<Key> keys) {
+        if (!enabled || keys.isEmpty()) {
+            return () -> { };
+        }
+
+        boolean untilCompletion = TransactionSynchronizationManager.isSynchronizationActive();
+        // Ha ez a tranzakció már tart csíkokat, nem várunk: a korábban szerzettek megsértenék a növekvő sorrendet,
+        // és a másik szál a mi sorzárunkra várhat. A hiba a batch-et visszagörgeti, a parancs egyedül fut újra.
+        boolean noWait = untilCompletion && TransactionSynchronizationManager.hasResource(this);
+
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Key key : keys) {
+            indexes.add(stripeIndex(key));
+        }
+        ReentrantLock[] held = new ReentrantLock[indexes.size()];
+        int count = 0;
+
+        long start = System.nanoTime();
+        try {
+            for (int index : indexes) {
+                long remaining = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                ReentrantLock lock = stripes[index];
+                if (noWait) {
+                    if (!lock.tryLock()) {
+                        throw new CannotAcquireLockException("A számla zárolása foglalt a futó tranzakción belül: " + keys);
+                    }
+                } else if (!lock.tryLock(Math.max(0, remaining), TimeUnit.MILLISECONDS)) {
+                    meterRegistry.counter(TIMEOUT_METRIC, "operation", operation).increment();
+                    throw new CannotAcquireLockException("A számla zárolása nem sikerült " + timeoutMs + " ms alatt: " + keys);
+                }
+                held[count++] = lock;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            release(held, count);
+            throw new CannotAcquireLockException("A számla zárolására várakozás megszakadt.", ex);
+        } catch (RuntimeException ex) {
+            release(held, count);
+            throw ex;
+        }
+
+        waitTimer(operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        int acquired = count;
+        if (untilCompletion) {
+            releaseAfterCompletion(held, acquired);
+            return () -> { };
+        }
+        return () -> release(held, acquired);
+    }
+
+    // Commit és rollback után is lefut, ugyanazon a szálon, amelyik a zárakat tartja
+    private void releaseAfterCompletion(ReentrantLock[] held, int count) {
+        if (!TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AccountLockManager.this);
+                release(held, count);
+            }
+        });
+    }
+
+    int stripeIndex(Key key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return h & (stripes.length - 1);
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    private Timer waitTimer(String operation) {
+        return Timer.builder(WAIT_METRIC)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private double queuedThreads() {
+        int queued = 0;
+        for (ReentrantLock lock : stripes) {
+            queued += lock.getQueueLength();
+        }
+        return queued;
+    }
+
+    private static void release(ReentrantLock[] held, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            held[i].unlock();
+        }
+    }
+
+    private static int powerOfTwo(int value) {
+        int n = Math.max(1, value);
+        return Integer.highestOneBit(n) == n ? n : Integer.highestOneBit(n) << 1;
+    }
+}
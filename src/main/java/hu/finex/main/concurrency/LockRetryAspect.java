@@ -0,0 +1,91 @@
+package hu.finex.main.concurrency;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// A @Transactional proxy előtt fut, így minden próbálkozás saját, friss tranzakciót kap.
+// Deadlock, lock timeout, szerializációs hiba és @Version ütközés esetén korlátozott számú,
+// jitterrel széthúzott újrapróbálás. A metrikák műveletenként mutatják a "forró" számlákat.
+
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class LockRetryAspect {
+
+    static final String METRIC_NAME = "finex.lock.retry";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    public LockRetryAspect(
+            MeterRegistry meterRegistry,
+            @Value("${finex.lock-retry.max-attempts:3}") int maxAttempts,
+            @Value("${finex.lock-retry.backoff-ms:25}") long backoffMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = Math.max(0, backoffMs);
+    }
+
+    @Around("@annotation(hu.finex.main.concurrency.RetryOnLockFailure)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        // Egy már futó külső tranzakción belül nem lehet újrapróbálni, azt a hívó kezeli
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String operation = AnnotationUtils.findAnnotation(method, RetryOnLockFailure.class).value();
+        int attempt = 1;
+        String lastType = null;
+
+        while (true) {
+            try {
+                Object result = joinPoint.proceed();
+                if (attempt > 1) {
+                    count(operation, "recovered", lastType);
+                }
+                return result;
+            } catch (ConcurrencyFailureException ex) {
+                lastType = ex instanceof OptimisticLockingFailureException ? "optimistic" : "pessimistic";
+                count(operation, "conflict", lastType);
+
+                if (attempt >= maxAttempts) {
+                    count(operation, "exhausted", lastType);
+                    throw ex;
+                }
+
+                pause(attempt);
+                attempt++;
+            }
+        }
+    }
+
+    private void count(String operation, String outcome, String type) {
+        meterRegistry.counter(METRIC_NAME, "operation", operation, "outcome", outcome, "type", type).increment();
+    }
+
+    // Lineárisan növekvő várakozás ±50% jitterrel, hogy az ütköző kérések ne egyszerre próbálkozzanak újra
+    private void pause(int attempt) throws InterruptedException {
+        if (backoffMs > 0) {
+            long base = backoffMs * attempt;
+            Thread.sleep(base / 2 + ThreadLocalRandom.current().nextLong(base + 1));
+        }
+    }
+}
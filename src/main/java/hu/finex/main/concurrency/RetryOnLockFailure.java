@@ -0,0 +1,18 @@
+package hu.finex.main.concurrency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Zárolási, szerializációs vagy optimista verzió-ütközés esetén a teljes tranzakciós metódus újrafut (LockRetryAspect)
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnLockFailure {
+
+    // Művelet neve a metrikákban (pl. "transfer")
+    String value();
+}
@@ -0,0 +1,25 @@
+package hu.finex.main.concurrency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Az érintett számlákra írók a JVM-en belül sorba állnak (AccountLockAspect), még a DB kapcsolat felvétele előtt.
+// A számla-azonosítók SpEL kifejezések a metódus paramétereire, pl. "#request.fromAccountId".
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SerializedPerAccount {
+
+    // Művelet neve a metrikákban (pl. "transfer")
+    String value();
+
+    // Folyószámla azonosítók
+    String[] accounts() default {};
+
+    // Megtakarítási számla azonosítók (külön id-tér)
+    String[] savingsAccounts() default {};
+}
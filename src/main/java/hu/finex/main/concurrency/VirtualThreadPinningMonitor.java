@@ -0,0 +1,79 @@
+package hu.finex.main.concurrency;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+// Virtuális szálas módban a JFR jdk.VirtualThreadPinned eseményeit figyeli: amikor egy virtuális szál synchronized
+// blokkban vagy natív hívásban blokkol, a carrier szálat is lefoglalja. A küszöb feletti eseteket veremmel naplózza
+// és a finex.virtual-threads.pinned timerbe méri, hogy a rögzítő szakaszok ReentrantLock-ra cserélhetők legyenek.
+
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String PINNED_METRIC = "finex.virtual-threads.pinned";
+
+    private final Timer pinned;
+    private final Duration threshold;
+    private final int stackDepth;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${finex.virtual-threads.pinned-threshold:20ms}") Duration threshold,
+            @Value("${finex.virtual-threads.pinned-stack-depth:8}") int stackDepth) {
+        this.pinned = Timer.builder(PINNED_METRIC).register(meterRegistry);
+        this.threshold = threshold;
+        this.stackDepth = Math.max(1, stackDepth);
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<String> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames().stream()
+                .limit(stackDepth)
+                .map(VirtualThreadPinningMonitor::format)
+                .toList();
+        String thread = event.getThread() == null ? "?" : String.valueOf(event.getThread().getJavaThreadId());
+        record(event.getDuration(), thread, frames);
+    }
+
+    void record(Duration duration, String thread, List<String> frames) {
+        pinned.record(duration);
+        log.warn("Virtuális szál {} ms-ig a carrier szálhoz rögzítve (thread={}):\n\tat {}",
+                duration.toMillis(), thread, String.join("\n\tat ", frames));
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,10 @@
+package hu.finex.main.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Ütemezett karbantartó feladatok (pl. lejárt idempotency kulcsok törlése)
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {}
@@ -0,0 +1,89 @@
+package hu.finex.main.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import hu.finex.main.model.Account;
+import hu.finex.main.model.Category;
+import hu.finex.main.model.User;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+
+// Hibernate második szintű (L2) és query cache JVM-en belüli Caffeine JCache-sel.
+// Régiónként külön TTL és méretkorlát (finex.cache.*); a régiók itt jönnek létre, a Hibernate ismeretlen régiónál elindulni sem enged.
+// Az időbélyeg-régió nem járhat le előbb a query eredményeknél, ezért csak méretkorlátja van.
+
+@Configuration
+public class SecondLevelCacheConfig {
+
+    static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    static final String UPDATE_TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${finex.cache.user.ttl:10m}") Duration userTtl,
+            @Value("${finex.cache.user.max-entries:10000}") long userMaxEntries,
+            @Value("${finex.cache.account.ttl:5m}") Duration accountTtl,
+            @Value("${finex.cache.account.max-entries:20000}") long accountMaxEntries,
+            @Value("${finex.cache.category.ttl:1h}") Duration categoryTtl,
+            @Value("${finex.cache.category.max-entries:1000}") long categoryMaxEntries,
+            @Value("${finex.cache.query.ttl:5m}") Duration queryTtl,
+            @Value("${finex.cache.query.max-entries:10000}") long queryMaxEntries) {
+        // Példányonként saját URI: egy JVM-ben futó több context (pl. tesztek) nem osztozik a régiókon
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("finex-hibernate-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        createRegion(cacheManager, User.class.getName(), userTtl, userMaxEntries);
+        createRegion(cacheManager, Account.class.getName(), accountTtl, accountMaxEntries);
+        createRegion(cacheManager, Category.class.getName(), categoryTtl, categoryMaxEntries);
+        createRegion(cacheManager, QUERY_RESULTS_REGION, queryTtl, queryMaxEntries);
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, null, 10_000);
+        return cacheManager;
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, Duration ttl, long maxEntries) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // A Hibernate szétszedett (immutábilis) állapotot tárol: másolás nélkül, referenciaként tárolható
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        configuration.setMaximumSize(OptionalLong.of(Math.max(1, maxEntries)));
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    // Találat/tévesztés/put számlálók régiónként (hibernate.second.level.cache.*, hibernate.cache.query.*)
+    @Bean
+    public MeterBinder hibernateCacheMetrics(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        return registry -> entityManagerFactory.ifAvailable(emf -> new HibernateMetrics(
+                emf.unwrap(SessionFactory.class), "finex", Tags.empty()).bindTo(registry));
+    }
+}
@@ -20,11 +20,13 @@ import hu.finex.main.dto.CreateAccountRequest;
 import hu.finex.main.dto.DepositRequest;
 import hu.finex.main.dto.UpdateAccountStatusRequest;
 import hu.finex.main.dto.UpdateCardNumberRequest;
-import hu.finex.main.exception.NotFoundException;
-import hu.finex.main.model.User;
-import hu.finex.main.repository.UserRepository;
+import hu.finex.main.idempotency.IdempotencyAspect;
+import hu.finex.main.idempotency.Idempotent;
+import hu.finex.main.security.CurrentUser;
 import hu.finex.main.service.AccountService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -39,7 +41,7 @@ import lombok.RequiredArgsConstructor;
 public class AccountController {
 
     private final AccountService accountService;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     @PostMapping
     @Operation(summary = "Új bankszámla létrehozása",responses = {
@@ -72,11 +74,7 @@ public class AccountController {
         @ApiResponse(responseCode = "404", description = "Számla nem található")
     })
     public ResponseEntity<AccountResponse> getMyAccount(Principal principal) {
-        String email = principal.getName();
-        User user = userRepository.findByEmailIgnoreCase(email)
-                .orElseThrow(() -> new NotFoundException("Felhasználó nem található."));
-
-        return ResponseEntity.ok(accountService.getMyAccount(user.getId()));
+        return ResponseEntity.ok(accountService.getMyAccount(currentUser.requireId(principal)));
     }
 
     @GetMapping("/user/{userId}")
@@ -116,6 +114,8 @@ public class AccountController {
         return ResponseEntity.ok(accountService.updateStatus(id, request));
     }
     
+    @Idempotent("deposit")
+    @Parameter(in = ParameterIn.HEADER, name = IdempotencyAspect.HEADER, description = "Opcionális kliens kulcs: ismételt küldéskor a tárolt választ kapod, a művelet nem fut le újra")
     @PostMapping("/{id}/deposit")
     @Operation(summary = "Egyenleg befizetése a bankszámlára", description = "A bejelentkezett felhasználó pénzt fizet be az adott számlára.",responses = {
             @ApiResponse(
@@ -128,11 +128,7 @@ public class AccountController {
         }
     )
     public ResponseEntity<AccountResponse> deposit(@PathVariable("id") Long accountId,@Valid @RequestBody DepositRequest request,Principal principal) {
-        String email = principal.getName();
-        User user = userRepository.findByEmailIgnoreCase(email)
-                .orElseThrow(() -> new NotFoundException("Felhasználó nem található."));
-
-        AccountResponse response = accountService.deposit(accountId,request.getAmount(),request.getMessage(), user.getId());
+        AccountResponse response = accountService.deposit(accountId,request.getAmount(),request.getMessage(), currentUser.requireId(principal));
         return ResponseEntity.ok(response);
     }
 
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import hu.finex.main.dto.BalanceHistoryListItemResponse;
 import hu.finex.main.dto.BalanceHistoryResponse;
+import hu.finex.main.dto.SliceResponse;
 import hu.finex.main.service.BalanceHistoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -50,6 +51,17 @@ public class BalanceHistoryController {
         );
     }
 
+    @GetMapping("/account/{accountId}/slice")
+    @Operation(summary = "Egy adott számla balance history rekordjai cursor alapú lapozással",description = "Időrendben növekvő sorrendben. Az első szelethez cursor nélkül hívd, utána a válasz nextCursor értékét add át.",responses = {
+                    @ApiResponse(responseCode = "200", description = "Sikeres lekérdezés"),
+                    @ApiResponse(responseCode = "400", description = "Érvénytelen cursor"),
+                    @ApiResponse(responseCode = "404", description = "Számla nem található")
+            }
+    )
+    public ResponseEntity<SliceResponse<BalanceHistoryListItemResponse>> listByAccountSlice(@PathVariable("accountId") Long accountId,@RequestParam(name = "cursor", required = false) String cursor,@RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(balanceHistoryService.listByAccountSlice(accountId, cursor, size));
+    }
+
     @GetMapping("/account/{accountId}/between")
     @Operation(summary = "Balance history időintervallum alapján",
             responses = {
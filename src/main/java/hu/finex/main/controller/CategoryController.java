@@ -1,14 +1,16 @@
 package hu.finex.main.controller;
 
-import java.util.List;
-
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import hu.finex.main.dto.CategoryResponse;
 import hu.finex.main.dto.CreateCategoryRequest;
+import hu.finex.main.service.CategoryCatalog;
 import hu.finex.main.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -48,11 +50,19 @@ public class CategoryController {
 
     @GetMapping
     @Operation(summary = "Összes kategória listázása",responses = {
-                    @ApiResponse(responseCode = "200", description = "Siker",content = @Content(schema = @Schema(implementation = CategoryResponse.class)))
+                    @ApiResponse(responseCode = "200", description = "Siker",content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = CategoryResponse.class)))),
+                    @ApiResponse(responseCode = "304", description = "Nem változott (If-None-Match egyezik az ETag-gel)")
             }
     )
-    public ResponseEntity<List<CategoryResponse>> listAll() {
-        return ResponseEntity.ok(categoryService.listAll());
+    public ResponseEntity<byte[]> listAll() {
+        CategoryCatalog.Snapshot catalog = categoryService.catalog();
+
+        // Előre szerializált törzs; egyező If-None-Match esetén a Spring az ETag alapján 304-et ad törzs nélkül
+        return ResponseEntity.ok()
+                .eTag(catalog.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.body());
     }
 
     @DeleteMapping("/{id}")
@@ -10,7 +10,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import hu.finex.main.dto.LoginLogListItemResponse;
 import hu.finex.main.dto.LoginLogResponse;
+import hu.finex.main.dto.SliceResponse;
 import hu.finex.main.model.enums.LoginStatus;
 import hu.finex.main.service.LoginLogService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -48,6 +50,17 @@ public class LoginLogController {
         return ResponseEntity.ok(loginLogService.listByUser(userId, pageable));
     }
 
+    @GetMapping("/user/{userId}/slice")
+    @Operation(summary = "Egy felhasználó login eseményei cursor alapú lapozással",description = "Legújabb elöl. Az első szelethez cursor nélkül hívd, utána a válasz nextCursor értékét add át.",responses = {
+                @ApiResponse(responseCode = "200", description = "Sikeres lekérdezés"),
+                @ApiResponse(responseCode = "400", description = "Érvénytelen cursor"),
+                @ApiResponse(responseCode = "404", description = "Felhasználó nem található")
+            }
+    )
+    public ResponseEntity<SliceResponse<LoginLogListItemResponse>> listByUserSlice(@PathVariable("userId") Long userId,@RequestParam(name = "cursor", required = false) String cursor,@RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(loginLogService.listByUserSlice(userId, cursor, size));
+    }
+
     @GetMapping("/status/{status}")
     @Operation(summary = "Login események szűrése státusz alapján (SUCCESS / FAILED)")
     public ResponseEntity<?> listByStatus(@PathVariable("status") LoginStatus status, Pageable pageable) {
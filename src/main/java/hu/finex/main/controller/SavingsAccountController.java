@@ -17,9 +17,13 @@ import hu.finex.main.dto.SavingsAccountResponse;
 import hu.finex.main.dto.SavingsTransferRequest;
 import hu.finex.main.dto.SavingsTransferResponse;
 import hu.finex.main.dto.UpdateSavingsAccountRequest;
+import hu.finex.main.idempotency.IdempotencyAspect;
+import hu.finex.main.idempotency.Idempotent;
 import hu.finex.main.model.enums.SavingsStatus;
 import hu.finex.main.service.SavingsAccountService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -87,6 +91,8 @@ public class SavingsAccountController {
         return ResponseEntity.ok(savingsAccountService.update(id, request));
     }
     
+    @Idempotent("savings-deposit")
+    @Parameter(in = ParameterIn.HEADER, name = IdempotencyAspect.HEADER, description = "Opcionális kliens kulcs: ismételt küldéskor a tárolt választ kapod, a művelet nem fut le újra")
     @PostMapping("/{id}/deposit-from-account")
     @Operation(summary = "Pénz átvezetése folyószámláról megtakarítási számlára",responses = {@ApiResponse(responseCode = "200", description = "Sikeres átvezetés",content = @Content(schema = @Schema(implementation = SavingsTransferResponse.class))),
                     @ApiResponse(responseCode = "400", description = "Üzleti hiba"),
@@ -99,6 +105,8 @@ public class SavingsAccountController {
         );
     }
 
+    @Idempotent("savings-withdraw")
+    @Parameter(in = ParameterIn.HEADER, name = IdempotencyAspect.HEADER, description = "Opcionális kliens kulcs: ismételt küldéskor a tárolt választ kapod, a művelet nem fut le újra")
     @PostMapping("/{id}/withdraw-to-account")
     @Operation(summary = "Pénz kivétele megtakarítási számláról folyószámlára",responses = {@ApiResponse(responseCode = "200", description = "Sikeres átvezetés",content = @Content(schema = @Schema(implementation = SavingsTransferResponse.class))),
                     @ApiResponse(responseCode = "400", description = "Üzleti hiba"),
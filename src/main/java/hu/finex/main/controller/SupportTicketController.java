@@ -17,6 +17,7 @@ import hu.finex.main.dto.CreateSupportTicketRequest;
 import hu.finex.main.dto.SupportTicketResponse;
 import hu.finex.main.dto.UpdateSupportTicketStatusRequest;
 import hu.finex.main.model.enums.TicketStatus;
+import hu.finex.main.security.CurrentUser;
 import hu.finex.main.service.SupportTicketService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -33,6 +34,7 @@ import lombok.RequiredArgsConstructor;
 public class SupportTicketController {
 
     private final SupportTicketService supportTicketService;
+    private final CurrentUser currentUser;
 
     @PostMapping
     @Operation(summary = "Új support ticket létrehozása",responses = {@ApiResponse(responseCode = "201",description = "Ticket létrehozva",content = @Content(schema = @Schema(implementation = SupportTicketResponse.class))),
@@ -41,7 +43,7 @@ public class SupportTicketController {
             }
     )
     public ResponseEntity<SupportTicketResponse> create(@Valid @RequestBody CreateSupportTicketRequest request,Principal principal) {
-        SupportTicketResponse response =supportTicketService.create(request, principal);
+        SupportTicketResponse response =supportTicketService.create(request, currentUser.requireId(principal));
         return ResponseEntity.status(201).body(response);
     }
 
@@ -7,9 +7,11 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import hu.finex.main.dto.AssignCategoriesToTransactionRequest;
 import hu.finex.main.dto.TransactionCategoryListItemResponse;
 import hu.finex.main.dto.TransactionCategoryResponse;
 import hu.finex.main.service.TransactionCategoryService;
@@ -18,6 +20,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -40,6 +43,17 @@ public class TransactionCategoryController {
         return ResponseEntity.ok(service.assignCategory(transactionId, categoryId));
     }
 
+    @PostMapping("/{transactionId}/assign")
+    @Operation(summary = "Több kategória hozzárendelése egy tranzakcióhoz",responses = {
+                    @ApiResponse(responseCode = "200", description = "Sikeres hozzárendelés",content = @Content(schema = @Schema(implementation = TransactionCategoryResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Érvénytelen bemenet vagy már létező kapcsolat"),
+                    @ApiResponse(responseCode = "404", description = "Tranzakció vagy kategória nem található")
+            }
+    )
+    public ResponseEntity<List<TransactionCategoryResponse>> assignAll(@PathVariable("transactionId") Long transactionId,@Valid @RequestBody AssignCategoriesToTransactionRequest request) {
+        return ResponseEntity.ok(service.assignCategories(transactionId, request.getCategoryIds()));
+    }
+
     @GetMapping("/transaction/{transactionId}")
     @Operation(summary = "Egy tranzakcióhoz tartozó kategóriák listázása",responses = {
                     @ApiResponse(responseCode = "200", description = "Sikeres művelet",content = @Content(schema = @Schema(implementation = TransactionCategoryListItemResponse.class))),
@@ -2,21 +2,33 @@ package hu.finex.main.controller;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import hu.finex.main.dto.CreateTransactionRequest;
+import hu.finex.main.dto.SliceResponse;
 import hu.finex.main.dto.TransactionListItemResponse;
 import hu.finex.main.dto.TransactionResponse;
 import hu.finex.main.dto.TransferRequest;
 import hu.finex.main.dto.TransferResponse;
+import hu.finex.main.export.ExportFormat;
+import hu.finex.main.idempotency.IdempotencyAspect;
+import hu.finex.main.idempotency.Idempotent;
+import hu.finex.main.service.TransactionExportService;
 import hu.finex.main.service.TransactionService;
+import hu.finex.main.sqlbudget.SqlBudget;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -31,7 +43,10 @@ import lombok.RequiredArgsConstructor;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
 
+    @Idempotent("transaction-create")
+    @Parameter(in = ParameterIn.HEADER, name = IdempotencyAspect.HEADER, description = "Opcionális kliens kulcs: ismételt küldéskor a tárolt választ kapod, a művelet nem fut le újra")
     @PostMapping
     @Operation(summary = "Új tranzakció létrehozása",responses = {
                 @ApiResponse(responseCode = "200", description = "Sikeres létrehozás",content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
@@ -43,6 +58,7 @@ public class TransactionController {
         return ResponseEntity.ok(transactionService.create(request));
     }
 
+    @SqlBudget(2)
     @GetMapping("/{id}")
     @Operation(summary = "Tranzakció lekérdezése ID alapján",responses = {
                 @ApiResponse(responseCode = "200", description = "Sikeres lekérdezés",content = @Content(schema = @Schema(implementation = TransactionResponse.class))),
@@ -62,7 +78,44 @@ public class TransactionController {
     public ResponseEntity<Page<TransactionListItemResponse>> listByAccount(@PathVariable("accountId") Long accountId,Pageable pageable) {
         return ResponseEntity.ok(transactionService.listByAccount(accountId, pageable));
     }
+
+    @GetMapping("/account/{accountId}/slice")
+    @Operation(summary = "Tranzakciók listázása adott számlához cursor alapú lapozással",description = "Legújabb elöl. Az első szelethez cursor nélkül hívd, utána a válasz nextCursor értékét add át. " +
+                          "Nincs count lekérdezés, a mély lapok is gyorsak.",responses = {
+                @ApiResponse(responseCode = "200", description = "Sikeres lekérdezés"),
+                @ApiResponse(responseCode = "400", description = "Érvénytelen cursor"),
+                @ApiResponse(responseCode = "404", description = "Számla nem található")
+            }
+    )
+    public ResponseEntity<SliceResponse<TransactionListItemResponse>> listByAccountSlice(@PathVariable("accountId") Long accountId,@RequestParam(name = "cursor", required = false) String cursor,@RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(transactionService.listByAccountSlice(accountId, cursor, size));
+    }
+    
+    @GetMapping("/account/{accountId}/export")
+    @Operation(summary = "Számla teljes tranzakciótörténetének exportja (CSV vagy NDJSON)",description = "A kategóriákkal együtt, legrégebbi elöl, streamelve: a válasz mérete nem függ a szerver memóriájától. " +
+                          "format=csv (alapértelmezett) vagy format=ndjson.",responses = {
+                @ApiResponse(responseCode = "200", description = "Sikeres export"),
+                @ApiResponse(responseCode = "400", description = "Ismeretlen formátum"),
+                @ApiResponse(responseCode = "404", description = "Számla nem található")
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable("accountId") Long accountId,@RequestParam(name = "format", defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        transactionExportService.requireAccount(accountId);
+
+        StreamingResponseBody body = out -> transactionExportService.export(accountId, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions-" + accountId + "." + exportFormat.getExtension())
+                        .build().toString())
+                .body(body);
+    }
     
+    @Idempotent("transfer")
+    @Parameter(in = ParameterIn.HEADER, name = IdempotencyAspect.HEADER, description = "Opcionális kliens kulcs: ismételt küldéskor a tárolt választ kapod, a művelet nem fut le újra")
+    @SqlBudget(6)
     @PostMapping("/transfer")
     @Operation(summary = "Pénz utalása két bankszámla között",description = "Ugyanabban a devizanemben tartott számlák között utal. " +
                           "Két tranzakció jön létre: TRANSFER_OUT és TRANSFER_IN.",responses = {
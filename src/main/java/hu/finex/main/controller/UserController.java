@@ -65,7 +65,7 @@ public class UserController {
             }
     )
     public ResponseEntity<UserResponse> getOwnProfile(Authentication auth) {
-        String email = (String) auth.getPrincipal();
+        String email = auth.getName();
         return ResponseEntity.ok(userService.getOwnProfile(email));
     }
 }
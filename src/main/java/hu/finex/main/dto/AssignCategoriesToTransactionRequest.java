@@ -0,0 +1,21 @@
+package hu.finex.main.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Több kategória hozzárendelése egy tranzakcióhoz")
+public class AssignCategoriesToTransactionRequest {
+
+    @NotEmpty
+    @Schema(description = "A hozzárendelendő kategóriák azonosítói", example = "[2, 3]", required = true)
+    private List<@NotNull Long> categoryIds;
+}
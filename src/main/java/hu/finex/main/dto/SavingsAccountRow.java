@@ -0,0 +1,26 @@
+package hu.finex.main.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import hu.finex.main.model.enums.SavingsStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Megtakarítás lista-lekérdezés egy sora (JPQL projekció, nincs managed entitás).
+// Az egyenleg az entitás attribútumához hasonlóan minor egységben (fillér) érkezik; a válasz a mapperben készül.
+
+@Getter
+@AllArgsConstructor
+public class SavingsAccountRow {
+
+    private Long id;
+    private Long userId;
+    private String name;
+    private Long balanceMinor;
+    private String currency;
+    private BigDecimal interestRate;
+    private SavingsStatus status;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
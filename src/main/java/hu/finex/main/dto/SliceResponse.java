@@ -0,0 +1,31 @@
+package hu.finex.main.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Cursor alapú lapozás egy szelete (összes elem száma nélkül)")
+public class SliceResponse<T> {
+
+    @Schema(description = "Az aktuális szelet elemei")
+    private List<T> content;
+
+    @Schema(description = "Elemek száma a szeletben", example = "20")
+    private int size;
+
+    @Schema(description = "Van-e következő szelet", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "A következő szelet lekéréséhez átadandó cursor (utolsó szeletnél null)", example = "MjAyNS0wMi0xNVQxMTowMDoxNVp8NTAxMg")
+    private String nextCursor;
+}
@@ -0,0 +1,32 @@
+package hu.finex.main.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import hu.finex.main.model.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Export lekérdezés egy sora: tranzakció + legfeljebb egy kategória neve.
+// Több kategória esetén a tranzakció egymás utáni sorokban ismétlődik (id szerint csoportosítva).
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionExportRow {
+
+    private Long id;
+    private TransactionType type;
+    private BigDecimal amount;
+    private String currency;
+    private String message;
+    private String fromAccount;
+    private String toAccount;
+    private Instant createdAt;
+    private String categoryName;
+}
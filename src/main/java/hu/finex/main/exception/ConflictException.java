@@ -0,0 +1,7 @@
+package hu.finex.main.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package hu.finex.main.exception;
+
+import java.util.concurrent.CompletionStage;
+
+// A művelet már elindult, de a hívó nem várta ki: még commitolhat. Az outcome a tényleges kimenetellel zárul,
+// kivétellel akkor, ha semmi sem került commitra.
+public class OutcomeUncertainException extends ServiceUnavailableException {
+
+    private final CompletionStage<?> outcome;
+
+    public OutcomeUncertainException(String message, CompletionStage<?> outcome) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    public CompletionStage<?> getOutcome() {
+        return outcome;
+    }
+}
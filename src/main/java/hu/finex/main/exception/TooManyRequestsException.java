@@ -0,0 +1,7 @@
+package hu.finex.main.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,128 @@
+package hu.finex.main.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hu.finex.main.dto.TransactionExportRow;
+import lombok.RequiredArgsConstructor;
+
+// Az id szerint rendezett export sorokat tranzakciónként egy CSV / NDJSON rekorddá vonja össze.
+// Egyszerre csak az aktuális tranzakció kategóriái vannak a memóriában, a kimenet pufferelt.
+
+@Component
+@RequiredArgsConstructor
+public class TransactionExportWriter {
+
+    static final String CSV_HEADER = "id,type,amount,currency,message,fromAccount,toAccount,createdAt,categories";
+    private static final String CATEGORY_SEPARATOR = ";";
+
+    private final ObjectMapper objectMapper;
+
+    public long write(Iterator<TransactionExportRow> rows, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        TransactionExportRow current = null;
+        List<String> categories = new ArrayList<>();
+
+        while (rows.hasNext()) {
+            TransactionExportRow row = rows.next();
+            if (current != null && !current.getId().equals(row.getId())) {
+                writeRecord(writer, format, current, categories);
+                count++;
+                categories.clear();
+            }
+            current = row;
+            if (row.getCategoryName() != null) {
+                categories.add(row.getCategoryName());
+            }
+        }
+        if (current != null) {
+            writeRecord(writer, format, current, categories);
+            count++;
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    private void writeRecord(Writer writer, ExportFormat format, TransactionExportRow tx, List<String> categories) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeCsv(writer, tx, categories);
+        } else {
+            writeJson(writer, tx, categories);
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsv(Writer writer, TransactionExportRow tx, List<String> categories) throws IOException {
+        writer.write(String.valueOf(tx.getId()));
+        writer.write(',');
+        writer.write(tx.getType().name());
+        writer.write(',');
+        writer.write(tx.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(csv(tx.getCurrency()));
+        writer.write(',');
+        writer.write(csv(tx.getMessage()));
+        writer.write(',');
+        writer.write(csv(tx.getFromAccount()));
+        writer.write(',');
+        writer.write(csv(tx.getToAccount()));
+        writer.write(',');
+        writer.write(tx.getCreatedAt() == null ? "" : tx.getCreatedAt().toString());
+        writer.write(',');
+        writer.write(csv(String.join(CATEGORY_SEPARATOR, categories)));
+    }
+
+    // RFC 4180: idézőjelbe kerül, ha vesszőt, idézőjelet vagy sortörést tartalmaz
+    static String csv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void writeJson(Writer writer, TransactionExportRow tx, List<String> categories) throws IOException {
+        // A generátor nem zárja le és nem flush-olja rekordonként az alatta lévő writert
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+
+        json.writeStartObject();
+        json.writeNumberField("id", tx.getId());
+        json.writeStringField("type", tx.getType().name());
+        json.writeNumberField("amount", tx.getAmount());
+        json.writeStringField("currency", tx.getCurrency());
+        json.writeStringField("message", tx.getMessage());
+        json.writeStringField("fromAccount", tx.getFromAccount());
+        json.writeStringField("toAccount", tx.getToAccount());
+        json.writeStringField("createdAt", tx.getCreatedAt() == null ? null : tx.getCreatedAt().toString());
+        json.writeArrayFieldStart("categories");
+        for (String category : categories) {
+            json.writeString(category);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.close();
+    }
+}
@@ -0,0 +1,65 @@
+package hu.finex.main.history;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import hu.finex.main.mapper.BalanceHistoryMapper;
+import hu.finex.main.model.Account;
+import hu.finex.main.model.Transaction;
+import hu.finex.main.repository.BalanceHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Egyenleg-pillanatkép rögzítése egy pénzmozgáshoz. Write-behind módban nincs külön insert:
+// a pillanatkép a tranzakció sorával együtt commitol (outbox), a balance_history sort a BalanceHistoryRelay írja.
+// A transactionRepository.save előtt kell hívni, különben a jelölés külön UPDATE-et okozna.
+
+@Component
+public class BalanceHistoryOutbox {
+
+    static final String SYNC_METRIC = "finex.balance-history.sync-writes";
+
+    private final BalanceHistoryRepository balanceHistoryRepository;
+    private final BalanceHistoryMapper balanceHistoryMapper;
+    private final Optional<BalanceHistoryRelay> relay;
+    private final Counter syncWrites;
+
+    public BalanceHistoryOutbox(
+            BalanceHistoryRepository balanceHistoryRepository,
+            BalanceHistoryMapper balanceHistoryMapper,
+            Optional<BalanceHistoryRelay> relay,
+            MeterRegistry meterRegistry) {
+        this.balanceHistoryRepository = balanceHistoryRepository;
+        this.balanceHistoryMapper = balanceHistoryMapper;
+        this.relay = relay;
+        this.syncWrites = meterRegistry.counter(SYNC_METRIC);
+    }
+
+    public void record(Transaction transaction, Account account) {
+        BalanceHistoryRelay writer = relay.orElse(null);
+
+        // Kikapcsolt write-behind vagy túl nagy lemaradás: azonnali insert a pénzmozgás tranzakciójában
+        if (writer == null || !writer.accepting()) {
+            balanceHistoryRepository.save(balanceHistoryMapper.toEntity(account, account.getBalance()));
+            syncWrites.increment();
+            return;
+        }
+
+        transaction.setBalanceAfter(account.getBalance());
+        transaction.setHistoryPending(true);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    writer.signal();
+                }
+            });
+        } else {
+            writer.signal();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package hu.finex.main.history;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Write-behind: a pénzmozgás csak megjelöli a tranzakció sorát (history_pending, balance_after),
+// ez a szál pedig batch-ekben írja ki belőlük a balance_history sorokat.
+// Ürítés időre (flush-interval-ms) vagy méretre (batch-size commitolt jelölés); teli batch után azonnal újra ürít.
+// A FOR UPDATE SKIP LOCKED miatt több példány is futhat párhuzamosan ugyanazon a táblán.
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "finex.balance-history.write-behind", havingValue = "true", matchIfMissing = true)
+public class BalanceHistoryRelay {
+
+    static final String FLUSH_METRIC = "finex.balance-history.flush.size";
+    static final String BACKLOG_METRIC = "finex.balance-history.backlog";
+    static final String LAG_METRIC = "finex.balance-history.lag";
+
+    private static final String SELECT_PENDING = """
+            select id, account_id, balance_after, created_at
+            from transactions
+            where history_pending = true
+            order by created_at, id
+            limit ?
+            for update skip locked
+            """;
+
+    // Soronként saját szekvencia-érték: a Hibernate pooled-lo blokkjaival nem ütközhet
+    private static final String INSERT_HISTORY = """
+            insert into balance_history (id, account_id, balance, created_at)
+            values (nextval('balance_history_id_seq'), ?, ?, ?)
+            """;
+
+    private static final String CLEAR_PENDING = "update transactions set history_pending = false where id = ?";
+
+    private static final String BACKLOG = "select count(*), min(created_at) from transactions where history_pending = true";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long maxBacklog;
+    private final DistributionSummary flushSizes;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final AtomicInteger sinceFlush = new AtomicInteger();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicReference<Instant> oldestPending = new AtomicReference<>();
+    private Thread thread;
+
+    @Autowired
+    public BalanceHistoryRelay(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${finex.balance-history.batch-size:500}") int batchSize,
+            @Value("${finex.balance-history.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${finex.balance-history.max-backlog:50000}") long maxBacklog) {
+        this(jdbcTemplate, new TransactionTemplate(transactionManager), meterRegistry, Clock.systemUTC(),
+                batchSize, flushIntervalMs, maxBacklog);
+    }
+
+    BalanceHistoryRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+            Clock clock, int batchSize, long flushIntervalMs, long maxBacklog) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.maxBacklog = Math.max(1, maxBacklog);
+        this.flushSizes = DistributionSummary.builder(FLUSH_METRIC).register(meterRegistry);
+        Gauge.builder(BACKLOG_METRIC, backlog, AtomicLong::get).register(meterRegistry);
+        Gauge.builder(LAG_METRIC, this, BalanceHistoryRelay::lagSeconds).baseUnit("seconds").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        thread = new Thread(this::loop, "balance-history-relay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    // Backpressure: túl nagy lemaradásnál a hívók ismét szinkron írnak, amíg a relay utoléri magát
+    public boolean accepting() {
+        return backlog.get() < maxBacklog;
+    }
+
+    // Egy commitolt jelölés; batch-size jelölés után nem várjuk ki az időzítőt
+    public void signal() {
+        backlog.incrementAndGet();
+        if (sinceFlush.incrementAndGet() == batchSize) {
+            wakeUp.release();
+        }
+    }
+
+    private void loop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                wakeUp.tryAcquire(flushIntervalMs, TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+                drain();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                log.error("Nem sikerült kiírni az egyenleg-előzményeket", ex);
+            }
+        }
+    }
+
+    void drain() {
+        sinceFlush.set(0);
+        int flushed;
+        do {
+            flushed = flushBatch();
+        } while (flushed == batchSize && !Thread.currentThread().isInterrupted());
+        refreshBacklog();
+    }
+
+    // Egy batch: kijelölt sorok zárolása, többsoros insert (reWriteBatchedInserts), jelölés törlése - egy tranzakcióban
+    int flushBatch() {
+        Integer flushed = transactionTemplate.execute(status -> {
+            List<PendingSnapshot> pending = jdbcTemplate.query(SELECT_PENDING,
+                    (rs, rowNum) -> new PendingSnapshot(
+                            rs.getLong("id"),
+                            rs.getLong("account_id"),
+                            rs.getBigDecimal("balance_after"),
+                            rs.getObject("created_at", OffsetDateTime.class)),
+                    batchSize);
+            if (pending.isEmpty()) {
+                return 0;
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_HISTORY, pending, pending.size(), (ps, snapshot) -> {
+                ps.setLong(1, snapshot.accountId());
+                ps.setBigDecimal(2, snapshot.balance());
+                ps.setObject(3, snapshot.createdAt());
+            });
+            jdbcTemplate.batchUpdate(CLEAR_PENDING, pending, pending.size(),
+                    (ps, snapshot) -> ps.setLong(1, snapshot.transactionId()));
+            return pending.size();
+        });
+
+        int count = flushed == null ? 0 : flushed;
+        if (count > 0) {
+            flushSizes.record(count);
+        }
+        return count;
+    }
+
+    void refreshBacklog() {
+        jdbcTemplate.query(BACKLOG, rs -> {
+            backlog.set(rs.getLong(1));
+            OffsetDateTime oldest = rs.getObject(2, OffsetDateTime.class);
+            oldestPending.set(oldest == null ? null : oldest.toInstant());
+        });
+    }
+
+    // A legrégebbi, még ki nem írt pillanatkép kora; 0, ha nincs lemaradás
+    double lagSeconds() {
+        Instant oldest = oldestPending.get();
+        if (oldest == null) {
+            return 0.0;
+        }
+        return Math.max(0, Duration.between(oldest, clock.instant()).toMillis()) / 1000.0;
+    }
+
+    long backlog() {
+        return backlog.get();
+    }
+
+    record PendingSnapshot(long transactionId, long accountId, BigDecimal balance, OffsetDateTime createdAt) {
+    }
+}
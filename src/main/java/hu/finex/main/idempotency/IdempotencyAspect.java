@@ -0,0 +1,179 @@
+package hu.finex.main.idempotency;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.ResolvableType;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hu.finex.main.exception.BusinessException;
+import hu.finex.main.exception.ConflictException;
+import hu.finex.main.exception.OutcomeUncertainException;
+import hu.finex.main.model.IdempotencyRecord;
+import hu.finex.main.model.enums.IdempotencyStatus;
+import hu.finex.main.security.AuthenticatedUser;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+// Idempotency-Key kezelés a controller metódusok körül: memória -> DB foglalás -> végrehajtás -> válasz tárolása.
+// A kulcs hatóköre művelet + bejelentkezett felhasználó, így két kliens azonos kulcsa nem ütközik.
+// A felhasználót az id (régi tokennél az email SHA-256 lenyomata) azonosítja, így a scope_key hossza korlátos
+// (varchar(255)), és email-csere után is ugyanaz marad.
+// A lenyomat a HTTP metódus, az URI és a @RequestBody JSON alakja.
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class IdempotencyAspect {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyCache idempotencyCache;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    @Around("@annotation(idempotent)")
+    public Object handle(ProceedingJoinPoint joinPoint, Idempotent idempotent) throws Throwable {
+        HttpServletRequest request = currentRequest();
+        String key = request == null ? null : request.getHeader(HEADER);
+        if (key == null || key.isBlank()) {
+            return joinPoint.proceed();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Az Idempotency-Key legfeljebb " + MAX_KEY_LENGTH + " karakter lehet.");
+        }
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String scopeKey = idempotent.value() + ":" + principalScope() + ":" + key;
+        String requestHash = fingerprint(request, method, joinPoint.getArgs());
+
+        StoredResponse cached = idempotencyCache.get(scopeKey);
+        if (cached != null) {
+            return replay(cached, requestHash, method);
+        }
+
+        Optional<IdempotencyRecord> existing;
+        try {
+            existing = idempotencyStore.claim(scopeKey, requestHash);
+        } catch (DataIntegrityViolationException ex) {
+            throw inProgress();
+        }
+
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            if (record.getStatus() == IdempotencyStatus.IN_PROGRESS) {
+                if (!record.getRequestHash().equals(requestHash)) {
+                    throw keyReused();
+                }
+                throw inProgress();
+            }
+            StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getResponseStatus(), record.getResponseBody());
+            idempotencyCache.put(scopeKey, stored);
+            return replay(stored, requestHash, method);
+        }
+
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (OutcomeUncertainException ex) {
+            // A művelet még commitolhat: a kulcs foglalt marad (újraküldés = 409), és csak akkor szabadul fel,
+            // ha a művelet végül visszagördült. Sikeres kimenetelnél a foglalás a TTL lejártáig megmarad.
+            ex.getOutcome().whenComplete((value, failure) -> {
+                if (failure != null) {
+                    idempotencyStore.release(scopeKey);
+                }
+            });
+            throw ex;
+        } catch (Throwable ex) {
+            // Validációs, üzleti vagy lock-hiba: semmi sem került commitra, a kulcs újra felhasználható
+            idempotencyStore.release(scopeKey);
+            throw ex;
+        }
+
+        ResponseEntity<?> response = (ResponseEntity<?>) result;
+        StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                objectMapper.writeValueAsString(response.getBody()));
+        idempotencyStore.complete(scopeKey, stored.status(), stored.body());
+        idempotencyCache.put(scopeKey, stored);
+        return result;
+    }
+
+    private ResponseEntity<Object> replay(StoredResponse stored, String requestHash, Method method) throws JsonProcessingException {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw keyReused();
+        }
+        JavaType bodyType = objectMapper.getTypeFactory()
+                .constructType(ResolvableType.forMethodReturnType(method).getGeneric(0).getType());
+        Object body = stored.body() == null ? null : objectMapper.readValue(stored.body(), bodyType);
+        return ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true").body(body);
+    }
+
+    private String fingerprint(HttpServletRequest request, Method method, Object[] args) throws JsonProcessingException {
+        StringBuilder raw = new StringBuilder(request.getMethod()).append(' ').append(request.getRequestURI());
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].isAnnotationPresent(RequestBody.class)) {
+                raw.append('\n').append(objectMapper.writeValueAsString(args[i]));
+            }
+        }
+        return sha256(raw.toString());
+    }
+
+    private static String sha256(String raw) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(raw.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static HttpServletRequest currentRequest() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest();
+        }
+        return null;
+    }
+
+    private static String principalScope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return "anonymous";
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user && user.id() != null) {
+            return String.valueOf(user.id());
+        }
+        return sha256(authentication.getName());
+    }
+
+    private static ConflictException inProgress() {
+        return new ConflictException("Ezzel az Idempotency-Key-jel egy kérés feldolgozása folyamatban van.");
+    }
+
+    private static BusinessException keyReused() {
+        return new BusinessException("Az Idempotency-Key már egy eltérő tartalmú kéréshez tartozik.");
+    }
+}
@@ -0,0 +1,64 @@
+package hu.finex.main.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Korlátos méretű, TTL-es memóriabeli réteg a DB tábla előtt: a gyakori újraküldések DB nélkül kapják meg a választ.
+// LRU kiszorítás max-entries felett; csak lezárt (COMPLETED) válaszok kerülnek bele.
+
+@Component
+public class IdempotencyCache {
+
+    private final Clock clock;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+
+    @Autowired
+    public IdempotencyCache(
+            @Value("${finex.idempotency.ttl:24h}") Duration ttl,
+            @Value("${finex.idempotency.cache-max-entries:10000}") int maxEntries) {
+        this(Clock.systemUTC(), ttl, maxEntries);
+    }
+
+    IdempotencyCache(Clock clock, Duration ttl, int maxEntries) {
+        this.clock = clock;
+        this.ttlMs = ttl.toMillis();
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyCache.this.maxEntries;
+            }
+        };
+    }
+
+    private record Entry(StoredResponse response, long expiresAt) {
+    }
+
+    public synchronized StoredResponse get(String scopeKey) {
+        Entry entry = entries.get(scopeKey);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= clock.millis()) {
+            entries.remove(scopeKey);
+            return null;
+        }
+        return entry.response();
+    }
+
+    public synchronized void put(String scopeKey, StoredResponse response) {
+        entries.put(scopeKey, new Entry(response, clock.millis() + ttlMs));
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
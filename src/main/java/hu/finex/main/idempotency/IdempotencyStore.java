@@ -0,0 +1,70 @@
+package hu.finex.main.idempotency;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import hu.finex.main.model.IdempotencyRecord;
+import hu.finex.main.model.enums.IdempotencyStatus;
+import hu.finex.main.repository.IdempotencyRecordRepository;
+
+// Tartós réteg: minden lépés saját, rövid tranzakcióban fut, független a pénzmozgás tranzakciójától.
+// A foglalás (IN_PROGRESS) a pénzmozgás előtt commitol: ha a folyamat a kettő között leáll, a kulcs foglalt marad,
+// így az újraküldés 409-et kap, nem kettős terhelést.
+
+@Component
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository, @Value("${finex.idempotency.ttl:24h}") Duration ttl) {
+        this.repository = repository;
+        this.ttl = ttl;
+    }
+
+    // Üres, ha most foglaltuk le a kulcsot; különben a meglévő rekord.
+    // Párhuzamos foglaláskor az egyedi index miatt DataIntegrityViolationException jön.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<IdempotencyRecord> claim(String scopeKey, String requestHash) {
+        Optional<IdempotencyRecord> existing = repository.findByScopeKey(scopeKey);
+        if (existing.isPresent()) {
+            return existing;
+        }
+
+        repository.saveAndFlush(IdempotencyRecord.builder()
+                .scopeKey(scopeKey)
+                .requestHash(requestHash)
+                .status(IdempotencyStatus.IN_PROGRESS)
+                .createdAt(Instant.now())
+                .build());
+        return Optional.empty();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void complete(String scopeKey, int status, String body) {
+        repository.findByScopeKey(scopeKey).ifPresent(record -> {
+            record.setStatus(IdempotencyStatus.COMPLETED);
+            record.setResponseStatus(status);
+            record.setResponseBody(body);
+        });
+    }
+
+    // Sikertelen végrehajtás után a kulcs felszabadul, az újraküldés ismét lefuthat
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String scopeKey) {
+        repository.deleteByScopeKey(scopeKey);
+    }
+
+    @Scheduled(fixedDelayString = "${finex.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        repository.deleteCreatedBefore(Instant.now().minus(ttl));
+    }
+}
@@ -0,0 +1,19 @@
+package hu.finex.main.idempotency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Pénzmozgató controller végpont: Idempotency-Key fejléc esetén ugyanaz a kérés csak egyszer fut le,
+// az ismételt hívás a tárolt választ kapja vissza (IdempotencyAspect). Fejléc nélkül a viselkedés változatlan.
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Idempotent {
+
+    // Művelet neve, a kulcs hatóköre (pl. "transfer")
+    String value();
+}
@@ -0,0 +1,5 @@
+package hu.finex.main.idempotency;
+
+// Lezárt kérés: lenyomat + HTTP státusz + JSON válasz
+public record StoredResponse(String requestHash, int status, String body) {
+}
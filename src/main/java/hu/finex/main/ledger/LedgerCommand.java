@@ -0,0 +1,16 @@
+package hu.finex.main.ledger;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Egyenleget módosító parancs: finex.ledger.mode=sharded esetén a számla shardjának író szálán fut (ShardedLedgerAspect).
+// A számlákat a metódus @SerializedPerAccount annotációja adja meg.
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LedgerCommand {
+}
@@ -0,0 +1,259 @@
+package hu.finex.main.ledger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import hu.finex.main.concurrency.AccountLockManager.Key;
+import hu.finex.main.exception.OutcomeUncertainException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Egyíró (single-writer) shardok: minden folyószámla pontosan egy shard szálához tartozik.
+// A shard a sorából egyszerre legfeljebb batch-size parancsot vesz ki, és egyetlen DB tranzakcióban futtatja (group commit).
+// Ha a batch bármelyik parancsa elbukik, az egész visszagördül, és a parancsok egyenként, saját tranzakcióban futnak újra,
+// így egy üzleti hiba csak a saját kérését rontja el. Az egyenleg forrása továbbra is a Postgres (sorzárakkal).
+// A parancsok számlazárai (AccountLockManager) a batch commitjáig maradnak zárva, a sorzárakkal együtt.
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "finex.ledger.mode", havingValue = "sharded")
+public class ShardedLedger {
+
+    static final String BATCH_SIZE_METRIC = "finex.ledger.batch.size";
+    static final String FALLBACK_METRIC = "finex.ledger.batch.fallback";
+    static final String QUEUE_METRIC = "finex.ledger.queue.depth";
+
+    private static final long POLL_MS = 100;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long submitTimeoutMs;
+    private final long resultTimeoutMs;
+    private final Shard[] shards;
+
+    public ShardedLedger(
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${finex.ledger.shards:4}") int shardCount,
+            @Value("${finex.ledger.batch-size:64}") int batchSize,
+            @Value("${finex.ledger.queue-capacity:1024}") int queueCapacity,
+            @Value("${finex.ledger.submit-timeout-ms:1000}") long submitTimeoutMs,
+            @Value("${finex.ledger.result-timeout-ms:15000}") long resultTimeoutMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.submitTimeoutMs = Math.max(0, submitTimeoutMs);
+        this.resultTimeoutMs = Math.max(1, resultTimeoutMs);
+        this.shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, Math.max(1, queueCapacity), meterRegistry);
+            shards[i].start();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Work {
+        Object run() throws Throwable;
+    }
+
+    // Üres, ha a parancs több shardot érint (vagy egyet sem): ilyenkor a hívó a sorzáras úton fut
+    public OptionalInt shardFor(Collection<Key> keys) {
+        int shard = -1;
+        for (Key key : keys) {
+            int current = shardIndex(key);
+            if (shard >= 0 && shard != current) {
+                return OptionalInt.empty();
+            }
+            shard = current;
+        }
+        return shard < 0 ? OptionalInt.empty() : OptionalInt.of(shard);
+    }
+
+    // A hívó szál a commitig, de legfeljebb result-timeout-ms ideig vár; a parancs kivétele változatlanul jut vissza hozzá
+    public Object submit(int shard, Work work) throws Throwable {
+        Command command = new Command(work);
+        if (!shards[shard].queue.offer(command, submitTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new CannotAcquireLockException("A főkönyvi shard túlterhelt, kérjük próbáld újra.");
+        }
+        try {
+            return command.result.get(resultTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        } catch (TimeoutException ex) {
+            throw abandon(shards[shard], command, "A főkönyvi shard nem válaszolt " + resultTimeoutMs + " ms alatt.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw abandon(shards[shard], command, "A főkönyvi műveletre várakozás megszakadt.");
+        }
+    }
+
+    // A még sorban álló parancs visszavonható, így a lock-hiba úton (újrapróbálás, 409) megy tovább.
+    // A már kivett parancs kimenetele ismeretlen: újrapróbálni nem szabad, ezért 503, a parancs eredményével együtt,
+    // hogy az Idempotency-Key foglalása csak akkor szabaduljon fel, ha a parancs végül visszagördült.
+    private static RuntimeException abandon(Shard shard, Command command, String message) {
+        if (shard.queue.remove(command)) {
+            return new CannotAcquireLockException(message);
+        }
+        return new OutcomeUncertainException(message + " A művelet eredménye bizonytalan, ellenőrizd az egyenleget.",
+                command.result.minimalCompletionStage());
+    }
+
+    public static boolean onShardThread() {
+        return Thread.currentThread() instanceof ShardThread;
+    }
+
+    int shardIndex(Key key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return Math.floorMod(h, shards.length);
+    }
+
+    int shardCount() {
+        return shards.length;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Shard shard : shards) {
+            shard.interrupt();
+        }
+    }
+
+    private static final class Command {
+        private final Work work;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Command(Work work) {
+            this.work = work;
+        }
+
+        private Object run() {
+            try {
+                return work.run();
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new CommandFailure(ex);
+            }
+        }
+    }
+
+    // Checked kivétel átcsomagolása, hogy a TransactionTemplate visszagörgessen
+    private static final class CommandFailure extends RuntimeException {
+        private CommandFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    private static final class ShardThread extends Thread {
+        private ShardThread(Runnable task, String name) {
+            super(task, name);
+            setDaemon(true);
+        }
+    }
+
+    private final class Shard {
+        private final BlockingQueue<Command> queue;
+        private final DistributionSummary batchSizes;
+        private final Counter fallbacks;
+        private final Thread thread;
+
+        private Shard(int index, int capacity, MeterRegistry meterRegistry) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            String tag = String.valueOf(index);
+            this.batchSizes = DistributionSummary.builder(BATCH_SIZE_METRIC).tag("shard", tag).register(meterRegistry);
+            this.fallbacks = meterRegistry.counter(FALLBACK_METRIC, "shard", tag);
+            Gauge.builder(QUEUE_METRIC, queue, BlockingQueue::size).tag("shard", tag).register(meterRegistry);
+            this.thread = new ShardThread(this::loop, "ledger-shard-" + index);
+        }
+
+        private void start() {
+            thread.start();
+        }
+
+        private void interrupt() {
+            thread.interrupt();
+        }
+
+        private void loop() {
+            List<Command> batch = new ArrayList<>(batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Command first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    execute(batch);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException ex) {
+                    log.error("Váratlan hiba a főkönyvi shardban", ex);
+                } finally {
+                    batch.clear();
+                }
+            }
+            failPending();
+        }
+
+        private void execute(List<Command> batch) {
+            batchSizes.record(batch.size());
+            if (batch.size() > 1) {
+                try {
+                    List<Object> results = transactionTemplate.execute(status -> {
+                        List<Object> values = new ArrayList<>(batch.size());
+                        for (Command command : batch) {
+                            values.add(command.run());
+                        }
+                        return values;
+                    });
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).result.complete(results.get(i));
+                    }
+                    return;
+                } catch (RuntimeException ex) {
+                    fallbacks.increment();
+                }
+            }
+            for (Command command : batch) {
+                runAlone(command);
+            }
+        }
+
+        private void runAlone(Command command) {
+            try {
+                command.result.complete(transactionTemplate.execute(status -> command.run()));
+            } catch (CommandFailure ex) {
+                command.result.completeExceptionally(ex.getCause());
+            } catch (RuntimeException ex) {
+                command.result.completeExceptionally(ex);
+            }
+        }
+
+        private void failPending() {
+            Command command;
+            while ((command = queue.poll()) != null) {
+                command.result.completeExceptionally(new CannotAcquireLockException("A főkönyvi shard leállt."));
+            }
+        }
+    }
+}
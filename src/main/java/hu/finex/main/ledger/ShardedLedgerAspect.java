@@ -0,0 +1,45 @@
+package hu.finex.main.ledger;
+
+import java.lang.reflect.Method;
+import java.util.OptionalInt;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import hu.finex.main.concurrency.AccountKeyResolver;
+import lombok.RequiredArgsConstructor;
+
+// A LockRetryAspect után, az AccountLockAspect és a @Transactional előtt fut: a hívás további része
+// (zár, tranzakció, service logika) már a shard szálán, annak batch-tranzakciójában hajtódik végre.
+// Több shardot érintő átutalás a megszokott sorzáras úton fut a hívó szálán.
+
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(name = "finex.ledger.mode", havingValue = "sharded")
+@RequiredArgsConstructor
+public class ShardedLedgerAspect {
+
+    private final ShardedLedger shardedLedger;
+    private final AccountKeyResolver accountKeyResolver;
+
+    @Around("@annotation(hu.finex.main.ledger.LedgerCommand)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ShardedLedger.onShardThread()) {
+            return joinPoint.proceed();
+        }
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        OptionalInt shard = shardedLedger.shardFor(accountKeyResolver.resolve(method, joinPoint.getArgs()));
+        if (shard.isEmpty()) {
+            return joinPoint.proceed();
+        }
+        return shardedLedger.submit(shard.getAsInt(), joinPoint::proceed);
+    }
+}
@@ -0,0 +1,258 @@
+package hu.finex.main.loginlog;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import hu.finex.main.model.enums.LoginStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Belépési napló aszinkron, batch-elt írása: a login csak sorba teszi a bejegyzést, egy háttérszál
+// többsoros insert-tel (reWriteBatchedInserts) írja ki méretre (batch-size) vagy időre (flush-interval-ms).
+// Teli sornál az overflow beállítás dönt: SYNC - a hívó maga írja ki, DROP - a bejegyzés elvész (számláljuk).
+// Leálláskor a sorban maradt bejegyzések még kiíródnak.
+
+@Slf4j
+@Component
+public class LoginLogWriter {
+
+    static final String DEPTH_METRIC = "finex.login-log.queue.depth";
+    static final String DROPPED_METRIC = "finex.login-log.dropped";
+    static final String SYNC_METRIC = "finex.login-log.sync-writes";
+    static final String FLUSH_METRIC = "finex.login-log.flush.size";
+
+    // Soronként saját szekvencia-érték: a Hibernate pooled-lo blokkjaival nem ütközhet
+    static final String INSERT = """
+            insert into login_logs (id, user_id, status, ip_address, user_agent, failure_reason, created_at)
+            values (nextval('login_logs_id_seq'), ?, ?, ?, ?, ?, ?)
+            """;
+
+    public enum OverflowPolicy { SYNC, DROP }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflow;
+    private final Counter dropped;
+    private final Counter syncWrites;
+    private final DistributionSummary flushSizes;
+
+    private volatile boolean accepting = true;
+    private Thread thread;
+
+    @Autowired
+    public LoginLogWriter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${finex.login-log.queue-capacity:10000}") int queueCapacity,
+            @Value("${finex.login-log.batch-size:200}") int batchSize,
+            @Value("${finex.login-log.flush-interval-ms:250}") long flushIntervalMs,
+            @Value("${finex.login-log.overflow:SYNC}") OverflowPolicy overflow) {
+        this(jdbcTemplate, new TransactionTemplate(transactionManager), meterRegistry, Clock.systemUTC(), queueCapacity, batchSize, flushIntervalMs, overflow);
+    }
+
+    LoginLogWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry, Clock clock,
+            int queueCapacity, int batchSize, long flushIntervalMs, OverflowPolicy overflow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.overflow = overflow;
+        this.dropped = Counter.builder(DROPPED_METRIC).register(meterRegistry);
+        this.syncWrites = Counter.builder(SYNC_METRIC).register(meterRegistry);
+        this.flushSizes = DistributionSummary.builder(FLUSH_METRIC).register(meterRegistry);
+        Gauge.builder(DEPTH_METRIC, queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        thread = new Thread(this::loop, "login-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Előbb a háttérszál fejezi be az aktuális batch-et, utána a sor maradékát itt írjuk ki
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        accepting = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        drainRemaining();
+    }
+
+    public void record(Long userId, LoginStatus status, String ipAddress, String userAgent, String failureReason) {
+        Entry entry = new Entry(userId, status, ipAddress, userAgent, failureReason, clock.instant());
+        if (accepting && enqueue(entry)) {
+            return;
+        }
+        if (accepting && overflow == OverflowPolicy.DROP) {
+            dropped.increment();
+            return;
+        }
+        // Teli sor (SYNC) vagy leállás közben: a hívó szálán, egyetlen insert-tel
+        syncWrites.increment();
+        write(new ArrayList<>(List.of(entry)));
+    }
+
+    // A hívó az accepting ellenőrzése és az offer között lemaradhat a shutdown ürítéséről: ha az offer után már nem
+    // fogadunk, a hívó maga üríti a sort (a volatile jelző és a sor zárja miatt ilyenkor a false-t biztosan látja)
+    boolean enqueue(Entry entry) {
+        if (!queue.offer(entry)) {
+            return false;
+        }
+        if (!accepting) {
+            drainRemaining();
+        }
+        return true;
+    }
+
+    private void loop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                log.error("Nem sikerült kiírni a belépési naplót", ex);
+                backOff();
+            } finally {
+                // Hiba vagy megszakítás után a kivett, de ki nem írt bejegyzések visszakerülnek a sorba
+                requeue(batch);
+            }
+        }
+    }
+
+    private void requeue(List<Entry> batch) {
+        for (Entry entry : batch) {
+            if (!queue.offer(entry)) {
+                dropped.increment();
+            }
+        }
+        batch.clear();
+    }
+
+    private void backOff() {
+        try {
+            Thread.sleep(flushIntervalMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Az első bejegyzéstől számítva legfeljebb flush-interval-ms ideig gyűjt, vagy amíg a batch meg nem telik
+    void collect(List<Entry> batch) throws InterruptedException {
+        Entry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    void flush(List<Entry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int size = batch.size();
+        write(batch);
+        flushSizes.record(size);
+    }
+
+    void drainRemaining() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+        }
+    }
+
+    // A kiírt (vagy eldobott) bejegyzések kikerülnek a listából. Sorhoz kötött hibánál (pl. közben törölt user) soronként,
+    // saját tranzakcióban próbáljuk újra, hogy egy sor ne vigye el a többit; más adatbázis-hiba a hívóig jut, és a listában
+    // csak a még ki nem írt bejegyzések maradnak (a háttérszál ezeket teszi vissza, a már commitoltakat nem írja ki kétszer)
+    private void write(List<Entry> entries) {
+        try {
+            insert(entries);
+            entries.clear();
+        } catch (DataIntegrityViolationException ex) {
+            if (entries.size() == 1) {
+                drop(entries.remove(0), ex);
+                return;
+            }
+            while (!entries.isEmpty()) {
+                Entry entry = entries.get(0);
+                try {
+                    insert(List.of(entry));
+                } catch (DataIntegrityViolationException rowEx) {
+                    drop(entry, rowEx);
+                }
+                entries.remove(0);
+            }
+        }
+    }
+
+    private void drop(Entry entry, DataIntegrityViolationException ex) {
+        dropped.increment();
+        log.warn("Belépési napló bejegyzés eldobva (user {})", entry.userId(), ex);
+    }
+
+    // Egy batch egy tranzakció: hibánál nem marad félig kiírt batch (SYNC esetén a hívó tranzakciójához csatlakozik)
+    private void insert(List<Entry> entries) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT, entries, entries.size(), (ps, entry) -> {
+                    ps.setLong(1, entry.userId());
+                    ps.setString(2, entry.status().name());
+                    ps.setString(3, entry.ipAddress());
+                    ps.setString(4, entry.userAgent());
+                    ps.setString(5, entry.failureReason());
+                    ps.setObject(6, OffsetDateTime.ofInstant(entry.createdAt(), ZoneOffset.UTC));
+                }));
+    }
+
+    int queueDepth() {
+        return queue.size();
+    }
+
+    record Entry(Long userId, LoginStatus status, String ipAddress, String userAgent, String failureReason, Instant createdAt) {
+    }
+}
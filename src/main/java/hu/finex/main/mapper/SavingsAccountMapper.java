@@ -5,10 +5,12 @@ import java.time.Instant;
 import org.springframework.stereotype.Component;
 
 import hu.finex.main.dto.CreateSavingsAccountRequest;
+import hu.finex.main.dto.SavingsAccountRow;
 import hu.finex.main.dto.SavingsAccountResponse;
 import hu.finex.main.dto.UpdateSavingsAccountRequest;
 import hu.finex.main.model.SavingsAccount;
 import hu.finex.main.model.User;
+import hu.finex.main.money.MinorUnits;
 
 @Component
 public class SavingsAccountMapper {
@@ -46,4 +48,18 @@ public class SavingsAccountMapper {
                 .updatedAt(entity.getUpdatedAt())
                 .build();
     }
+
+    public SavingsAccountResponse toResponse(SavingsAccountRow row) {
+        return SavingsAccountResponse.builder()
+                .id(row.getId())
+                .userId(row.getUserId())
+                .name(row.getName())
+                .balance(MinorUnits.toDecimal(row.getBalanceMinor()))
+                .currency(row.getCurrency())
+                .interestRate(row.getInterestRate())
+                .status(row.getStatus())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .build();
+    }
 }
@@ -0,0 +1,48 @@
+package hu.finex.main.metrics;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Üzleti számlálók a kapacitástervezéshez; a sebességet (pl. átutalás/s) a Prometheus rate() adja.
+// Az átutalás csak commit után számít: visszagörgetett vagy lock ütközés miatt újrapróbált kísérlet nem duplázza.
+
+@Component
+public class BusinessMetrics {
+
+    static final String TRANSFERS_METRIC = "finex.transfers";
+    static final String INSUFFICIENT_FUNDS_METRIC = "finex.insufficient-funds";
+    static final String LOGIN_FAILURES_METRIC = "finex.login.failures";
+
+    private final MeterRegistry meterRegistry;
+    private final Counter transfers;
+
+    public BusinessMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.transfers = Counter.builder(TRANSFERS_METRIC).register(meterRegistry);
+    }
+
+    public void transferCompleted() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    transfers.increment();
+                }
+            });
+        } else {
+            transfers.increment();
+        }
+    }
+
+    public void insufficientFunds(String operation) {
+        meterRegistry.counter(INSUFFICIENT_FUNDS_METRIC, "operation", operation).increment();
+    }
+
+    public void loginFailed(String reason) {
+        meterRegistry.counter(LOGIN_FAILURES_METRIC, "reason", reason).increment();
+    }
+}
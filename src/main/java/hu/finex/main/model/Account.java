@@ -3,16 +3,23 @@ package hu.finex.main.model;
 import java.math.BigDecimal;
 import java.time.Instant;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import hu.finex.main.model.enums.AccountStatus;
 import hu.finex.main.model.enums.AccountType;
+import hu.finex.main.money.MinorUnitsConverter;
+import hu.finex.main.money.MinorUnits;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -20,6 +27,7 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -31,8 +39,11 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+// L2 cache: a pénzmozgások FOR UPDATE olvasása mindig az adatbázisból jön, a cache csak a sima olvasásokat szolgálja ki
 @Entity
 @Table(name = "accounts",indexes = {@Index(name = "uk_accounts_account_number", columnList = "account_number", unique = true)})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @EntityListeners(AuditingEntityListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -47,7 +58,7 @@ public class Account {
     private Long id;
 
     // FK -> users.id
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -57,10 +68,12 @@ public class Account {
     @Column(name = "account_number", nullable = false, unique = true, length = 34)
     private String accountNumber;
 
-    // Egyenleg
-    @NotNull
+    // Egyenleg minor egységben (fillér); az oszlop numeric(18,2) marad
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(nullable = false, precision = 18, scale = 2)
-    private BigDecimal balance;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long balance;
 
     // Számla devizaneme
     @NotBlank
@@ -88,4 +101,42 @@ public class Account {
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
+
+    // Optimista zárolás: párhuzamos módosításnál OptimisticLockingFailureException
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    public BigDecimal getBalance() {
+        return MinorUnits.toDecimal(balance);
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = MinorUnits.toMinor(balance);
+    }
+
+    public long getBalanceMinor() {
+        return balance;
+    }
+
+    // Főkönyvi forró út: csak long aritmetika, allokáció nélkül
+    public boolean covers(long amountMinor) {
+        return balance >= amountMinor;
+    }
+
+    public void credit(long amountMinor) {
+        balance = MinorUnits.add(balance, amountMinor);
+    }
+
+    public void debit(long amountMinor) {
+        balance = MinorUnits.subtract(balance, amountMinor);
+    }
+
+    public static class AccountBuilder {
+
+        public AccountBuilder balance(BigDecimal balance) {
+            this.balance = MinorUnits.toMinor(balance);
+            return this;
+        }
+    }
 }
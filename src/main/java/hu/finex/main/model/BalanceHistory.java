@@ -9,12 +9,14 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 import lombok.AccessLevel;
@@ -26,7 +28,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "balance_history",indexes = {@Index(name = "idx_balance_history_account_id", columnList = "account_id"),@Index(name = "idx_balance_history_created_at", columnList = "created_at")})
+@Table(name = "balance_history",indexes = {@Index(name = "idx_balance_history_account_created_id", columnList = "account_id, created_at, id"),@Index(name = "idx_balance_history_created_at", columnList = "created_at")})
 @EntityListeners(AuditingEntityListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -36,12 +38,13 @@ import lombok.Setter;
 public class BalanceHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_history_seq")
+    @SequenceGenerator(name = "balance_history_seq", sequenceName = "balance_history_id_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
     @NotNull
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
 
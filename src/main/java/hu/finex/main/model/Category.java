@@ -1,7 +1,10 @@
 package hu.finex.main.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
@@ -20,8 +23,11 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+// L2 cache: létrehozás és törlés után sosem módosul
 @Entity
 @Table(name = "categories",indexes = {@Index(name = "uk_categories_name", columnList = "name", unique = true)})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 @EntityListeners(AuditingEntityListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
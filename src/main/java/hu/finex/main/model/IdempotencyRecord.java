@@ -0,0 +1,75 @@
+package hu.finex.main.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import hu.finex.main.model.enums.IdempotencyStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Idempotency-Key alapú kérés-lenyomat és a tárolt válasz.
+// A scope_key egyedisége garantálja, hogy ugyanaz a kulcs párhuzamosan sem fut le kétszer.
+
+@Entity
+@Table(name = "idempotency_keys",indexes = {@Index(name = "uk_idempotency_keys_scope_key", columnList = "scope_key", unique = true),@Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")})
+@EntityListeners(AuditingEntityListener.class)
+@Getter @Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_seq")
+    @SequenceGenerator(name = "idempotency_keys_seq", sequenceName = "idempotency_keys_id_seq", allocationSize = 50)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    // művelet + felhasználó + kliens által küldött kulcs
+    @NotNull
+    @Size(max = 255)
+    @Column(name = "scope_key", nullable = false, length = 255)
+    private String scopeKey;
+
+    // A kérés SHA-256 lenyomata: ugyanazzal a kulccsal más tartalmú kérés nem küldhető
+    @NotNull
+    @Size(max = 64)
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IdempotencyStatus status;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -11,12 +11,14 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -29,7 +31,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "login_logs",indexes = {@Index(name = "idx_login_logs_user_id", columnList = "user_id"),@Index(name = "idx_login_logs_created_at", columnList = "created_at")})
+@Table(name = "login_logs",indexes = {@Index(name = "idx_login_logs_user_created_id", columnList = "user_id, created_at desc, id desc"),@Index(name = "idx_login_logs_created_at", columnList = "created_at")})
 @EntityListeners(AuditingEntityListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -39,12 +41,13 @@ import lombok.Setter;
 public class LoginLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "login_logs_seq")
+    @SequenceGenerator(name = "login_logs_seq", sequenceName = "login_logs_id_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
     @NotNull
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
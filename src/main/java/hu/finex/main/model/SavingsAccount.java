@@ -9,11 +9,15 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import hu.finex.main.model.enums.SavingsStatus;
+import hu.finex.main.money.MinorUnitsConverter;
+import hu.finex.main.money.MinorUnits;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -21,6 +25,7 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -49,7 +54,7 @@ public class SavingsAccount {
 
     // FK → users.id
     @NotNull
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -59,9 +64,12 @@ public class SavingsAccount {
     @Column(nullable = false, length = 100)
     private String name;
 
-    @NotNull
+    // Egyenleg minor egységben (fillér); az oszlop numeric(18,2) marad
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(nullable = false, precision = 18, scale = 2)
-    private BigDecimal balance;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long balance;
 
     @NotBlank
     @Size(max = 3)
@@ -84,4 +92,42 @@ public class SavingsAccount {
     @LastModifiedDate
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
+
+    // Optimista zárolás: párhuzamos módosításnál OptimisticLockingFailureException
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    public BigDecimal getBalance() {
+        return MinorUnits.toDecimal(balance);
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = MinorUnits.toMinor(balance);
+    }
+
+    public long getBalanceMinor() {
+        return balance;
+    }
+
+    // Főkönyvi forró út: csak long aritmetika, allokáció nélkül
+    public boolean covers(long amountMinor) {
+        return balance >= amountMinor;
+    }
+
+    public void credit(long amountMinor) {
+        balance = MinorUnits.add(balance, amountMinor);
+    }
+
+    public void debit(long amountMinor) {
+        balance = MinorUnits.subtract(balance, amountMinor);
+    }
+
+    public static class SavingsAccountBuilder {
+
+        public SavingsAccountBuilder balance(BigDecimal balance) {
+            this.balance = MinorUnits.toMinor(balance);
+            return this;
+        }
+    }
 }
@@ -2,7 +2,10 @@ package hu.finex.main.model;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -12,12 +15,19 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -31,8 +41,12 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "transactions",indexes = {@Index(name = "idx_transactions_account_id", columnList = "account_id"),@Index(name = "idx_transactions_created_at", columnList = "created_at")})
+@Table(name = "transactions",indexes = {@Index(name = "idx_transactions_account_created_id", columnList = "account_id, created_at desc, id desc"),@Index(name = "idx_transactions_created_at", columnList = "created_at")})
 @EntityListeners(AuditingEntityListener.class)
+// Részletes nézet: tranzakció + kategóriák egyetlen SELECT-tel; a számla csak id-proxy marad
+@NamedEntityGraph(name = Transaction.DETAIL_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "categoryLinks", subgraph = "link"),
+        subgraphs = @NamedSubgraph(name = "link", attributeNodes = @NamedAttributeNode("category")))
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
@@ -40,12 +54,17 @@ import lombok.Setter;
 @Builder
 public class Transaction {
 
+    public static final String DETAIL_GRAPH = "Transaction.detail";
+
+
+    // Pooled-lo szekvencia (50-es blokkok): az insertek JDBC batch-be kerülhetnek
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_id_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
 
@@ -77,4 +96,18 @@ public class Transaction {
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
+
+    // Outbox: a számla egyenlege a tranzakció után; a BalanceHistoryRelay ebből írja a balance_history sort
+    @Column(name = "balance_after", precision = 18, scale = 2)
+    private BigDecimal balanceAfter;
+
+    @Column(name = "history_pending", nullable = false)
+    @ColumnDefault("false")
+    private boolean historyPending;
+
+    // Csak olvasásra: a kapcsolatokat a TransactionCategoryRepository menti
+    @OneToMany(mappedBy = "transaction")
+    @OrderBy("id")
+    @Builder.Default
+    private List<TransactionCategory> categoryLinks = new ArrayList<>();
 }
@@ -0,0 +1,6 @@
+package hu.finex.main.model.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
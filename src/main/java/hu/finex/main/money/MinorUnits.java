@@ -0,0 +1,46 @@
+package hu.finex.main.money;
+
+import java.math.BigDecimal;
+
+import hu.finex.main.exception.BusinessException;
+
+// Pénzösszeg fix 2 tizedesjegyű minor egységben (fillér, cent) long-ként.
+// A skála megegyezik az adatbázis numeric(18,2) oszlopaival, így az átváltás mindig pontos.
+// A főkönyvi forró út ezeket a statikus long műveleteket használja (nincs allokáció); a határokon BigDecimal marad.
+
+public final class MinorUnits {
+
+    public static final int SCALE = 2;
+
+    private MinorUnits() {
+    }
+
+    // Több tizedesjegy vagy long-túlcsordulás esetén nem kerekítünk csendben
+    public static long toMinor(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new BusinessException("Érvénytelen pénzösszeg (legfeljebb " + SCALE + " tizedesjegy): " + amount.toPlainString());
+        }
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static long add(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException ex) {
+            throw new BusinessException("Az egyenleg túlcsordulna.");
+        }
+    }
+
+    public static long subtract(long a, long b) {
+        try {
+            return Math.subtractExact(a, b);
+        } catch (ArithmeticException ex) {
+            throw new BusinessException("Az egyenleg túlcsordulna.");
+        }
+    }
+}
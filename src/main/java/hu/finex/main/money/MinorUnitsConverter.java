@@ -0,0 +1,22 @@
+package hu.finex.main.money;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Entitásban long minor egység, az adatbázisban változatlanul numeric(18,2): nincs sémaváltozás
+
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long minor) {
+        return minor == null ? null : MinorUnits.toDecimal(minor);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal value) {
+        return value == null ? null : MinorUnits.toMinor(value);
+    }
+}
@@ -0,0 +1,64 @@
+package hu.finex.main.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import hu.finex.main.dto.SliceResponse;
+import hu.finex.main.exception.BusinessException;
+
+// Keyset (seek) lapozás pozíciója: az utolsó kiadott sor (createdAt, id) párosa.
+// A kliens felé átlátszatlan base64url token, így a formátum később szabadon változhat.
+
+public record KeysetCursor(Instant createdAt, Long id) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null / üres token = első oldal
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(Instant.parse(raw.substring(0, sep)), Long.valueOf(raw.substring(sep + 1)));
+        } catch (RuntimeException ex) {
+            throw new BusinessException("Érvénytelen lapozási cursor.");
+        }
+    }
+
+    // Mindig az első "oldal": a szűrést a cursor végzi, nincs OFFSET és nincs count(*)
+    public static Pageable firstPage(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_SIZE)));
+    }
+
+    public static <E, T> SliceResponse<T> toResponse(Slice<E> slice, Function<E, T> mapper, Function<E, KeysetCursor> cursorOf) {
+        List<E> content = slice.getContent();
+
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? cursorOf.apply(content.get(content.size() - 1)).encode()
+                : null;
+
+        return SliceResponse.<T>builder()
+                .content(content.stream().map(mapper).toList())
+                .size(content.size())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package hu.finex.main.partition;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+// A havonta particionált táblák (V5 migráció) karbantartása:
+// a következő hónapok partícióit előre létrehozza, hogy a DEFAULT partíció üres maradjon,
+// a login_logs megőrzési idején túli partíciókat pedig egészben eldobja (nincs soronkénti DELETE és VACUUM).
+
+@Slf4j
+@Component
+public class PartitionMaintenance {
+
+    static final List<String> PARTITIONED_TABLES = List.of("balance_history", "login_logs");
+    static final String LOGIN_LOGS = "login_logs";
+
+    static final String CREATE_PARTITION = "select create_monthly_partition(cast(? as regclass), ?)";
+
+    static final String LIST_PARTITIONS = """
+            select c.relname
+            from pg_inherits i
+            join pg_class c on c.oid = i.inhrelid
+            where i.inhparent = cast(? as regclass)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int monthsAhead;
+    private final int loginLogRetentionMonths;
+
+    @Autowired
+    public PartitionMaintenance(
+            JdbcTemplate jdbcTemplate,
+            @Value("${finex.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${finex.partitions.login-logs.retention-months:12}") int loginLogRetentionMonths) {
+        this(jdbcTemplate, Clock.systemUTC(), monthsAhead, loginLogRetentionMonths);
+    }
+
+    PartitionMaintenance(JdbcTemplate jdbcTemplate, Clock clock, int monthsAhead, int loginLogRetentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.loginLogRetentionMonths = loginLogRetentionMonths;
+    }
+
+    // Induláskor is lefut (fixedDelay), így egy hosszabb leállás után sem marad hiányzó partíció
+    @Scheduled(fixedDelayString = "${finex.partitions.maintenance-interval-ms:21600000}")
+    public void maintain() {
+        PARTITIONED_TABLES.forEach(this::ensureFuturePartitions);
+        if (loginLogRetentionMonths > 0) {
+            dropExpiredPartitions(LOGIN_LOGS, loginLogRetentionMonths);
+        }
+    }
+
+    void ensureFuturePartitions(String table) {
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate month = current.plusMonths(i).atDay(1);
+            try {
+                jdbcTemplate.queryForObject(CREATE_PARTITION, String.class, table, month);
+            } catch (DataAccessException ex) {
+                // Pl. a DEFAULT partícióban már van erre a hónapra eső sor; a többi hónapot ettől még létrehozzuk
+                log.warn("Nem sikerült létrehozni a(z) {} tábla {} havi partícióját", table, month, ex);
+            }
+        }
+    }
+
+    // A megőrzési időnél régebbi hónapok partícióit dobja el; a visszaadott lista az eldobott táblák neve
+    List<String> dropExpiredPartitions(String table, int retentionMonths) {
+        YearMonth oldestKept = YearMonth.now(clock).minusMonths(retentionMonths);
+        Pattern monthly = Pattern.compile("^" + Pattern.quote(table) + "_p(\\d{4})_(\\d{2})$");
+
+        List<String> dropped = new ArrayList<>();
+        for (String partition : jdbcTemplate.queryForList(LIST_PARTITIONS, String.class, table)) {
+            Matcher matcher = monthly.matcher(partition);
+            if (matcher.matches()
+                    && YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))).isBefore(oldestKept)) {
+                jdbcTemplate.execute("drop table if exists \"" + partition + "\"");
+                dropped.add(partition);
+            }
+        }
+
+        // A DEFAULT partícióba került régi sorok (normál esetben nincs ilyen)
+        OffsetDateTime cutoff = oldestKept.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+        jdbcTemplate.update("delete from \"" + table + "_default\" where created_at < ?", cutoff);
+
+        if (!dropped.isEmpty()) {
+            log.info("Lejárt partíciók eldobva ({}): {}", table, dropped);
+        }
+        return dropped;
+    }
+}
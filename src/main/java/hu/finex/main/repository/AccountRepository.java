@@ -4,15 +4,25 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import hu.finex.main.model.Account;
 import hu.finex.main.model.enums.AccountStatus;
 import hu.finex.main.model.enums.AccountType;
+import jakarta.persistence.LockModeType;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
+    // Az L2 cache-ből kiszolgálható létezés-ellenőrzés (az existsById count lekérdezést futtat, a cache-t megkerüli).
+    // Cache-hiánykor a teljes entitást betölti a persistence contextbe, ezért csak a gyakran olvasott számláknál érdemes.
+    default boolean existsCachedById(Long id) {
+        return findById(id).isPresent();
+    }
+
     //Számlaszám alapján lekérés (egyedi)
     Optional<Account> findByAccountNumber(String accountNumber);
     
@@ -31,5 +41,10 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     List<Account> findByAccountNumberStartingWith(String prefix);
     
     Optional<Account> findFirstByUser_IdAndStatusAndAccountType(Long userId, AccountStatus status, AccountType accountType);
+
+    //Egyenleg módosítás előtti sorzár (SELECT ... FOR UPDATE), több számlánál mindig növekvő id sorrendben hívandó
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
 }
 
@@ -1,10 +1,13 @@
 package hu.finex.main.repository;
 
-import java.time.OffsetDateTime;
+import java.time.Instant;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import hu.finex.main.model.BalanceHistory;
@@ -15,8 +18,17 @@ public interface BalanceHistoryRepository extends JpaRepository<BalanceHistory,
     // Egy account összes balance history-ja (idő szerint)
     Page<BalanceHistory> findByAccount_IdOrderByCreatedAtAsc(Long accountId, Pageable pageable);
 
-    // Időintervallumra szűrés (grafikonokhoz, dashboardhoz)
-    Page<BalanceHistory> findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtAsc(Long accountId,OffsetDateTime start,OffsetDateTime end,Pageable pageable);
+    // Keyset lapozás (legrégebbi elöl): első szelet, majd a cursor (createdAt, id) utáni sorok, count(*) nélkül
+    Slice<BalanceHistory> findByAccount_IdOrderByCreatedAtAscIdAsc(Long accountId, Pageable pageable);
 
-    boolean existsByAccount_IdAndCreatedAtAfter(Long accountId, OffsetDateTime time);
+    // Sorérték-összehasonlítás az index tartomány-feltételéhez; a redundáns created_at határ a havi partíciókat is szűri
+    @Query("select b from BalanceHistory b where b.account.id = :accountId "
+            + "and (b.createdAt, b.id) > (:createdAt, :id) and b.createdAt >= :createdAt "
+            + "order by b.createdAt asc, b.id asc")
+    Slice<BalanceHistory> findByAccountAfter(@Param("accountId") Long accountId, @Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pageable);
+
+    // Időintervallumra szűrés (grafikonokhoz, dashboardhoz); a created_at feltétel miatt csak az érintett havi partíciók olvasódnak
+    Page<BalanceHistory> findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtAsc(Long accountId,Instant start,Instant end,Pageable pageable);
+
+    boolean existsByAccount_IdAndCreatedAtAfter(Long accountId, Instant time);
 }
@@ -1,34 +1,60 @@
 package hu.finex.main.repository;
 
-import java.time.OffsetDateTime;
+import java.time.Instant;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import hu.finex.main.dto.LoginLogListItemResponse;
 import hu.finex.main.model.LoginLog;
 import hu.finex.main.model.enums.LoginStatus;
 
 @Repository
 public interface LoginLogRepository extends JpaRepository<LoginLog, Long> {
 
+    // A lista nézetek közvetlenül DTO-ba vetítenek: nincs managed entitás és dirty-checking snapshot
+    String LIST_ITEM = "select new hu.finex.main.dto.LoginLogListItemResponse(l.status, l.ipAddress, l.createdAt) from LoginLog l ";
+
     // Egy user összes login próbálkozása (admin + user profil)
-    Page<LoginLog> findByUser_IdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    @Query(value = LIST_ITEM + "where l.user.id = :userId order by l.createdAt desc",
+            countQuery = "select count(l) from LoginLog l where l.user.id = :userId")
+    Page<LoginLogListItemResponse> findListItemsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // Keyset lapozás a user login naplójára (legújabb elöl), count(*) nélkül
+    Slice<LoginLog> findByUser_IdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
+
+    // Sorérték-összehasonlítás az index tartomány-feltételéhez; a redundáns created_at határ a havi partíciókat is szűri
+    @Query("select l from LoginLog l where l.user.id = :userId "
+            + "and (l.createdAt, l.id) < (:createdAt, :id) and l.createdAt <= :createdAt "
+            + "order by l.createdAt desc, l.id desc")
+    Slice<LoginLog> findByUserBefore(@Param("userId") Long userId, @Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pageable);
 
     // Login státusz alapján (SUCCESS / FAILED)
-    Page<LoginLog> findByStatusOrderByCreatedAtDesc(LoginStatus status, Pageable pageable);
+    @Query(value = LIST_ITEM + "where l.status = :status order by l.createdAt desc",
+            countQuery = "select count(l) from LoginLog l where l.status = :status")
+    Page<LoginLogListItemResponse> findListItemsByStatus(@Param("status") LoginStatus status, Pageable pageable);
 
     // IP cím alapján keresés – security vizsgálathoz
-    Page<LoginLog> findByIpAddressOrderByCreatedAtDesc(String ipAddress, Pageable pageable);
+    @Query(value = LIST_ITEM + "where l.ipAddress = :ipAddress order by l.createdAt desc",
+            countQuery = "select count(l) from LoginLog l where l.ipAddress = :ipAddress")
+    Page<LoginLogListItemResponse> findListItemsByIpAddress(@Param("ipAddress") String ipAddress, Pageable pageable);
 
     // User + status kombináció (pl. user failed logins)
-    Page<LoginLog> findByUser_IdAndStatusOrderByCreatedAtDesc(Long userId,LoginStatus status,Pageable pageable);
+    @Query(value = LIST_ITEM + "where l.user.id = :userId and l.status = :status order by l.createdAt desc",
+            countQuery = "select count(l) from LoginLog l where l.user.id = :userId and l.status = :status")
+    Page<LoginLogListItemResponse> findListItemsByUserIdAndStatus(@Param("userId") Long userId, @Param("status") LoginStatus status, Pageable pageable);
 
     // Időintervallum alapján (fraud detection)
-    Page<LoginLog> findByCreatedAtBetweenOrderByCreatedAtDesc(OffsetDateTime start,OffsetDateTime end,Pageable pageable);
+    @Query(value = LIST_ITEM + "where l.createdAt between :start and :end order by l.createdAt desc",
+            countQuery = "select count(l) from LoginLog l where l.createdAt between :start and :end")
+    Page<LoginLogListItemResponse> findListItemsByCreatedAtBetween(@Param("start") Instant start, @Param("end") Instant end, Pageable pageable);
 
     //  Volt-e sikertelen belépés adott usernél egy időpont után?
-    boolean existsByUser_IdAndStatusAndCreatedAtAfter(Long userId,LoginStatus status,OffsetDateTime since);
+    boolean existsByUser_IdAndStatusAndCreatedAtAfter(Long userId,LoginStatus status,Instant since);
 }
 
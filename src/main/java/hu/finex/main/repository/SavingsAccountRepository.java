@@ -1,31 +1,51 @@
 package hu.finex.main.repository;
 
-import java.math.BigDecimal;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import hu.finex.main.dto.SavingsAccountRow;
 import hu.finex.main.model.SavingsAccount;
 import hu.finex.main.model.enums.SavingsStatus;
+import jakarta.persistence.LockModeType;
 
 @Repository
 public interface SavingsAccountRepository extends JpaRepository<SavingsAccount, Long> {
 
+    // A lista nézetek közvetlenül sor-projekcióba vetítenek: nincs managed entitás és dirty-checking snapshot
+    String ROW = "select new hu.finex.main.dto.SavingsAccountRow(s.id, s.user.id, s.name, s.balance, s.currency, s.interestRate, s.status, s.createdAt, s.updatedAt) "
+            + "from SavingsAccount s ";
+
     // Egy user összes megtakarítása
-    Page<SavingsAccount> findByUser_IdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    @Query(value = ROW + "where s.user.id = :userId order by s.createdAt desc",
+            countQuery = "select count(s) from SavingsAccount s where s.user.id = :userId")
+    Page<SavingsAccountRow> findRowsByUserId(@Param("userId") Long userId, Pageable pageable);
 
     // Meghatározott státusz szerinti listázás
-    Page<SavingsAccount> findByUser_IdAndStatusOrderByCreatedAtDesc(Long userId,SavingsStatus status,Pageable pageable);
+    @Query(value = ROW + "where s.user.id = :userId and s.status = :status order by s.createdAt desc",
+            countQuery = "select count(s) from SavingsAccount s where s.user.id = :userId and s.status = :status")
+    Page<SavingsAccountRow> findRowsByUserIdAndStatus(@Param("userId") Long userId, @Param("status") SavingsStatus status, Pageable pageable);
 
     // Létezik-e egy adott nevű megtakarítás
     boolean existsByUser_IdAndName(Long userId, String name);
 
-    // Minimális egyenleg feletti megtakarítások (portfólió elemzéshez)
-    Page<SavingsAccount> findByUser_IdAndBalanceGreaterThanEqual(Long userId,BigDecimal minBalance,Pageable pageable);
+    // Minimális egyenleg feletti megtakarítások (portfólió elemzéshez); a határ minor egységben (fillér)
+    @Query(value = ROW + "where s.user.id = :userId and s.balance >= :minBalance",
+            countQuery = "select count(s) from SavingsAccount s where s.user.id = :userId and s.balance >= :minBalance")
+    Page<SavingsAccountRow> findRowsByUserIdAndMinBalance(@Param("userId") Long userId, @Param("minBalance") long minBalance, Pageable pageable);
 
     // Státusz alapján létezik-e aktív megtakarítás
     boolean existsByUser_IdAndStatus(Long userId, SavingsStatus status);
+
+    // Sorzár egyenleg módosításhoz – mindig a kapcsolódó folyószámla zárolása ELŐTT hívandó
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SavingsAccount s where s.id = :id")
+    Optional<SavingsAccount> findByIdForUpdate(@Param("id") Long id);
 }
 
@@ -1,8 +1,12 @@
 package hu.finex.main.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import hu.finex.main.model.TransactionCategory;
@@ -10,15 +14,21 @@ import hu.finex.main.model.TransactionCategory;
 @Repository
 public interface TransactionCategoryRepository extends JpaRepository<TransactionCategory, Long> {
 
-    // Egy tranzakcióhoz tartozó kategóriák lista
+    // Egy tranzakcióhoz tartozó kategóriák lista (a kategória nevét/ikonját a válasz is tartalmazza)
+    @EntityGraph(attributePaths = "category")
     List<TransactionCategory> findByTransaction_Id(Long transactionId);
 
     // Egy kategóriához tartozó tranzakciók lista
+    @EntityGraph(attributePaths = "category")
     List<TransactionCategory> findByCategory_Id(Long categoryId);
 
     // Létezik-e már ez a kapcsolat
     boolean existsByTransaction_IdAndCategory_Id(Long transactionId, Long categoryId);
 
+    // A megadott kategóriák közül melyek vannak már a tranzakcióhoz rendelve (többes hozzárendelés)
+    @Query("select tc.category.id from TransactionCategory tc where tc.transaction.id = :transactionId and tc.category.id in :categoryIds")
+    List<Long> findAssignedCategoryIds(@Param("transactionId") Long transactionId, @Param("categoryIds") Collection<Long> categoryIds);
+
     // Egy tranzakció összes kategóriájának törlése (pl. update esetén)
     void deleteByTransaction_Id(Long transactionId);
 }
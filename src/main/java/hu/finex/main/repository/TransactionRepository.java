@@ -1,27 +1,69 @@
 package hu.finex.main.repository;
 
 import java.math.BigDecimal;
-import java.time.OffsetDateTime;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import hu.finex.main.dto.TransactionExportRow;
+import hu.finex.main.dto.TransactionListItemResponse;
 import hu.finex.main.model.Transaction;
 import hu.finex.main.model.enums.TransactionType;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
-    // Account összes tranzakciója
-    Page<Transaction> findByAccount_IdOrderByCreatedAtDesc(Long accountId, Pageable pageable);
+    // Tranzakció a kategóriáival együtt, egyetlen lekérdezéssel (részletes nézethez)
+    @EntityGraph(Transaction.DETAIL_GRAPH)
+    @Query("select t from Transaction t where t.id = :id")
+    Optional<Transaction> findDetailById(@Param("id") Long id);
+
+    // Account összes tranzakciója (lista nézet): a sorok közvetlenül DTO-ba kerülnek, nincs managed entitás és dirty-checking snapshot
+    @Query(value = "select new hu.finex.main.dto.TransactionListItemResponse(t.id, t.type, t.amount, t.message, t.currency, t.createdAt) "
+            + "from Transaction t where t.account.id = :accountId order by t.createdAt desc",
+            countQuery = "select count(t) from Transaction t where t.account.id = :accountId")
+    Page<TransactionListItemResponse> findListItemsByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    // Keyset lapozás (legújabb elöl): első szelet, majd a cursor (createdAt, id) utáni sorok, count(*) nélkül
+    @Query("select new hu.finex.main.dto.TransactionListItemResponse(t.id, t.type, t.amount, t.message, t.currency, t.createdAt) "
+            + "from Transaction t where t.account.id = :accountId "
+            + "order by t.createdAt desc, t.id desc")
+    Slice<TransactionListItemResponse> findListItemSliceByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    // Sorérték-összehasonlítás: a (created_at, id) határ az index tartomány-feltétele, nem utólagos szűrő
+    @Query("select new hu.finex.main.dto.TransactionListItemResponse(t.id, t.type, t.amount, t.message, t.currency, t.createdAt) "
+            + "from Transaction t where t.account.id = :accountId "
+            + "and (t.createdAt, t.id) < (:createdAt, :id) "
+            + "order by t.createdAt desc, t.id desc")
+    Slice<TransactionListItemResponse> findListItemsByAccountBefore(@Param("accountId") Long accountId, @Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pageable);
+
+    // Teljes export (legrégebbi elöl): forward-only cursor, a driver fetch size-onként hozza a sorokat.
+    // Tranzakciónként annyi sor, ahány kategóriája van; a hívónak nyitott tranzakció kell (PostgreSQL cursor).
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new hu.finex.main.dto.TransactionExportRow(t.id, t.type, t.amount, t.currency, t.message, t.fromAccount, t.toAccount, t.createdAt, c.name) "
+            + "from Transaction t left join t.categoryLinks l left join l.category c "
+            + "where t.account.id = :accountId "
+            + "order by t.createdAt asc, t.id asc, l.id asc")
+    Stream<TransactionExportRow> streamExportRowsByAccountId(@Param("accountId") Long accountId);
 
     // Csak adott tranzakciótípus
     Page<Transaction> findByAccount_IdAndTypeOrderByCreatedAtDesc(Long accountId,TransactionType type,Pageable pageable);
 
     // Időintervallum alapján
-    Page<Transaction> findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtDesc( Long accountId,OffsetDateTime start,OffsetDateTime end,Pageable pageable);
+    Page<Transaction> findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtDesc( Long accountId,Instant start,Instant end,Pageable pageable);
 
     // Küldött vagy fogadott tranzakciók
     Page<Transaction> findByFromAccountOrToAccountOrderByCreatedAtDesc(String fromAccount,String toAccount,Pageable pageable);
@@ -30,5 +72,5 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     Page<Transaction> findByAccount_IdAndAmountGreaterThan(Long accountId,BigDecimal minAmount,Pageable pageable);
 
     // Volt-e tranzakció adott idő óta
-    boolean existsByAccount_IdAndCreatedAtAfter(Long accountId, OffsetDateTime dateTime);
+    boolean existsByAccount_IdAndCreatedAtAfter(Long accountId, Instant dateTime);
 }
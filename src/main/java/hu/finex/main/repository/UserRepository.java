@@ -2,14 +2,35 @@ package hu.finex.main.repository;
 
 import java.util.Optional;
 
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import hu.finex.main.model.User;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmailIgnoreCase(String email);
+
+    // Explicit lower(): a származtatott IgnoreCase upper()-t generálna, az idx_users_email_lower így nem találna.
+    // Query cache: a login ismételt kereséseit memóriából szolgálja ki, amíg a users tábla nem változik
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("select u from User u where lower(u.email) = lower(:email)")
+    Optional<User> findByEmailIgnoreCase(@Param("email") String email);
+
     Optional<User> findByPhone(String phone);
-    boolean existsByEmailIgnoreCase(String email);
+
+    @Query("select count(u) > 0 from User u where lower(u.email) = lower(:email)")
+    boolean existsByEmailIgnoreCase(@Param("email") String email);
+
+    // Login utáni hash-frissítés saját rövid tranzakcióban (a login maga nem tranzakciós, a BCrypt ne tartson kapcsolatot)
+    @Modifying
+    @Transactional
+    @Query("update User u set u.passwordHash = :passwordHash where u.id = :id")
+    int updatePasswordHash(@Param("id") Long id, @Param("passwordHash") String passwordHash);
 }
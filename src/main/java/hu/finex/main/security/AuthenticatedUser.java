@@ -0,0 +1,15 @@
+package hu.finex.main.security;
+
+import java.security.Principal;
+
+// A JWT claim-jeiből felépített principal: az azonosító és a szerepkör DB lekérdezés nélkül elérhető.
+// A getName() továbbra is az email, így a principal.getName()-re épülő kód változatlan; az idempotencia kulcsok az id-t használják.
+// Régi, uid claim nélküli tokeneknél az id null; ilyenkor a CurrentUser email alapján keresi ki.
+
+public record AuthenticatedUser(Long id, String email, String role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,5 +1,7 @@
 package hu.finex.main.security;
 
+import java.security.Principal;
+
 import hu.finex.main.exception.NotFoundException;
 import hu.finex.main.exception.BusinessException;
 import hu.finex.main.model.User;
@@ -9,6 +11,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+// A bejelentkezett felhasználó azonosítója a JWT-ből épített AuthenticatedUser principalból jön, DB lekérdezés nélkül.
+// Email alapú keresés csak uid claim nélküli (régi) tokennél vagy más típusú principalnál történik.
+
 @Component
 @RequiredArgsConstructor
 public class CurrentUser {
@@ -16,20 +21,33 @@ public class CurrentUser {
     private final UserRepository userRepository;
 
     public Long requireId() {
-        return requireEntity().getId();
-    }
-
-    public User requireEntity() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
 
         if (auth == null || !auth.isAuthenticated() || auth.getPrincipal() == null) {
             throw new BusinessException("Nincs bejelentkezve.");
         }
 
-        String email = auth.getPrincipal().toString();
+        return requireId(auth);
+    }
 
-        return userRepository.findByEmailIgnoreCase(email)
-                .orElseThrow(() -> new NotFoundException("Felhasználó nem található: " + email));
+    // A controllerekbe injektált Principal is lehet maga az Authentication (a tényleges principal benne van)
+    public Long requireId(Principal principal) {
+        if (principal == null) {
+            throw new BusinessException("Nincs bejelentkezve.");
+        }
+
+        Object candidate = principal instanceof Authentication auth ? auth.getPrincipal() : principal;
+        if (candidate instanceof AuthenticatedUser user && user.id() != null) {
+            return user.id();
+        }
+
+        return findByEmail(principal.getName()).getId();
+    }
+
+    public User requireEntity() {
+        Long id = requireId();
+        return userRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Felhasználó nem található: " + id));
     }
 
     public void ensureSameUser(Long pathUserId) {
@@ -38,4 +56,9 @@ public class CurrentUser {
             throw new BusinessException("Más felhasználó erőforrása.");
         }
     }
+
+    private User findByEmail(String email) {
+        return userRepository.findByEmailIgnoreCase(email)
+                .orElseThrow(() -> new NotFoundException("Felhasználó nem található: " + email));
+    }
 }
@@ -29,12 +29,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
-            if (jwtTokenUtil.isValid(token)) {
-                String email = jwtTokenUtil.extractEmail(token);
+            // Egyszeri ellenőrzés: a claim-ek a cache-ből vagy egyetlen parse-ból jönnek; a principal hordozza az id-t és a szerepkört
+            jwtTokenUtil.verify(token).ifPresent(verified -> {
                 var authentication =
-                        new UsernamePasswordAuthenticationToken(email, null, List.of());
+                        new UsernamePasswordAuthenticationToken(verified.toPrincipal(), null, List.of());
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+            });
         }
 
         filterChain.doFilter(request, response);
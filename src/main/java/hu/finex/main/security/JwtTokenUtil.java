@@ -1,35 +1,94 @@
 package hu.finex.main.security;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 import javax.crypto.SecretKey;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import hu.finex.main.model.User;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
+// A parser egyszer épül fel (szálbiztos, újrahasznosítható).
+// Az ellenőrzött tokenek claim-jei a token lejártáig egy korlátos LRU cache-ben maradnak (kulcs: a token SHA-256 lenyomata),
+// így egy ismételten használt tokennél nincs újabb HMAC-ellenőrzés és JSON-feldolgozás. Érvénytelen token nem kerül a cache-be.
+
 @Component
 public class JwtTokenUtil {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+
     private final SecretKey key;
     private final long expirationMs;
+    private final Clock clock;
+    private final JwtParser parser;
+    private final int cacheMaxEntries;
+    private final LinkedHashMap<String, VerifiedToken> verified;
 
+    @Autowired
     public JwtTokenUtil(
             @Value("${auth.jwt.secret}") String secret,
-            @Value("${auth.jwt.expiration-ms:3600000}") long expirationMs) {
+            @Value("${auth.jwt.expiration-ms:3600000}") long expirationMs,
+            @Value("${auth.jwt.cache-max-entries:10000}") int cacheMaxEntries) {
+        this(Clock.systemUTC(), secret, expirationMs, cacheMaxEntries);
+    }
+
+    JwtTokenUtil(Clock clock, String secret, long expirationMs, int cacheMaxEntries) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMs = expirationMs;
+        this.clock = clock;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setClock(() -> new Date(clock.millis()))
+                .build();
+        this.cacheMaxEntries = Math.max(0, cacheMaxEntries);
+        this.verified = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > JwtTokenUtil.this.cacheMaxEntries;
+            }
+        };
+    }
+
+    // Egy ellenőrzött token tartalma: a subject (email), a felhasználó azonosítója és szerepköre, valamint a lejárat
+    public record VerifiedToken(String email, Long userId, String role, Instant expiresAt) {
+
+        public AuthenticatedUser toPrincipal() {
+            return new AuthenticatedUser(userId, email, role);
+        }
+    }
+
+    // A tokenben utazik az id és a szerepkör is, hogy a kérések ne kérdezzék le a felhasználót
+    public String generateToken(User user) {
+        return generateToken(user.getEmail(), Map.of(
+                USER_ID_CLAIM, user.getId(),
+                ROLE_CLAIM, user.getRole() != null ? user.getRole() : ""));
     }
 
     public String generateToken(String subject) {
-        long now = System.currentTimeMillis();
+        return generateToken(subject, Map.of());
+    }
+
+    private String generateToken(String subject, Map<String, Object> claims) {
+        long now = clock.millis();
         return Jwts.builder()
+                .addClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(now))
                 .setExpiration(new Date(now + expirationMs))
@@ -37,23 +96,66 @@ public class JwtTokenUtil {
                 .compact();
     }
 
+    // Egyetlen ellenőrzés kérésenként: érvényes tokennél a tartalma, egyébként üres
+    public Optional<VerifiedToken> verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = cached(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        Date expiration = claims.getExpiration();
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        VerifiedToken result = new VerifiedToken(claims.getSubject(), userId != null ? userId.longValue() : null,
+                role == null || role.isEmpty() ? null : role, expiration != null ? expiration.toInstant() : null);
+        // Lejárat nélküli tokent nem tartunk meg, azt minden alkalommal ellenőrizni kell
+        if (expiration != null && cacheMaxEntries > 0) {
+            synchronized (verified) {
+                verified.put(digest, result);
+            }
+        }
+        return Optional.of(result);
+    }
+
     public String extractEmail(String token) {
-        return parse(token).getBody().getSubject();
+        return verify(token).map(VerifiedToken::email).orElseThrow(() -> new JwtException("Érvénytelen token."));
     }
 
     public boolean isValid(String token) {
-        try {
-            parse(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+        return verify(token).isPresent();
+    }
+
+    private VerifiedToken cached(String digest) {
+        synchronized (verified) {
+            VerifiedToken token = verified.get(digest);
+            if (token != null && !token.expiresAt().isAfter(clock.instant())) {
+                verified.remove(digest);
+                return null;
+            }
+            return token;
         }
     }
 
-    private Jws<Claims> parse(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
+    int cacheSize() {
+        synchronized (verified) {
+            return verified.size();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,130 @@
+package hu.finex.main.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import hu.finex.main.exception.ServiceUnavailableException;
+import hu.finex.main.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+// A BCrypt számítás saját, korlátos végrehajtón fut: legfeljebb annyi szálon, ahány mag van, így egy login-roham
+// nem foglalja le az összes Tomcat szálat és CPU-t a pénzmozgató végpontok elől.
+// Teli várakozási sornál azonnal 429, túl hosszú várakozásnál 503 megy vissza, mielőtt a kérések feltorlódnának.
+
+@Component
+public class PasswordHasher {
+
+    static final String LATENCY_METRIC = "finex.password-hash.latency";
+    static final String WAIT_METRIC = "finex.password-hash.wait";
+    static final String QUEUE_METRIC = "finex.password-hash.queue.depth";
+    static final String REJECTED_METRIC = "finex.password-hash.rejected";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Timer matchesTimer;
+    private final Timer encodeTimer;
+    private final Timer waitTimer;
+    private final Counter queueFull;
+    private final Counter timedOut;
+
+    @Autowired
+    public PasswordHasher(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${finex.password-hash.threads:0}") int threads,
+            @Value("${finex.password-hash.queue-capacity:64}") int queueCapacity,
+            @Value("${finex.password-hash.timeout-ms:2000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = Math.max(1, timeoutMs);
+        this.matchesTimer = latencyTimer(meterRegistry, "matches");
+        this.encodeTimer = latencyTimer(meterRegistry, "encode");
+        this.waitTimer = Timer.builder(WAIT_METRIC).publishPercentileHistogram().register(meterRegistry);
+        this.queueFull = Counter.builder(REJECTED_METRIC).tag("reason", "queue-full").register(meterRegistry);
+        this.timedOut = Counter.builder(REJECTED_METRIC).tag("reason", "timeout").register(meterRegistry);
+        Gauge.builder(QUEUE_METRIC, executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    private static Timer latencyTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder(LATENCY_METRIC).tag("operation", operation).publishPercentileHistogram().register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return submit(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, passwordHash)));
+    }
+
+    public String encode(String rawPassword) {
+        return submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    // Olcsó (nincs hash-számítás): a tárolt hash költsége alacsonyabb-e a beállítottnál
+    public boolean needsRehash(String passwordHash) {
+        return passwordEncoder.upgradeEncoding(passwordHash);
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long enqueued = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - enqueued, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException ex) {
+            queueFull.increment();
+            throw new TooManyRequestsException("Túl sok bejelentkezési kérés, kérjük próbáld újra később.");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new ServiceUnavailableException("A bejelentkezés átmenetileg nem érhető el, kérjük próbáld újra később.");
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("A bejelentkezés megszakadt.");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    int queueDepth() {
+        return executor.getQueue().size();
+    }
+}
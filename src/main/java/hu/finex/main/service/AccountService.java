@@ -6,6 +6,8 @@ import java.util.List;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import hu.finex.main.concurrency.RetryOnLockFailure;
+import hu.finex.main.concurrency.SerializedPerAccount;
 import hu.finex.main.dto.AccountListItemResponse;
 import hu.finex.main.dto.AccountResponse;
 import hu.finex.main.dto.CreateAccountRequest;
@@ -13,16 +15,17 @@ import hu.finex.main.dto.UpdateAccountStatusRequest;
 import hu.finex.main.dto.UpdateCardNumberRequest;
 import hu.finex.main.exception.BusinessException;
 import hu.finex.main.exception.NotFoundException;
+import hu.finex.main.history.BalanceHistoryOutbox;
+import hu.finex.main.ledger.LedgerCommand;
 import hu.finex.main.mapper.AccountMapper;
 import hu.finex.main.model.Account;
-import hu.finex.main.model.BalanceHistory;
 import hu.finex.main.model.Transaction;
 import hu.finex.main.model.User;
 import hu.finex.main.model.enums.AccountStatus;
 import hu.finex.main.model.enums.AccountType;
 import hu.finex.main.model.enums.TransactionType;
+import hu.finex.main.money.MinorUnits;
 import hu.finex.main.repository.AccountRepository;
-import hu.finex.main.repository.BalanceHistoryRepository;
 import hu.finex.main.repository.TransactionRepository;
 import hu.finex.main.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -35,7 +38,7 @@ public class AccountService {
     private final UserRepository userRepository;
     private final AccountMapper accountMapper;
     private final TransactionRepository transactionRepository;
-    private final BalanceHistoryRepository balanceHistoryRepository;
+    private final BalanceHistoryOutbox balanceHistoryOutbox;
     
     @Transactional
     public AccountResponse create(CreateAccountRequest request) {
@@ -77,6 +80,7 @@ public class AccountService {
         return accounts.stream().map(accountMapper::toListItem).toList();
     }
 
+    @RetryOnLockFailure("account-card-update")
     @Transactional
     public AccountResponse updateCardNumber(Long id, UpdateCardNumberRequest request) {
         Account account = accountRepository.findById(id).orElseThrow(() -> new NotFoundException("Számla nem található."));
@@ -86,6 +90,7 @@ public class AccountService {
         return accountMapper.toResponse(account);
     }
 
+    @RetryOnLockFailure("account-status-update")
     @Transactional
     public AccountResponse updateStatus(Long id, UpdateAccountStatusRequest request) {
         Account account = accountRepository.findById(id).orElseThrow(() -> new NotFoundException("Számla nem található."));
@@ -201,19 +206,22 @@ public class AccountService {
         return "ACC" + System.currentTimeMillis();
     }
     
+    @RetryOnLockFailure("deposit")
+    @SerializedPerAccount(value = "deposit", accounts = "#accountId")
+    @LedgerCommand
     @Transactional
     public AccountResponse deposit(Long accountId, BigDecimal amount, String message, Long userId) {
 
-        Account account = accountRepository.findById(accountId)
+        Account account = accountRepository.findByIdForUpdate(accountId)
                 .orElseThrow(() -> new NotFoundException("Számla nem található."));
 
         if (!account.getUser().getId().equals(userId)) {
             throw new BusinessException("Ehhez a számlához nincs jogosultságod.");
         }
 
-        account.setBalance(account.getBalance().add(amount));
+        account.credit(MinorUnits.toMinor(amount));
 
-        // Transaction
+        // Transaction + Balance History (outbox)
         Transaction tx = Transaction.builder()
                 .account(account)
                 .amount(amount)
@@ -221,15 +229,9 @@ public class AccountService {
                 .currency(account.getCurrency())
                 .message(message)
                 .build();
+        balanceHistoryOutbox.record(tx, account);
         transactionRepository.save(tx);
 
-        // Balance History
-        BalanceHistory history = BalanceHistory.builder()
-                .account(account)
-                .balance(account.getBalance())
-                .build();
-        balanceHistoryRepository.save(history);
-
         return accountMapper.toResponse(account);
     }
 
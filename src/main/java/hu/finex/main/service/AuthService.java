@@ -1,8 +1,7 @@
 package hu.finex.main.service;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import hu.finex.main.dto.AuthResponse;
 import hu.finex.main.dto.CreateUserRequest;
@@ -10,55 +9,60 @@ import hu.finex.main.dto.LoginRequest;
 import hu.finex.main.dto.UserResponse;
 import hu.finex.main.exception.BusinessException;
 import hu.finex.main.exception.NotFoundException;
+import hu.finex.main.loginlog.LoginLogWriter;
 import hu.finex.main.mapper.UserMapper;
-import hu.finex.main.model.LoginLog;
+import hu.finex.main.metrics.BusinessMetrics;
 import hu.finex.main.model.User;
 import hu.finex.main.model.enums.LoginStatus;
-import hu.finex.main.repository.LoginLogRepository;
 import hu.finex.main.repository.UserRepository;
 import hu.finex.main.security.JwtTokenUtil;
+import hu.finex.main.security.PasswordHasher;
 import lombok.RequiredArgsConstructor;
 
 // Bejelentkezés és regisztráció üzleti logikája (JWT + login naplózás)
+// A BCrypt a PasswordHasher korlátos végrehajtóján, adatbázis-tranzakción kívül fut: a hash-számítás alatt nincs lefoglalt kapcsolat
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final LoginLogRepository loginLogRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final LoginLogWriter loginLogWriter;
+    private final PasswordHasher passwordHasher;
     private final JwtTokenUtil jwtTokenUtil;
     private final UserMapper userMapper;
     private final AccountService accountService;
+    private final TransactionTemplate transactionTemplate;
+    private final BusinessMetrics businessMetrics;
 
-    @Transactional
     public AuthResponse login(LoginRequest request, String ip, String userAgent) {
     	
     	// Email alapján felhasználó keresése, sikertelen próbálkozás is naplózásra kerül
-        User user = userRepository.findByEmailIgnoreCase(request.getEmail()).orElseThrow(() -> new NotFoundException("Felhasználó nem található."));
+        User user = userRepository.findByEmailIgnoreCase(request.getEmail()).orElse(null);
+        if (user == null) {
+            businessMetrics.loginFailed("unknown-user");
+            throw new NotFoundException("Felhasználó nem található.");
+        }
 
-        boolean passwordOk = passwordEncoder.matches(request.getPassword(), user.getPasswordHash());
+        boolean passwordOk = passwordHasher.matches(request.getPassword(), user.getPasswordHash());
 
         LoginStatus status = passwordOk ? LoginStatus.SUCCESS : LoginStatus.FAILED;
         String failureReason = passwordOk ? null : "Hibás jelszó.";
 
-        // Minden belépési kísérlet naplózva van (sikeres és sikertelen is)
-        LoginLog log = LoginLog.builder()
-                .user(user)
-                .status(status)
-                .ipAddress(ip)
-                .userAgent(userAgent)
-                .failureReason(failureReason)
-                .build();
-
-        loginLogRepository.save(log);
+        // Minden belépési kísérlet naplózva van (sikeres és sikertelen is); a kiírás háttérszálon, batch-ben történik
+        loginLogWriter.record(user.getId(), status, ip, userAgent, failureReason);
 
         if (!passwordOk) {
+            businessMetrics.loginFailed("bad-password");
             throw new BusinessException("Hibás email vagy jelszó.");
         }
 
-        String token = jwtTokenUtil.generateToken(user.getEmail());
+        // Alacsonyabb költségfaktorral tárolt hash frissítése, amíg a nyers jelszó a kezünkben van
+        if (passwordHasher.needsRehash(user.getPasswordHash())) {
+            userRepository.updatePasswordHash(user.getId(), passwordHasher.encode(request.getPassword()));
+        }
+
+        String token = jwtTokenUtil.generateToken(user);
         UserResponse userResponse = userMapper.toResponse(user);
 
         return AuthResponse.builder()
@@ -67,18 +71,19 @@ public class AuthService {
                 .build();
     }
 
-    @Transactional
     public UserResponse register(CreateUserRequest request) {
         if (userRepository.existsByEmailIgnoreCase(request.getEmail())) {
             throw new BusinessException("Ezzel az email címmel már létezik felhasználó.");
         }
 
-        String passwordHash = passwordEncoder.encode(request.getPassword());
-        User user = userMapper.toEntity(request, passwordHash);
-        user = userRepository.save(user);
-        
-        // Regisztráció után automatikusan létrejön az alapértelmezett folyószámla
-        accountService.createDefaultAccount(user);
+        String passwordHash = passwordHasher.encode(request.getPassword());
+
+        // Felhasználó és alapértelmezett folyószámla egy tranzakcióban; az egyedi email index a párhuzamos regisztrációt kizárja
+        User user = transactionTemplate.execute(status -> {
+            User saved = userRepository.save(userMapper.toEntity(request, passwordHash));
+            accountService.createDefaultAccount(saved);
+            return saved;
+        });
 
         return userMapper.toResponse(user);
     }
@@ -2,9 +2,11 @@ package hu.finex.main.service;
 
 import hu.finex.main.dto.BalanceHistoryListItemResponse;
 import hu.finex.main.dto.BalanceHistoryResponse;
+import hu.finex.main.dto.SliceResponse;
 import hu.finex.main.exception.NotFoundException;
 import hu.finex.main.mapper.BalanceHistoryMapper;
 import hu.finex.main.model.BalanceHistory;
+import hu.finex.main.pagination.KeysetCursor;
 import hu.finex.main.repository.AccountRepository;
 import hu.finex.main.repository.BalanceHistoryRepository;
 
@@ -12,6 +14,7 @@ import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,10 +41,26 @@ public class BalanceHistoryService {
         return balanceHistoryRepository.findByAccount_IdOrderByCreatedAtAsc(accountId, pageable).map(balanceHistoryMapper::toListItem);
     }
 
+    @Transactional(readOnly = true)
+    public SliceResponse<BalanceHistoryListItemResponse> listByAccountSlice(Long accountId, String cursor, int size) {
+        if (!accountRepository.existsById(accountId)) {
+            throw new NotFoundException("Számla nem található.");
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable page = KeysetCursor.firstPage(size);
+
+        Slice<BalanceHistory> slice = after == null
+                ? balanceHistoryRepository.findByAccount_IdOrderByCreatedAtAscIdAsc(accountId, page)
+                : balanceHistoryRepository.findByAccountAfter(accountId, after.createdAt(), after.id(), page);
+
+        return KeysetCursor.toResponse(slice, balanceHistoryMapper::toListItem, b -> new KeysetCursor(b.getCreatedAt(), b.getId()));
+    }
+
     @Transactional(readOnly = true)
     public Page<BalanceHistoryListItemResponse> listByAccountBetween(Long accountId,OffsetDateTime start,OffsetDateTime end,Pageable pageable) {
         accountRepository.findById(accountId).orElseThrow(() -> new NotFoundException("Számla nem található."));
 
-        return balanceHistoryRepository.findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtAsc(accountId, start, end, pageable).map(balanceHistoryMapper::toListItem);
+        return balanceHistoryRepository.findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtAsc(accountId, start.toInstant(), end.toInstant(), pageable).map(balanceHistoryMapper::toListItem);
     }
 }
@@ -0,0 +1,139 @@
+package hu.finex.main.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hu.finex.main.dto.CategoryResponse;
+import hu.finex.main.model.Category;
+import hu.finex.main.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+
+// A kategóriák immutábilis, verziózott memóriabeli pillanatképe: id szerinti O(1) keresés, előre szerializált lista-válasz és erős ETag.
+// Létrehozás/törlés commitja után a következő olvasás építi újra; más példányon történt változást az időzített frissítés hozza be.
+
+@Component
+@RequiredArgsConstructor
+public class CategoryCatalog {
+
+    private final CategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong generation = new AtomicLong();
+    // Nem synchronized: virtuális szálon a betöltő lekérdezés alatt sem rögzíti a carrier szálat
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    // Visszagörgetett írás nem dobhatja el a katalógust, és a commit előtti újraépítés a régi állapotot látná
+    public void invalidateAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate();
+                }
+            });
+        } else {
+            invalidate();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${finex.category-catalog.refresh-interval-ms:300000}")
+    public void refresh() {
+        invalidate();
+        current();
+    }
+
+    private Snapshot load() {
+        loadLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current != null) {
+                return current;
+            }
+
+            long version = generation.get();
+            List<Entry> entries = categoryRepository.findAll(Sort.by("id")).stream().map(Entry::of).toList();
+            Snapshot built = Snapshot.of(version, entries, objectMapper);
+
+            // Építés közbeni invalidálásnál a (már elavult) eredmény nem kerül eltárolásra
+            if (generation.get() == version) {
+                snapshot = built;
+            }
+            return built;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public record Entry(Long id, String name, String icon) {
+
+        static Entry of(Category category) {
+            return new Entry(category.getId(), category.getName(), category.getIcon());
+        }
+
+        // Leválasztott példány: a hivatkozó entitások csak az id-t használják belőle
+        public Category toEntity() {
+            return new Category(id, name, icon);
+        }
+
+        public CategoryResponse toResponse() {
+            return CategoryResponse.builder().id(id).name(name).icon(icon).build();
+        }
+    }
+
+    public record Snapshot(long version, List<Entry> entries, Map<Long, Entry> byId, byte[] body, String etag) {
+
+        public static Snapshot of(long version, List<Entry> entries, ObjectMapper objectMapper) {
+            Map<Long, Entry> byId = new LinkedHashMap<>();
+            entries.forEach(entry -> byId.put(entry.id(), entry));
+
+            byte[] body;
+            try {
+                body = objectMapper.writeValueAsBytes(entries);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+
+            return new Snapshot(version, List.copyOf(entries), Collections.unmodifiableMap(byId), body, "\"" + sha256(body) + "\"");
+        }
+
+        public Optional<Entry> find(Long id) {
+            return Optional.ofNullable(byId.get(id));
+        }
+
+        private static String sha256(byte[] body) {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package hu.finex.main.service;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,6 +24,7 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CategoryCatalog categoryCatalog;
 
     @Transactional
     public CategoryResponse create(CreateCategoryRequest request) {
@@ -29,20 +34,38 @@ public class CategoryService {
 
         Category entity = categoryMapper.toEntity(request);
         entity = categoryRepository.save(entity);
+        categoryCatalog.invalidateAfterCommit();
 
         return categoryMapper.toResponse(entity);
     }
 
-    @Transactional(readOnly = true)
     public CategoryResponse getById(Long id) {
-        Category category = categoryRepository.findById(id).orElseThrow(() -> new NotFoundException("Kategória nem található."));
-
-        return categoryMapper.toResponse(category);
+        return categoryCatalog.current().find(id)
+                .map(CategoryCatalog.Entry::toResponse)
+                .orElseThrow(() -> new NotFoundException("Kategória nem található."));
     }
 
-    @Transactional(readOnly = true)
     public List<CategoryResponse> listAll() {
-        return categoryRepository.findAll().stream().map(categoryMapper::toResponse).toList();
+        return catalog().entries().stream().map(CategoryCatalog.Entry::toResponse).toList();
+    }
+
+    public CategoryCatalog.Snapshot catalog() {
+        return categoryCatalog.current();
+    }
+
+    // Több kategória feloldása a katalógusból (DB lekérdezés nélkül), a kérés sorrendjében (duplikátumok nélkül).
+    // Ha bármelyik hiányzik, az összes hiányzó id egyszerre kerül a hibaüzenetbe.
+    public List<Category> requireAllById(Collection<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        CategoryCatalog.Snapshot catalog = catalog();
+
+        List<Long> missing = uniqueIds.stream().filter(id -> catalog.find(id).isEmpty()).toList();
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("Kategória nem található: "
+                    + missing.stream().map(String::valueOf).collect(Collectors.joining(", ")));
+        }
+
+        return uniqueIds.stream().map(id -> catalog.byId().get(id).toEntity()).toList();
     }
 
     @Transactional
@@ -50,5 +73,6 @@ public class CategoryService {
         Category category = categoryRepository.findById(id).orElseThrow(() -> new NotFoundException("Kategória nem található."));
 
         categoryRepository.delete(category);
+        categoryCatalog.invalidateAfterCommit();
     }
 }
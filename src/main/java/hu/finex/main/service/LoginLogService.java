@@ -2,15 +2,18 @@ package hu.finex.main.service;
 
 import hu.finex.main.dto.LoginLogListItemResponse;
 import hu.finex.main.dto.LoginLogResponse;
+import hu.finex.main.dto.SliceResponse;
 import hu.finex.main.exception.NotFoundException;
 import hu.finex.main.mapper.LoginLogMapper;
 import hu.finex.main.model.LoginLog;
 import hu.finex.main.model.enums.LoginStatus;
+import hu.finex.main.pagination.KeysetCursor;
 import hu.finex.main.repository.LoginLogRepository;
 import hu.finex.main.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,17 +33,33 @@ public class LoginLogService {
             throw new NotFoundException("Felhasználó nem található.");
         }
 
-        return loginLogRepository.findByUser_IdOrderByCreatedAtDesc(userId, pageable).map(loginLogMapper::toListItem);
+        return loginLogRepository.findListItemsByUserId(userId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public SliceResponse<LoginLogListItemResponse> listByUserSlice(Long userId, String cursor, int size) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Felhasználó nem található.");
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable page = KeysetCursor.firstPage(size);
+
+        Slice<LoginLog> slice = after == null
+                ? loginLogRepository.findByUser_IdOrderByCreatedAtDescIdDesc(userId, page)
+                : loginLogRepository.findByUserBefore(userId, after.createdAt(), after.id(), page);
+
+        return KeysetCursor.toResponse(slice, loginLogMapper::toListItem, l -> new KeysetCursor(l.getCreatedAt(), l.getId()));
     }
 
     @Transactional(readOnly = true)
     public Page<LoginLogListItemResponse> listByStatus(LoginStatus status, Pageable pageable) {
-        return loginLogRepository.findByStatusOrderByCreatedAtDesc(status, pageable).map(loginLogMapper::toListItem);
+        return loginLogRepository.findListItemsByStatus(status, pageable);
     }
 
     @Transactional(readOnly = true)
     public Page<LoginLogListItemResponse> listByIp(String ip, Pageable pageable) {
-        return loginLogRepository.findByIpAddressOrderByCreatedAtDesc(ip, pageable).map(loginLogMapper::toListItem);
+        return loginLogRepository.findListItemsByIpAddress(ip, pageable);
     }
 
     @Transactional(readOnly = true)
@@ -49,13 +68,13 @@ public class LoginLogService {
             throw new NotFoundException("Felhasználó nem található.");
         }
 
-        return loginLogRepository.findByUser_IdAndStatusOrderByCreatedAtDesc(userId, status, pageable).map(loginLogMapper::toListItem);
+        return loginLogRepository.findListItemsByUserIdAndStatus(userId, status, pageable);
     }
 
     @Transactional(readOnly = true)
     public Page<LoginLogListItemResponse> listByDateRange(OffsetDateTime start, OffsetDateTime end, Pageable pageable) {
 
-        return loginLogRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(start, end, pageable).map(loginLogMapper::toListItem);
+        return loginLogRepository.findListItemsByCreatedAtBetween(start.toInstant(), end.toInstant(), pageable);
     }
 
     @Transactional(readOnly = true)
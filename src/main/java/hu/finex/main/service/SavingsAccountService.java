@@ -5,6 +5,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import hu.finex.main.concurrency.RetryOnLockFailure;
+import hu.finex.main.concurrency.SerializedPerAccount;
 import hu.finex.main.dto.CreateSavingsAccountRequest;
 import hu.finex.main.dto.CreateTransactionRequest;
 import hu.finex.main.dto.SavingsAccountResponse;
@@ -13,9 +15,10 @@ import hu.finex.main.dto.SavingsTransferResponse;
 import hu.finex.main.dto.UpdateSavingsAccountRequest;
 import hu.finex.main.exception.BusinessException;
 import hu.finex.main.exception.NotFoundException;
-import hu.finex.main.mapper.BalanceHistoryMapper;
+import hu.finex.main.history.BalanceHistoryOutbox;
 import hu.finex.main.mapper.SavingsAccountMapper;
 import hu.finex.main.mapper.TransactionMapper;
+import hu.finex.main.metrics.BusinessMetrics;
 import hu.finex.main.model.Account;
 import hu.finex.main.model.SavingsAccount;
 import hu.finex.main.model.Transaction;
@@ -23,8 +26,8 @@ import hu.finex.main.model.User;
 import hu.finex.main.model.enums.AccountType;
 import hu.finex.main.model.enums.SavingsStatus;
 import hu.finex.main.model.enums.TransactionType;
+import hu.finex.main.money.MinorUnits;
 import hu.finex.main.repository.AccountRepository;
-import hu.finex.main.repository.BalanceHistoryRepository;
 import hu.finex.main.repository.SavingsAccountRepository;
 import hu.finex.main.repository.TransactionRepository;
 import hu.finex.main.repository.UserRepository;
@@ -38,10 +41,10 @@ public class SavingsAccountService {
     private final UserRepository userRepository;
     private final SavingsAccountMapper mapper;
     private final AccountRepository accountRepository;
-    private final BalanceHistoryRepository balanceHistoryRepository;
-    private final BalanceHistoryMapper balanceHistoryMapper;
+    private final BalanceHistoryOutbox balanceHistoryOutbox;
     private final TransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
+    private final BusinessMetrics businessMetrics;
 
     @Transactional
     public SavingsAccountResponse create(CreateSavingsAccountRequest request) {
@@ -59,11 +62,13 @@ public class SavingsAccountService {
             throw new BusinessException("A kezdő egyenleg devizaneme nem egyezik a folyószámla devizanemével.");
         }
 
-        if (current.getBalance().compareTo(request.getInitialBalance()) < 0) {
+        long initialBalance = MinorUnits.toMinor(request.getInitialBalance());
+        if (!current.covers(initialBalance)) {
+            businessMetrics.insufficientFunds("savings-create");
             throw new BusinessException("Nincs elegendő fedezet a megtakarítás indításához.");
         }
 
-        current.setBalance(current.getBalance().subtract(request.getInitialBalance()));
+        current.debit(initialBalance);
         accountRepository.save(current);
 
         SavingsAccount savings = mapper.toEntity(request, user);
@@ -81,12 +86,9 @@ public class SavingsAccountService {
                 .categoryIds(null)
                 .build();
 
-        Transaction tx = transactionRepository.save(
-                transactionMapper.toEntity(txReq, current)
-        );
-        balanceHistoryRepository.save(
-                balanceHistoryMapper.toEntity(current, current.getBalance())
-        );
+        Transaction tx = transactionMapper.toEntity(txReq, current);
+        balanceHistoryOutbox.record(tx, current);
+        transactionRepository.save(tx);
 
         return mapper.toResponse(savings);
     }
@@ -100,23 +102,23 @@ public class SavingsAccountService {
 
     @Transactional(readOnly = true)
     public Page<SavingsAccountResponse> listByUser(Long userId, Pageable pageable) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Felhasználó nem található."));
+        requireUser(userId);
 
-        return savingsAccountRepository.findByUser_IdOrderByCreatedAtDesc(userId, pageable).map(mapper::toResponse);
+        return savingsAccountRepository.findRowsByUserId(userId, pageable).map(mapper::toResponse);
     }
 
     @Transactional(readOnly = true)
     public Page<SavingsAccountResponse> listByUserAndStatus(Long userId, SavingsStatus status, Pageable pageable) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Felhasználó nem található."));
+        requireUser(userId);
 
-        return savingsAccountRepository.findByUser_IdAndStatusOrderByCreatedAtDesc(userId, status, pageable).map(mapper::toResponse);
+        return savingsAccountRepository.findRowsByUserIdAndStatus(userId, status, pageable).map(mapper::toResponse);
     }
 
     @Transactional(readOnly = true)
     public Page<SavingsAccountResponse> listAboveBalance(Long userId, java.math.BigDecimal minBalance, Pageable pageable) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Felhasználó nem található."));
+        requireUser(userId);
 
-        return savingsAccountRepository.findByUser_IdAndBalanceGreaterThanEqual(userId, minBalance, pageable).map(mapper::toResponse);
+        return savingsAccountRepository.findRowsByUserIdAndMinBalance(userId, MinorUnits.toMinor(minBalance), pageable).map(mapper::toResponse);
     }
 
     @Transactional
@@ -132,10 +134,13 @@ public class SavingsAccountService {
         return mapper.toResponse(entity);
     }
     
+    // Zárolási sorrend: előbb a megtakarítás, utána a folyószámla (mindkét irányban azonos)
+    @RetryOnLockFailure("savings-deposit")
+    @SerializedPerAccount(value = "savings-deposit", accounts = "#request.accountId", savingsAccounts = "#savingsId")
     @Transactional
     public SavingsTransferResponse depositFromAccount(Long savingsId, SavingsTransferRequest request) {
-        SavingsAccount savings = savingsAccountRepository.findById(savingsId).orElseThrow(() -> new NotFoundException("Megtakarítási számla nem található: " + savingsId));
-        Account current = accountRepository.findById(request.getAccountId()).orElseThrow(() -> new NotFoundException("A megadott folyószámla nem található: " + request.getAccountId()));
+        SavingsAccount savings = savingsAccountRepository.findByIdForUpdate(savingsId).orElseThrow(() -> new NotFoundException("Megtakarítási számla nem található: " + savingsId));
+        Account current = accountRepository.findByIdForUpdate(request.getAccountId()).orElseThrow(() -> new NotFoundException("A megadott folyószámla nem található: " + request.getAccountId()));
 
         if (!savings.getUser().getId().equals(current.getUser().getId())) {
             throw new BusinessException("A megtakarítási és folyószámla nem ugyanahhoz a felhasználóhoz tartozik.");
@@ -145,12 +150,14 @@ public class SavingsAccountService {
             throw new BusinessException("A számlák devizaneme nem egyezik meg.");
         }
 
-        if (current.getBalance().compareTo(request.getAmount()) < 0) {
+        long amount = MinorUnits.toMinor(request.getAmount());
+        if (!current.covers(amount)) {
+            businessMetrics.insufficientFunds("savings-deposit");
             throw new BusinessException("Nincs elegendő fedezet a folyószámlán.");
         }
 
-        current.setBalance(current.getBalance().subtract(request.getAmount()));
-        savings.setBalance(savings.getBalance().add(request.getAmount()));
+        current.debit(amount);
+        savings.credit(amount);
 
         accountRepository.save(current);
         savingsAccountRepository.save(savings);
@@ -168,12 +175,9 @@ public class SavingsAccountService {
                 .build();
 
         Transaction tx = transactionMapper.toEntity(txReq, current);
+        balanceHistoryOutbox.record(tx, current);
         tx = transactionRepository.save(tx);
 
-        balanceHistoryRepository.save(
-                balanceHistoryMapper.toEntity(current, current.getBalance())
-        );
-
         return SavingsTransferResponse.builder()
                 .savingsAccountId(savings.getId())
                 .accountId(current.getId())
@@ -184,10 +188,12 @@ public class SavingsAccountService {
                 .build();
     }
 
+    @RetryOnLockFailure("savings-withdraw")
+    @SerializedPerAccount(value = "savings-withdraw", accounts = "#request.accountId", savingsAccounts = "#savingsId")
     @Transactional
     public SavingsTransferResponse withdrawToAccount(Long savingsId, SavingsTransferRequest request) {
-        SavingsAccount savings = savingsAccountRepository.findById(savingsId).orElseThrow(() -> new NotFoundException("Megtakarítási számla nem található: " + savingsId));
-        Account current = accountRepository.findById(request.getAccountId()).orElseThrow(() -> new NotFoundException("A folyószámla nem található: " + request.getAccountId()));
+        SavingsAccount savings = savingsAccountRepository.findByIdForUpdate(savingsId).orElseThrow(() -> new NotFoundException("Megtakarítási számla nem található: " + savingsId));
+        Account current = accountRepository.findByIdForUpdate(request.getAccountId()).orElseThrow(() -> new NotFoundException("A folyószámla nem található: " + request.getAccountId()));
 
         if (!savings.getUser().getId().equals(current.getUser().getId())) {
             throw new BusinessException("A számlák nem ugyanahhoz a felhasználóhoz tartoznak.");
@@ -197,12 +203,14 @@ public class SavingsAccountService {
             throw new BusinessException("A számlák devizaneme nem egyezik meg.");
         }
 
-        if (savings.getBalance().compareTo(request.getAmount()) < 0) {
+        long amount = MinorUnits.toMinor(request.getAmount());
+        if (!savings.covers(amount)) {
+            businessMetrics.insufficientFunds("savings-withdraw");
             throw new BusinessException("Nincs elegendő fedezet a megtakarítási számlán.");
         }
 
-        savings.setBalance(savings.getBalance().subtract(request.getAmount()));
-        current.setBalance(current.getBalance().add(request.getAmount()));
+        savings.debit(amount);
+        current.credit(amount);
 
         savingsAccountRepository.save(savings);
         accountRepository.save(current);
@@ -220,12 +228,9 @@ public class SavingsAccountService {
                 .build();
 
         Transaction tx = transactionMapper.toEntity(txReq, current);
+        balanceHistoryOutbox.record(tx, current);
         tx = transactionRepository.save(tx);
 
-        balanceHistoryRepository.save(
-                balanceHistoryMapper.toEntity(current, current.getBalance())
-        );
-
         return SavingsTransferResponse.builder()
                 .savingsAccountId(savings.getId())
                 .accountId(current.getId())
@@ -242,4 +247,11 @@ public class SavingsAccountService {
 
         entity.setStatus(SavingsStatus.CLOSED);
     }
+
+    // Csak létezés-ellenőrzés, a User entitást nem kell betölteni
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Felhasználó nem található.");
+        }
+    }
 }
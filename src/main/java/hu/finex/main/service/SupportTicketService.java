@@ -1,7 +1,5 @@
 package hu.finex.main.service;
 
-import java.security.Principal;
-
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -29,13 +27,15 @@ public class SupportTicketService {
     private final SupportTicketMapper supportTicketMapper;
 
     @Transactional
-    public SupportTicketResponse create(CreateSupportTicketRequest request,Principal principal) {
-        User user = userRepository.findByEmailIgnoreCase(principal.getName()).orElseThrow(() -> new NotFoundException("Felhasználó nem található."));
-
-        if (supportTicketRepository.existsByUser_IdAndStatus(user.getId(), TicketStatus.OPEN)) {
+    public SupportTicketResponse create(CreateSupportTicketRequest request, Long userId) {
+        if (supportTicketRepository.existsByUser_IdAndStatus(userId, TicketStatus.OPEN)) {
             throw new BusinessException("Már van egy nyitott ticketed, kérjük várd meg a választ.");
         }
 
+        // Az id a tokenből jön, de a felhasználó azóta törlődhetett: findById a User L2 cache-ből szolgál ki,
+        // így a hiányzó felhasználó 404 marad, nem FK-sértésből lett 500
+        User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Felhasználó nem található."));
+
         SupportTicket ticket = supportTicketMapper.toEntity(request, user);
         ticket.setStatus(TicketStatus.OPEN);
 
@@ -54,21 +54,24 @@ public class SupportTicketService {
 
     @Transactional(readOnly = true)
     public Page<SupportTicketResponse> listByUser(Long userId, Pageable pageable) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Felhasználó nem található."));
+        requireUser(userId);
 
-        return supportTicketRepository.findByUser_IdOrderByCreatedAtDesc(userId, pageable).map(supportTicketMapper::toResponse);
+        return supportTicketRepository.findResponsesByUserId(userId, pageable);
     }
 
     @Transactional(readOnly = true)
     public Page<SupportTicketResponse> listByStatus(TicketStatus status, Pageable pageable) {
-        return supportTicketRepository.findByStatusOrderByCreatedAtDesc(status, pageable).map(supportTicketMapper::toResponse);
+        if (status == TicketStatus.OPEN) {
+            return supportTicketRepository.findOpenResponses(pageable);
+        }
+        return supportTicketRepository.findResponsesByStatus(status, pageable);
     }
 
     @Transactional(readOnly = true)
     public Page<SupportTicketResponse> listByUserAndStatus(Long userId, TicketStatus status, Pageable pageable) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Felhasználó nem található."));
+        requireUser(userId);
 
-        return supportTicketRepository.findByUser_IdAndStatusOrderByCreatedAtDesc(userId, status, pageable).map(supportTicketMapper::toResponse);
+        return supportTicketRepository.findResponsesByUserIdAndStatus(userId, status, pageable);
     }
 
     @Transactional
@@ -79,4 +82,11 @@ public class SupportTicketService {
 
         return supportTicketMapper.toResponse(ticket);
     }
+
+    // Csak létezés-ellenőrzés, a User entitást nem kell betölteni
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Felhasználó nem található.");
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package hu.finex.main.service;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +27,7 @@ public class TransactionCategoryService {
     private final TransactionRepository transactionRepository;
     private final CategoryRepository categoryRepository;
     private final TransactionCategoryMapper transactionCategoryMapper;
+    private final CategoryService categoryService;
 
     @Transactional
     public TransactionCategoryResponse assignCategory(Long transactionId, Long categoryId) {
@@ -44,6 +46,24 @@ public class TransactionCategoryService {
         return transactionCategoryMapper.toResponse(link);
     }
 
+    // Több kategória hozzárendelése egy lépésben: 1 kategória-lekérdezés, 1 ütközés-ellenőrzés, 1 batch insert
+    @Transactional
+    public List<TransactionCategoryResponse> assignCategories(Long transactionId, List<Long> categoryIds) {
+        Transaction transaction = transactionRepository.findById(transactionId).orElseThrow(() -> new NotFoundException("Tranzakció nem található."));
+        List<Category> categories = categoryService.requireAllById(categoryIds);
+
+        List<Long> alreadyAssigned = transactionCategoryRepository.findAssignedCategoryIds(transactionId, categories.stream().map(Category::getId).toList());
+
+        if (!alreadyAssigned.isEmpty()) {
+            throw new BusinessException("A kategória már hozzá van rendelve a tranzakcióhoz: "
+                    + alreadyAssigned.stream().map(String::valueOf).collect(Collectors.joining(", ")));
+        }
+
+        List<TransactionCategory> links = categories.stream().map(category -> transactionCategoryMapper.toEntity(transaction, category)).toList();
+
+        return transactionCategoryRepository.saveAll(links).stream().map(transactionCategoryMapper::toResponse).toList();
+    }
+
     @Transactional(readOnly = true)
     public List<TransactionCategoryListItemResponse> listByTransaction(Long transactionId) {
         if (!transactionRepository.existsById(transactionId)) {
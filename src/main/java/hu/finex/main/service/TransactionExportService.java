@@ -0,0 +1,41 @@
+package hu.finex.main.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import hu.finex.main.dto.TransactionExportRow;
+import hu.finex.main.exception.NotFoundException;
+import hu.finex.main.export.ExportFormat;
+import hu.finex.main.export.TransactionExportWriter;
+import hu.finex.main.repository.AccountRepository;
+import hu.finex.main.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionExportWriter transactionExportWriter;
+
+    // A streamelés előtt fut, hogy a hiányzó számla még rendes 404-es választ adjon
+    @Transactional(readOnly = true)
+    public void requireAccount(Long accountId) {
+        if (!accountRepository.existsById(accountId)) {
+            throw new NotFoundException("Számla nem található.");
+        }
+    }
+
+    // A StreamingResponseBody szálán fut; a tranzakció a teljes kiírás alatt nyitva tartja a cursort
+    @Transactional(readOnly = true)
+    public long export(Long accountId, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<TransactionExportRow> rows = transactionRepository.streamExportRowsByAccountId(accountId)) {
+            return transactionExportWriter.write(rows.iterator(), format, out);
+        }
+    }
+}
@@ -3,30 +3,37 @@ package hu.finex.main.service;
 import java.math.BigDecimal;
 import java.util.List;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import hu.finex.main.concurrency.RetryOnLockFailure;
+import hu.finex.main.concurrency.SerializedPerAccount;
 import hu.finex.main.dto.CategoryResponse;
 import hu.finex.main.dto.CreateTransactionRequest;
+import hu.finex.main.dto.SliceResponse;
 import hu.finex.main.dto.TransactionListItemResponse;
 import hu.finex.main.dto.TransactionResponse;
 import hu.finex.main.dto.TransferRequest;
 import hu.finex.main.dto.TransferResponse;
 import hu.finex.main.exception.BusinessException;
 import hu.finex.main.exception.NotFoundException;
-import hu.finex.main.mapper.BalanceHistoryMapper;
+import hu.finex.main.history.BalanceHistoryOutbox;
+import hu.finex.main.ledger.LedgerCommand;
 import hu.finex.main.mapper.TransactionMapper;
+import hu.finex.main.metrics.BusinessMetrics;
 import hu.finex.main.model.Account;
-import hu.finex.main.model.BalanceHistory;
 import hu.finex.main.model.Category;
 import hu.finex.main.model.Transaction;
 import hu.finex.main.model.TransactionCategory;
 import hu.finex.main.model.enums.TransactionType;
+import hu.finex.main.money.MinorUnits;
+import hu.finex.main.pagination.KeysetCursor;
 import hu.finex.main.repository.AccountRepository;
-import hu.finex.main.repository.BalanceHistoryRepository;
-import hu.finex.main.repository.CategoryRepository;
 import hu.finex.main.repository.TransactionCategoryRepository;
 import hu.finex.main.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
@@ -35,15 +42,20 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class TransactionService {
 
+    private static final String CATEGORY_FOREIGN_KEY = "fk_trxcat_category";
+
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
-    private final BalanceHistoryRepository balanceHistoryRepository;
 
     private final TransactionMapper transactionMapper;
-    private final BalanceHistoryMapper balanceHistoryMapper;
+    private final BalanceHistoryOutbox balanceHistoryOutbox;
     private final TransactionCategoryRepository transactionCategoryRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryService categoryService;
+    private final BusinessMetrics businessMetrics;
 
+    @RetryOnLockFailure("transaction-create")
+    @SerializedPerAccount(value = "transaction-create", accounts = "#request.accountId")
+    @LedgerCommand
     @Transactional
     public TransactionResponse create(CreateTransactionRequest request) {
 
@@ -53,123 +65,166 @@ public class TransactionService {
             throw new BusinessException("A tranzakció devizaneme nem egyezik a számla devizanemével.");
         }
 
-        BigDecimal amount = request.getAmount();
+        List<Category> categories = resolveCategories(request.getCategoryIds());
+
+        long amount = MinorUnits.toMinor(request.getAmount());
 
         if (request.getType() == TransactionType.INCOME || request.getType() == TransactionType.TRANSFER_IN) {
-            account.setBalance(account.getBalance().add(amount));
+            account.credit(amount);
         } else if (request.getType() == TransactionType.OUTCOME || request.getType() == TransactionType.TRANSFER_OUT) {
-            if (account.getBalance().compareTo(amount) < 0) {
+            if (!account.covers(amount)) {
+                businessMetrics.insufficientFunds("transaction");
                 throw new BusinessException("Nincs elegendő fedezet a tranzakcióhoz.");
             }
-            account.setBalance(account.getBalance().subtract(amount));
+            account.debit(amount);
         } else {
             throw new BusinessException("Ismeretlen tranzakció típus.");
         }
 
-        BalanceHistory history = balanceHistoryMapper.toEntity(account, account.getBalance());
-        balanceHistoryRepository.save(history);
-
         Transaction transaction = transactionMapper.toEntity(request, account);
+        balanceHistoryOutbox.record(transaction, account);
         transaction = transactionRepository.save(transaction);
 
-        saveCategories(transaction, request.getCategoryIds());
-        
-        return buildResponseWithCategories(transaction);
+        saveCategories(transaction, categories);
+        flushCategoryLinks(categories);
+
+        return buildResponseWithCategories(transaction, categories);
     }
     
 
     @Transactional(readOnly = true)
     public TransactionResponse getById(Long id) {
-        Transaction transaction = transactionRepository.findById(id).orElseThrow(() -> new NotFoundException("Tranzakció nem található."));
-        return buildResponseWithCategories(transaction);
+        Transaction transaction = transactionRepository.findDetailById(id).orElseThrow(() -> new NotFoundException("Tranzakció nem található."));
+
+        List<Category> categories = transaction.getCategoryLinks().stream().map(TransactionCategory::getCategory).toList();
+
+        return buildResponseWithCategories(transaction, categories);
     }
 
     @Transactional(readOnly = true)
     public Page<TransactionListItemResponse> listByAccount(Long accountId, Pageable pageable) {
-        accountRepository.findById(accountId).orElseThrow(() -> new NotFoundException("Számla nem található."));
+        if (!accountRepository.existsCachedById(accountId)) {
+            throw new NotFoundException("Számla nem található.");
+        }
 
-        return transactionRepository.findByAccount_IdOrderByCreatedAtDesc(accountId, pageable).map(transactionMapper::toListItem);
+        return transactionRepository.findListItemsByAccountId(accountId, pageable);
     }
-    
-    private TransactionResponse buildResponseWithCategories(Transaction transaction) {
-
-        // Kapcsoló rekordok
-        List<TransactionCategory> links =
-                transactionCategoryRepository.findByTransaction_Id(transaction.getId());
-
-        List<CategoryResponse> categoryResponses = links.stream().map(link -> {
-                    Category c = link.getCategory();
-                    return CategoryResponse.builder()
-                            .id(c.getId())
-                            .name(c.getName())
-                            .icon(c.getIcon())
-                            .build();
-                })
-                .toList();
 
+    @Transactional(readOnly = true)
+    public SliceResponse<TransactionListItemResponse> listByAccountSlice(Long accountId, String cursor, int size) {
+        if (!accountRepository.existsCachedById(accountId)) {
+            throw new NotFoundException("Számla nem található.");
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable page = KeysetCursor.firstPage(size);
+
+        Slice<TransactionListItemResponse> slice = after == null
+                ? transactionRepository.findListItemSliceByAccountId(accountId, page)
+                : transactionRepository.findListItemsByAccountBefore(accountId, after.createdAt(), after.id(), page);
+
+        return KeysetCursor.toResponse(slice, item -> item, item -> new KeysetCursor(item.getCreatedAt(), item.getId()));
+    }
+    
+    // A kategóriák már a memóriában vannak (entity graph vagy frissen feloldott lista), nincs extra lekérdezés
+    private TransactionResponse buildResponseWithCategories(Transaction transaction, List<Category> categories) {
         TransactionResponse response = transactionMapper.toResponse(transaction);
 
-        response.setCategories(categoryResponses);
+        response.setCategories(toCategoryResponses(categories));
 
         return response;
     }
+
+    private List<CategoryResponse> toCategoryResponses(List<Category> categories) {
+        return categories.stream()
+                .map(c -> CategoryResponse.builder()
+                        .id(c.getId())
+                        .name(c.getName())
+                        .icon(c.getIcon())
+                        .build())
+                .toList();
+    }
     
-    private void saveCategories(Transaction transaction, List<Long> categoryIds) {
+    private List<Category> resolveCategories(List<Long> categoryIds) {
         if (categoryIds == null || categoryIds.isEmpty()) {
-            return;
+            return List.of();
         }
+        return categoryService.requireAllById(categoryIds);
+    }
 
-        // Ellenőrzés, hogy minden kategória létezik
-        for (Long categoryId : categoryIds) {
-            if (!categoryRepository.existsById(categoryId)) {
-                throw new NotFoundException("Kategória nem található: " + categoryId);
-            }
+    // Kapcsoló rekordok mentése egy batch-ben
+    private void saveCategories(Transaction transaction, List<Category> categories) {
+        if (categories.isEmpty()) {
+            return;
         }
 
-        // Kapcsoló rekordok mentése
-        for (Long categoryId : categoryIds) {
+        List<TransactionCategory> links = categories.stream()
+                .map(category -> TransactionCategory.builder()
+                        .transaction(transaction)
+                        .category(category)
+                        .build())
+                .toList();
 
-            Category category = categoryRepository.findById(categoryId)
-                    .orElseThrow(() -> new NotFoundException("Kategória nem található: " + categoryId));
+        transactionCategoryRepository.saveAll(links);
+    }
 
-            TransactionCategory tc = TransactionCategory.builder()
-                    .transaction(transaction)
-                    .category(category)
-                    .build();
+    // A katalógus egy másik példányon törölt kategóriát csak a következő frissítéskor (refresh-interval-ms) lát,
+    // így a kapcsoló rekord az FK-n bukik el. A flush ezt még itt felszínre hozza, és ugyanaz a 404 lesz belőle.
+    private void flushCategoryLinks(List<Category> categories) {
+        if (categories.isEmpty()) {
+            return;
+        }
 
-            transactionCategoryRepository.save(tc);
+        try {
+            transactionCategoryRepository.flush();
+        } catch (DataIntegrityViolationException ex) {
+            if (ex.getCause() instanceof ConstraintViolationException violation
+                    && CATEGORY_FOREIGN_KEY.equalsIgnoreCase(violation.getConstraintName())) {
+                throw new NotFoundException("Kategória nem található.");
+            }
+            throw ex;
         }
     }
     
+    @RetryOnLockFailure("transfer")
+    @SerializedPerAccount(value = "transfer", accounts = {"#request.fromAccountId", "#request.toAccountId"})
+    @LedgerCommand
     @Transactional
     public TransferResponse transfer(TransferRequest request) {
 
-        Account from = accountRepository.findById(request.getFromAccountId())
-                .orElseThrow(() -> new NotFoundException("Forrás számla nem található."));
-
-        Account to = accountRepository.findById(request.getToAccountId())
-                .orElseThrow(() -> new NotFoundException("Cél számla nem található."));
-
-        if (from.getId().equals(to.getId())) {
+        if (request.getFromAccountId().equals(request.getToAccountId())) {
             throw new BusinessException("Nem utalhatsz saját magadnak ugyanarra a számlára.");
         }
 
+        // Sorzárak mindig növekvő id sorrendben -> két ellentétes irányú utalás nem tud deadlockolni
+        Account from;
+        Account to;
+        if (request.getFromAccountId() < request.getToAccountId()) {
+            from = lockAccount(request.getFromAccountId(), "Forrás számla nem található.");
+            to = lockAccount(request.getToAccountId(), "Cél számla nem található.");
+        } else {
+            to = lockAccount(request.getToAccountId(), "Cél számla nem található.");
+            from = lockAccount(request.getFromAccountId(), "Forrás számla nem található.");
+        }
+
         if (!from.getCurrency().equalsIgnoreCase(request.getCurrency()) ||
             !to.getCurrency().equalsIgnoreCase(request.getCurrency())) {
             throw new BusinessException("A devizanem nem egyezik a számlák devizanemével.");
         }
 
         BigDecimal amount = request.getAmount();
+        long amountMinor = MinorUnits.toMinor(amount);
 
-        if (from.getBalance().compareTo(amount) < 0) {
+        if (!from.covers(amountMinor)) {
+            businessMetrics.insufficientFunds("transfer");
             throw new BusinessException("Nincs elég egyenleg a forrás számlán.");
         }
 
-        from.setBalance(from.getBalance().subtract(amount));
-        to.setBalance(to.getBalance().add(amount));
+        // Kategóriák egyszeri feloldása, mindkét tranzakció ugyanazt a listát kapja
+        List<Category> categories = resolveCategories(request.getCategoryIds());
 
-        balanceHistoryRepository.save(balanceHistoryMapper.toEntity(from, from.getBalance()));
-        balanceHistoryRepository.save(balanceHistoryMapper.toEntity(to, to.getBalance()));
+        from.debit(amountMinor);
+        to.credit(amountMinor);
 
         CreateTransactionRequest outReq = CreateTransactionRequest.builder()
                 .accountId(from.getId())
@@ -182,11 +237,11 @@ public class TransactionService {
                 .categoryIds(request.getCategoryIds())
                 .build();
 
-        Transaction outTx = transactionRepository.save(
-                transactionMapper.toEntity(outReq, from)
-        );
+        Transaction outTx = transactionMapper.toEntity(outReq, from);
+        balanceHistoryOutbox.record(outTx, from);
+        outTx = transactionRepository.save(outTx);
 
-        saveCategories(outTx, request.getCategoryIds());
+        saveCategories(outTx, categories);
 
         CreateTransactionRequest inReq = CreateTransactionRequest.builder()
                 .accountId(to.getId())
@@ -199,11 +254,13 @@ public class TransactionService {
                 .categoryIds(request.getCategoryIds())
                 .build();
 
-        Transaction inTx = transactionRepository.save(
-                transactionMapper.toEntity(inReq, to)
-        );
+        Transaction inTx = transactionMapper.toEntity(inReq, to);
+        balanceHistoryOutbox.record(inTx, to);
+        inTx = transactionRepository.save(inTx);
 
-        saveCategories(inTx, request.getCategoryIds());
+        saveCategories(inTx, categories);
+        flushCategoryLinks(categories);
+        businessMetrics.transferCompleted();
 
         return TransferResponse.builder()
                 .fromAccountId(from.getId())
@@ -211,12 +268,16 @@ public class TransactionService {
                 .amount(amount)
                 .currency(request.getCurrency())
                 .message(request.getMessage())
-                .categories(buildResponseWithCategories(outTx).getCategories())
+                .categories(toCategoryResponses(categories))
                 .fromAccountNewBalance(from.getBalance())
                 .toAccountNewBalance(to.getBalance())
                 .createdAt(outTx.getCreatedAt())
                 .build();
     }
 
+    private Account lockAccount(Long id, String notFoundMessage) {
+        return accountRepository.findByIdForUpdate(id).orElseThrow(() -> new NotFoundException(notFoundMessage));
+    }
+
 
 }
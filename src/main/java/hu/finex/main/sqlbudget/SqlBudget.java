@@ -0,0 +1,19 @@
+package hu.finex.main.sqlbudget;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Controller végpont kérésenkénti SQL statement-kerete (SqlBudgetInterceptor). Annotáció nélkül
+// a finex.sql-budget.default-max-statements érvényes; túllépéskor figyelmeztetés, tesztben (fail-on-exceed) 500-as hiba.
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SqlBudget {
+
+    // Egy kérés alatt legfeljebb ennyi Hibernate által előkészített statement
+    int value();
+}
@@ -0,0 +1,49 @@
+package hu.finex.main.sqlbudget;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Kérésenkénti SQL statement-keret: a számláló Hibernate StatementInspector-ként kap meg minden előkészített SQL-t,
+// az interceptor kérésenként méri. A MeterRegistry opcionális, így a web slice tesztekben is működik.
+
+@Configuration
+public class SqlBudgetConfig implements WebMvcConfigurer {
+
+    private final SqlStatementCounter sqlStatementCounter = new SqlStatementCounter();
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int defaultMaxStatements;
+    private final int repeatedStatementThreshold;
+
+    public SqlBudgetConfig(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${finex.sql-budget.default-max-statements:20}") int defaultMaxStatements,
+            @Value("${finex.sql-budget.repeated-statement-threshold:5}") int repeatedStatementThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.defaultMaxStatements = defaultMaxStatements;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return sqlStatementCounter;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlBudgetInterceptor(
+                sqlStatementCounter, meterRegistry, defaultMaxStatements, repeatedStatementThreshold));
+    }
+}
@@ -0,0 +1,7 @@
+package hu.finex.main.sqlbudget;
+
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String endpoint, int statements, int budget) {
+        super("SQL keret túllépve: " + endpoint + " " + statements + " statement (keret: " + budget + ")");
+    }
+}
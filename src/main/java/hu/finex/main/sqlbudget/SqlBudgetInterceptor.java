@@ -0,0 +1,143 @@
+package hu.finex.main.sqlbudget;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+// Kérésenként mérési hatókört nyit a SqlStatementCounter-en, a kérés végén naplózza a statementek számát
+// és a finex.sql.statements metrikába méri végpontonként. Keret-túllépésnél és ismétlődő (N+1 gyanús) statementnél WARN.
+// A fejléceket és a teszt módú hibát a SqlBudgetResponseAdvice teszi a válaszba, mert afterCompletion-kor az már elküldött.
+
+@Slf4j
+public class SqlBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    static final String SCOPE_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".scope";
+    static final String STATEMENTS_METRIC = "finex.sql.statements";
+    static final String EXCEEDED_METRIC = "finex.sql.budget.exceeded";
+
+    private final SqlStatementCounter counter;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int defaultBudget;
+    private final int repeatedThreshold;
+
+    public SqlBudgetInterceptor(SqlStatementCounter counter, ObjectProvider<MeterRegistry> meterRegistry,
+                                int defaultBudget, int repeatedThreshold) {
+        this.counter = counter;
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.repeatedThreshold = Math.max(2, repeatedThreshold);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getAttribute(SCOPE_ATTRIBUTE) != null) {
+            return true;
+        }
+        SqlBudget annotation = handlerMethod.getMethodAnnotation(SqlBudget.class);
+        int budget = annotation != null ? annotation.value() : defaultBudget;
+        request.setAttribute(SCOPE_ATTRIBUTE, new RequestScope(endpoint(request), budget, counter.open()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        finish(request);
+    }
+
+    // Streamelt/aszinkron válasznál a kérés szála itt engedi el a kérést: a hatókört ezen a szálon kell lezárni
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        finish(request);
+    }
+
+    static RequestScope scope(HttpServletRequest request) {
+        return (RequestScope) request.getAttribute(SCOPE_ATTRIBUTE);
+    }
+
+    private void finish(HttpServletRequest request) {
+        RequestScope scope = scope(request);
+        if (scope == null) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        scope.statements().close();
+        report(scope);
+    }
+
+    private void report(RequestScope scope) {
+        int statements = scope.statements().count();
+        log.debug("{}: {} SQL statement (keret: {})", scope.endpoint(), statements, scope.budget());
+
+        meterRegistry.ifAvailable(registry -> DistributionSummary.builder(STATEMENTS_METRIC)
+                .tag("endpoint", scope.endpoint())
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(statements));
+
+        if (scope.exceeded()) {
+            log.warn("SQL keret túllépve: {} {} statement (keret: {})", scope.endpoint(), statements, scope.budget());
+            meterRegistry.ifAvailable(registry -> Counter.builder(EXCEEDED_METRIC)
+                    .tag("endpoint", scope.endpoint())
+                    .register(registry)
+                    .increment());
+        }
+
+        scope.statements().mostRepeated()
+                .filter(repeated -> repeated.getValue() >= repeatedThreshold)
+                .ifPresent(repeated -> log.warn("Lehetséges N+1: {} ugyanazt a statementet {}x futtatta: {}",
+                        scope.endpoint(), repeated.getValue(), repeated.getKey()));
+    }
+
+    // Alacsony kardinalitású címke: a route minta, nem a konkrét URI
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    static final class RequestScope {
+
+        private final String endpoint;
+        private final int budget;
+        private final SqlStatementCounter.Scope statements;
+        private boolean failed;
+
+        RequestScope(String endpoint, int budget, SqlStatementCounter.Scope statements) {
+            this.endpoint = endpoint;
+            this.budget = budget;
+            this.statements = statements;
+        }
+
+        String endpoint() {
+            return endpoint;
+        }
+
+        int budget() {
+            return budget;
+        }
+
+        SqlStatementCounter.Scope statements() {
+            return statements;
+        }
+
+        boolean exceeded() {
+            return statements.count() > budget;
+        }
+
+        // Egy kérés csak egyszer bukik el: a hibaválasz kiírása már nem dobhat újra
+        boolean markFailed() {
+            if (failed) {
+                return false;
+            }
+            failed = true;
+            return true;
+        }
+    }
+}
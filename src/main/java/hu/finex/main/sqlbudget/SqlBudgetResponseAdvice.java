@@ -0,0 +1,60 @@
+package hu.finex.main.sqlbudget;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// A válasz kiírása előtt (még a fejlécek elküldése előtt) teszi ki a kérés eddigi statement-számát:
+// Server-Timing (böngésző devtools) és X-SQL-Statements. fail-on-exceed módban a keret túllépése 500-as hiba,
+// így a végponti tesztek elbuknak, ha egy változás több lekérdezést vezet be.
+
+@RestControllerAdvice
+public class SqlBudgetResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final boolean exposeHeaders;
+    private final boolean failOnExceed;
+
+    public SqlBudgetResponseAdvice(
+            @Value("${finex.sql-budget.expose-headers:true}") boolean exposeHeaders,
+            @Value("${finex.sql-budget.fail-on-exceed:false}") boolean failOnExceed) {
+        this.exposeHeaders = exposeHeaders;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        SqlBudgetInterceptor.RequestScope scope = SqlBudgetInterceptor.scope(servletRequest.getServletRequest());
+        if (scope == null) {
+            return body;
+        }
+
+        int statements = scope.statements().count();
+        if (exposeHeaders) {
+            response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(statements));
+            response.getHeaders().set(SERVER_TIMING_HEADER, "sql;desc=\"" + statements + " statements\"");
+        }
+        if (failOnExceed && scope.exceeded() && scope.markFailed()) {
+            throw new SqlBudgetExceededException(scope.endpoint(), statements, scope.budget());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,75 @@
+package hu.finex.main.sqlbudget;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate StatementInspector: a szálhoz kötött, nyitott mérési hatókörökben számolja az előkészített statementeket,
+// szövegük szerint is, hogy az ugyanazzal az SQL-lel ismétlődő (N+1 gyanús) lekérdezések kiderüljenek.
+// Csak a Hibernate-en átmenő SQL számít; batch-elt insert egy statement. Más szálon futó munka nem a kéréshez számolódik.
+
+public class SqlStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    // Egymásba ágyazható: a belső hatókör lezárásakor a számai a külsőhöz adódnak
+    public Scope open() {
+        Scope scope = new Scope(current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = current.get();
+        if (scope != null) {
+            scope.record(sql);
+        }
+        return sql;
+    }
+
+    public final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final Map<String, Integer> bySql = new HashMap<>();
+        private int count;
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        // A legtöbbször előkészített statement és darabszáma
+        public Optional<Map.Entry<String, Integer>> mostRepeated() {
+            return bySql.entrySet().stream().max(Map.Entry.comparingByValue());
+        }
+
+        private void record(String sql) {
+            count++;
+            bySql.merge(sql, 1, Integer::sum);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (parent != null) {
+                parent.count += count;
+                bySql.forEach((sql, n) -> parent.bySql.merge(sql, n, Integer::sum));
+            }
+            if (parent == null) {
+                current.remove();
+            } else {
+                current.set(parent);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+-- Kiinduló séma: a sql/finex-sql-startup.sql dump szerkezete adatok nélkül.
+-- Meglévő adatbázison nem fut le (spring.flyway.baseline-on-migrate, baseline-version=1).
+
+CREATE TYPE account_status AS ENUM ('ACTIVE', 'BLOCKED', 'CLOSED', 'FROZEN');
+CREATE TYPE account_type AS ENUM ('CURRENT', 'SAVINGS', 'CREDIT');
+CREATE TYPE savings_status AS ENUM ('ACTIVE', 'FROZEN', 'CLOSED');
+CREATE TYPE ticket_status AS ENUM ('OPEN', 'IN_PROGRESS', 'RESOLVED');
+CREATE TYPE transaction_type AS ENUM ('INCOME', 'OUTCOME', 'TRANSFER_IN', 'TRANSFER_OUT');
+
+CREATE TABLE users (
+    id bigserial PRIMARY KEY,
+    first_name varchar(100) NOT NULL,
+    last_name varchar(100) NOT NULL,
+    email varchar(255) NOT NULL,
+    phone varchar(30),
+    password_hash varchar(255) NOT NULL,
+    created_at timestamptz DEFAULT now() NOT NULL,
+    updated_at timestamptz DEFAULT now() NOT NULL,
+    role varchar(32) DEFAULT 'USER' NOT NULL,
+    CONSTRAINT users_email_key UNIQUE (email),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE accounts (
+    id bigserial PRIMARY KEY,
+    user_id bigint NOT NULL,
+    account_number varchar(34) NOT NULL,
+    balance numeric(18,2) DEFAULT 0 NOT NULL,
+    currency varchar(3) DEFAULT 'HUF' NOT NULL,
+    created_at timestamptz DEFAULT now() NOT NULL,
+    account_type varchar(255) DEFAULT 'CURRENT'::account_type NOT NULL,
+    card_number varchar(20),
+    status varchar(255) DEFAULT 'ACTIVE'::account_status NOT NULL,
+    CONSTRAINT accounts_account_number_key UNIQUE (account_number),
+    CONSTRAINT uk_accounts_account_number UNIQUE (account_number),
+    CONSTRAINT fk_accounts_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE balance_history (
+    id bigserial PRIMARY KEY,
+    account_id bigint NOT NULL,
+    balance numeric(18,2) NOT NULL,
+    created_at timestamptz DEFAULT now() NOT NULL,
+    CONSTRAINT fk_balance_history_account FOREIGN KEY (account_id) REFERENCES accounts (id) ON DELETE CASCADE
+);
+
+CREATE TABLE categories (
+    id bigserial PRIMARY KEY,
+    name varchar(100) NOT NULL,
+    icon varchar(20),
+    CONSTRAINT categories_name_key UNIQUE (name),
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+CREATE TABLE login_logs (
+    id bigserial PRIMARY KEY,
+    user_id bigint NOT NULL,
+    ip_address varchar(45),
+    user_agent text,
+    failure_reason varchar(255),
+    created_at timestamptz DEFAULT now() NOT NULL,
+    status varchar(20) NOT NULL,
+    CONSTRAINT login_logs_status_check CHECK (status IN ('SUCCESS', 'FAILED')),
+    CONSTRAINT fk_login_logs_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE savings_accounts (
+    id bigserial PRIMARY KEY,
+    user_id bigint NOT NULL,
+    name varchar(100) NOT NULL,
+    balance numeric(18,2) DEFAULT 0 NOT NULL,
+    currency varchar(3) DEFAULT 'HUF' NOT NULL,
+    interest_rate numeric(5,2) DEFAULT 0 NOT NULL,
+    status varchar(255) DEFAULT 'ACTIVE'::savings_status NOT NULL,
+    created_at timestamptz DEFAULT now() NOT NULL,
+    updated_at timestamptz DEFAULT now() NOT NULL,
+    CONSTRAINT fk_savings_accounts_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE support_tickets (
+    id bigserial PRIMARY KEY,
+    user_id bigint NOT NULL,
+    title varchar(200) NOT NULL,
+    message text NOT NULL,
+    status varchar(255) DEFAULT 'OPEN'::ticket_status NOT NULL,
+    created_at timestamptz DEFAULT now() NOT NULL,
+    updated_at timestamptz DEFAULT now() NOT NULL,
+    CONSTRAINT fk_support_tickets_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE transactions (
+    id bigserial PRIMARY KEY,
+    account_id bigint NOT NULL,
+    type varchar(255) NOT NULL,
+    amount numeric(18,2) NOT NULL,
+    message varchar(255),
+    from_account varchar(34),
+    to_account varchar(34),
+    created_at timestamptz DEFAULT now() NOT NULL,
+    currency varchar(3) DEFAULT 'HUF' NOT NULL,
+    CONSTRAINT transactions_amount_check CHECK (amount >= 0),
+    CONSTRAINT fk_transactions_account FOREIGN KEY (account_id) REFERENCES accounts (id) ON DELETE CASCADE
+);
+
+CREATE TABLE transaction_categories (
+    id bigserial PRIMARY KEY,
+    transaction_id bigint NOT NULL,
+    category_id bigint NOT NULL,
+    CONSTRAINT uq_trxcat_unique UNIQUE (transaction_id, category_id),
+    CONSTRAINT fk_trxcat_transaction FOREIGN KEY (transaction_id) REFERENCES transactions (id) ON DELETE CASCADE,
+    CONSTRAINT fk_trxcat_category FOREIGN KEY (category_id) REFERENCES categories (id) ON DELETE RESTRICT
+);
+
+CREATE INDEX idx_balance_history_account_id ON balance_history (account_id);
+CREATE INDEX idx_balance_history_created_at ON balance_history (created_at);
+CREATE INDEX idx_login_logs_created_at ON login_logs (created_at);
+CREATE INDEX idx_login_logs_user_id ON login_logs (user_id);
+CREATE INDEX idx_savings_accounts_status ON savings_accounts (status);
+CREATE INDEX idx_savings_accounts_user_id ON savings_accounts (user_id);
+CREATE INDEX idx_support_tickets_status ON support_tickets (status);
+CREATE INDEX idx_support_tickets_user_id ON support_tickets (user_id);
+CREATE INDEX idx_transactions_account_id ON transactions (account_id);
+CREATE INDEX idx_transactions_created_at ON transactions (created_at);
+CREATE INDEX idx_trxcat_category_id ON transaction_categories (category_id);
+CREATE INDEX idx_trxcat_transaction_id ON transaction_categories (transaction_id);
@@ -0,0 +1,15 @@
+-- Pooled-lo azonosító generálás (allocationSize = 50).
+-- A Hibernate induláskor ellenőrzi, hogy a szekvencia lépésköze egyezik-e az allocationSize-zal.
+-- Többször lefuttatva sem okoz gondot: a következő érték mindig a legnagyobb használt id fölé kerül.
+
+ALTER SEQUENCE public.transactions_id_seq INCREMENT BY 50;
+SELECT setval('public.transactions_id_seq', COALESCE((SELECT max(id) FROM public.transactions), 0) + 1, false);
+
+ALTER SEQUENCE public.balance_history_id_seq INCREMENT BY 50;
+SELECT setval('public.balance_history_id_seq', COALESCE((SELECT max(id) FROM public.balance_history), 0) + 1, false);
+
+ALTER SEQUENCE public.transaction_categories_id_seq INCREMENT BY 50;
+SELECT setval('public.transaction_categories_id_seq', COALESCE((SELECT max(id) FROM public.transaction_categories), 0) + 1, false);
+
+ALTER SEQUENCE public.login_logs_id_seq INCREMENT BY 50;
+SELECT setval('public.login_logs_id_seq', COALESCE((SELECT max(id) FROM public.login_logs), 0) + 1, false);
@@ -0,0 +1,26 @@
+-- A baseline óta ddl-auto=update által hozzáadott oszlopok és táblák.
+-- Meglévő (update-tel már kiegészített) adatbázison üres lépés, ezért minden utasítás IF NOT EXISTS.
+
+-- Optimista zárolás (@Version)
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+ALTER TABLE savings_accounts ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+
+-- Egyenleg-előzmények write-behind kiírása
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS balance_after numeric(18,2);
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS history_pending boolean DEFAULT false NOT NULL;
+
+-- Idempotency-Key nyilvántartás
+CREATE SEQUENCE IF NOT EXISTS idempotency_keys_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id bigint PRIMARY KEY,
+    scope_key varchar(255) NOT NULL,
+    request_hash varchar(64) NOT NULL,
+    status varchar(20) NOT NULL CHECK (status IN ('IN_PROGRESS', 'COMPLETED')),
+    response_status integer,
+    response_body text,
+    created_at timestamp(6) with time zone NOT NULL,
+    CONSTRAINT uk_idempotency_keys_scope_key UNIQUE (scope_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at);
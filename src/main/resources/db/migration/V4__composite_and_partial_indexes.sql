@@ -0,0 +1,25 @@
+-- Indexek a tényleges lekérdezés-alakokhoz (WHERE + ORDER BY), a redundáns egyoszlopos indexek helyett.
+
+-- Tranzakciólista és keyset lapozás: account_id = ? ORDER BY created_at DESC, id DESC
+DROP INDEX IF EXISTS idx_transactions_account_created_id;
+CREATE INDEX idx_transactions_account_created_id ON transactions (account_id, created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_transactions_account_id;
+
+-- Egyenleg-grafikon: account_id = ? ORDER BY created_at ASC, id ASC
+CREATE INDEX IF NOT EXISTS idx_balance_history_account_created_id ON balance_history (account_id, created_at, id);
+DROP INDEX IF EXISTS idx_balance_history_account_id;
+
+-- Belépési napló: user_id = ? ORDER BY created_at DESC, id DESC (a (user_id, created_at) szűrést is lefedi)
+DROP INDEX IF EXISTS idx_login_logs_user_created_id;
+CREATE INDEX idx_login_logs_user_created_id ON login_logs (user_id, created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_login_logs_user_id;
+
+-- Kis- és nagybetű-független e-mail keresés (UserRepository lower(email) = lower(?))
+CREATE INDEX IF NOT EXISTS idx_users_email_lower ON users (lower(email));
+
+-- Admin ticket-sor: csak a nyitott ticketek, legújabb elöl
+CREATE INDEX IF NOT EXISTS idx_support_tickets_open_created_at ON support_tickets (created_at DESC) WHERE status = 'OPEN';
+
+-- Write-behind relay: csak a még ki nem írt sorok kerülnek az indexbe
+DROP INDEX IF EXISTS idx_transactions_history_pending;
+CREATE INDEX idx_transactions_history_pending ON transactions (created_at, id) WHERE history_pending;
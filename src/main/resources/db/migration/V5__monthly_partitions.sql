@@ -0,0 +1,98 @@
+-- Havi range particionálás created_at szerint a csak hozzáfűzött balance_history és login_logs táblákon.
+-- A partíciók határai UTC hónapkezdetek; a jövőbeli partíciókat a PartitionMaintenance hozza létre előre,
+-- a DEFAULT partíció csak biztonsági háló (üresen kell maradnia).
+-- A transactions nem particionált: a transaction_categories FK-ja és az id szerinti elérések minden partíciót érintenének.
+-- Nagy táblán a sorok átmásolása miatt karbantartási ablakban futtassuk.
+
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent regclass, month date) RETURNS text
+LANGUAGE plpgsql AS $$
+DECLARE
+    first_day date := date_trunc('month', month)::date;
+    partition_name text := format('%s_p%s', parent::text, to_char(first_day, 'YYYY_MM'));
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %s FOR VALUES FROM (%L) TO (%L)',
+            partition_name, parent,
+            first_day::timestamp AT TIME ZONE 'UTC',
+            (first_day + interval '1 month')::timestamp AT TIME ZONE 'UTC');
+    RETURN partition_name;
+END
+$$;
+
+-- balance_history
+
+ALTER TABLE balance_history RENAME TO balance_history_unpartitioned;
+ALTER TABLE balance_history_unpartitioned DROP CONSTRAINT balance_history_pkey;
+DROP INDEX IF EXISTS idx_balance_history_account_created_id;
+DROP INDEX IF EXISTS idx_balance_history_created_at;
+ALTER SEQUENCE balance_history_id_seq OWNED BY NONE;
+
+CREATE TABLE balance_history (
+    id bigint DEFAULT nextval('balance_history_id_seq') NOT NULL,
+    account_id bigint NOT NULL,
+    balance numeric(18,2) NOT NULL,
+    created_at timestamptz DEFAULT now() NOT NULL,
+    CONSTRAINT balance_history_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_balance_history_account FOREIGN KEY (account_id) REFERENCES accounts (id) ON DELETE CASCADE
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE balance_history_id_seq OWNED BY balance_history.id;
+CREATE TABLE balance_history_default PARTITION OF balance_history DEFAULT;
+
+-- login_logs
+
+ALTER TABLE login_logs RENAME TO login_logs_unpartitioned;
+ALTER TABLE login_logs_unpartitioned DROP CONSTRAINT login_logs_pkey;
+DROP INDEX IF EXISTS idx_login_logs_user_created_id;
+DROP INDEX IF EXISTS idx_login_logs_created_at;
+ALTER SEQUENCE login_logs_id_seq OWNED BY NONE;
+
+CREATE TABLE login_logs (
+    id bigint DEFAULT nextval('login_logs_id_seq') NOT NULL,
+    user_id bigint NOT NULL,
+    ip_address varchar(45),
+    user_agent text,
+    failure_reason varchar(255),
+    created_at timestamptz DEFAULT now() NOT NULL,
+    status varchar(20) NOT NULL,
+    CONSTRAINT login_logs_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT login_logs_status_check CHECK (status IN ('SUCCESS', 'FAILED')),
+    CONSTRAINT fk_login_logs_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE login_logs_id_seq OWNED BY login_logs.id;
+CREATE TABLE login_logs_default PARTITION OF login_logs DEFAULT;
+
+-- Partíciók a meglévő adatok első hónapjától a következő 3 hónapig, majd az adatok átmásolása
+
+DO $$
+DECLARE
+    parent text;
+    oldest date;
+    month date;
+BEGIN
+    FOREACH parent IN ARRAY ARRAY['balance_history', 'login_logs'] LOOP
+        EXECUTE format('SELECT date_trunc(''month'', min(created_at) AT TIME ZONE ''UTC'')::date FROM %I', parent || '_unpartitioned')
+            INTO oldest;
+        month := least(coalesce(oldest, current_date), date_trunc('month', now() AT TIME ZONE 'UTC')::date);
+        WHILE month <= (now() AT TIME ZONE 'UTC')::date + interval '3 months' LOOP
+            PERFORM create_monthly_partition(parent::regclass, month);
+            month := month + interval '1 month';
+        END LOOP;
+    END LOOP;
+END
+$$;
+
+INSERT INTO balance_history (id, account_id, balance, created_at)
+SELECT id, account_id, balance, created_at FROM balance_history_unpartitioned;
+DROP TABLE balance_history_unpartitioned;
+
+INSERT INTO login_logs (id, user_id, ip_address, user_agent, failure_reason, created_at, status)
+SELECT id, user_id, ip_address, user_agent, failure_reason, created_at, status FROM login_logs_unpartitioned;
+DROP TABLE login_logs_unpartitioned;
+
+-- A szülőn létrehozott index minden (jövőbeli) partícióra is érvényes
+
+CREATE INDEX idx_balance_history_account_created_id ON balance_history (account_id, created_at, id);
+CREATE INDEX idx_balance_history_created_at ON balance_history (created_at);
+CREATE INDEX idx_login_logs_user_created_id ON login_logs (user_id, created_at DESC, id DESC);
+CREATE INDEX idx_login_logs_created_at ON login_logs (created_at);
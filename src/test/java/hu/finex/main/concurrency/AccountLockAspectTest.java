@@ -0,0 +1,82 @@
+package hu.finex.main.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.CannotAcquireLockException;
+
+import hu.finex.main.concurrency.AccountLockManager.Held;
+import hu.finex.main.concurrency.AccountLockManager.Key;
+
+class AccountLockAspectTest {
+
+    private AccountLockManager manager;
+    private Held held;
+    private TransferOperation target;
+    private TransferOperation proxy;
+
+    @BeforeEach
+    void setUp() {
+        manager = mock(AccountLockManager.class);
+        held = mock(Held.class);
+        when(manager.acquire(anyString(), anyList())).thenReturn(held);
+
+        target = spy(new TransferOperation());
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new AccountLockAspect(manager, new AccountKeyResolver()));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    void serialize_shouldLockAllAccountsAroundCall() {
+        assertEquals("ok", proxy.move(1L, 2L, 3L));
+
+        InOrder order = inOrder(manager, target, held);
+        order.verify(manager).acquire("move", List.of(Key.account(1L), Key.account(2L), Key.savings(3L)));
+        order.verify(target).move(1L, 2L, 3L);
+        order.verify(held).close();
+    }
+
+    @Test
+    void serialize_shouldSkipNullIds() {
+        proxy.move(1L, null, null);
+
+        verify(manager).acquire("move", List.of(Key.account(1L)));
+    }
+
+    @Test
+    void serialize_shouldRelease_whenCallFails() {
+        assertThrows(IllegalStateException.class, () -> proxy.move(-1L, 2L, null));
+
+        verify(held).close();
+    }
+
+    @Test
+    void serialize_shouldNotCallTarget_whenLockTimesOut() {
+        when(manager.acquire(eq("move"), anyList()))
+                .thenThrow(new CannotAcquireLockException("timeout"));
+
+        assertThrows(CannotAcquireLockException.class, () -> proxy.move(1L, 2L, null));
+
+        verify(target, never()).move(anyLong(), anyLong(), any());
+    }
+
+    static class TransferOperation {
+
+        @SerializedPerAccount(value = "move", accounts = {"#from", "#to"}, savingsAccounts = "#savingsId")
+        public String move(Long from, Long to, Long savingsId) {
+            if (from < 0) {
+                throw new IllegalStateException("boom");
+            }
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package hu.finex.main.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import hu.finex.main.concurrency.AccountLockManager.Held;
+import hu.finex.main.concurrency.AccountLockManager.Key;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AccountLockManagerTest {
+
+    private SimpleMeterRegistry registry;
+    private AccountLockManager manager;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        manager = new AccountLockManager(registry, true, 1024, 50);
+    }
+
+    @Test
+    void acquire_shouldTimeOut_whenSameAccountHeldByOtherThread() throws Exception {
+        try (Held held = manager.acquire("transfer", List.of(Key.account(1L)))) {
+            CompletableFuture<Throwable> other = CompletableFuture.supplyAsync(() -> {
+                try (Held h = manager.acquire("transfer", List.of(Key.account(1L)))) {
+                    return null;
+                } catch (RuntimeException ex) {
+                    return ex;
+                }
+            });
+
+            assertInstanceOf(CannotAcquireLockException.class, other.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1.0, registry.get(AccountLockManager.TIMEOUT_METRIC).tag("operation", "transfer").counter().count());
+    }
+
+    @Test
+    void acquire_shouldLetOtherThreadIn_afterRelease() throws Exception {
+        Held held = manager.acquire("deposit", List.of(Key.account(1L)));
+        held.close();
+
+        CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(() -> {
+            try (Held h = manager.acquire("deposit", List.of(Key.account(1L)))) {
+                return true;
+            }
+        });
+
+        assertTrue(other.get(5, TimeUnit.SECONDS));
+        assertEquals(2, registry.get(AccountLockManager.WAIT_METRIC).tag("operation", "deposit").timer().count());
+    }
+
+    @Test
+    void acquire_shouldNotBlock_otherStripes() throws Exception {
+        Key first = Key.account(1L);
+        Key second = Key.account(2L);
+        assertNotEquals(manager.stripeIndex(first), manager.stripeIndex(second));
+
+        try (Held held = manager.acquire("transfer", List.of(first))) {
+            CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(() -> {
+                try (Held h = manager.acquire("transfer", List.of(second))) {
+                    return true;
+                }
+            });
+
+            assertTrue(other.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void acquire_shouldHoldStripesUntilOuterTransactionCompletes() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            manager.acquire("deposit", List.of(Key.account(1L))).close();
+
+            assertInstanceOf(CannotAcquireLockException.class, acquireOnOtherThread(Key.account(1L)));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(acquireOnOtherThread(Key.account(1L)));
+        assertFalse(TransactionSynchronizationManager.hasResource(manager));
+    }
+
+    @Test
+    void acquire_shouldNotWait_whenOuterTransactionAlreadyHoldsStripes() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            try (Held h = manager.acquire("transfer", List.of(Key.account(2L)))) {
+                locked.countDown();
+                done.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            manager.acquire("deposit", List.of(Key.account(1L)));
+            // Ugyanaz a csík újra: reentráns, nem számít várakozásnak
+            manager.acquire("deposit", List.of(Key.account(1L)));
+
+            CannotAcquireLockException ex = assertThrows(CannotAcquireLockException.class,
+                    () -> manager.acquire("deposit", List.of(Key.account(2L))));
+            assertTrue(ex.getMessage().contains("futó tranzakción belül"));
+            assertEquals(0.0, registry.find(AccountLockManager.TIMEOUT_METRIC).counters().stream()
+                    .mapToDouble(c -> c.count()).sum());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            done.countDown();
+        }
+        holder.get(5, TimeUnit.SECONDS);
+
+        assertNull(acquireOnOtherThread(Key.account(1L)));
+    }
+
+    private Throwable acquireOnOtherThread(Key key) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Held h = manager.acquire("deposit", List.of(key))) {
+                return (Throwable) null;
+            } catch (RuntimeException ex) {
+                return ex;
+            }
+        }).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void acquire_shouldSeparateAccountAndSavingsIdSpaces() {
+        assertNotEquals(Key.account(7L), Key.savings(7L));
+    }
+
+    @Test
+    void acquire_shouldHandleDuplicateKeys_andReentry() {
+        try (Held outer = manager.acquire("transfer", List.of(Key.account(3L), Key.account(3L)))) {
+            try (Held inner = manager.acquire("deposit", List.of(Key.account(3L)))) {
+                assertNotNull(inner);
+            }
+        }
+
+        assertEquals(0.0, registry.get(AccountLockManager.QUEUED_METRIC).gauge().value());
+    }
+
+    @Test
+    void acquire_shouldBeNoop_whenDisabled() throws Exception {
+        AccountLockManager disabled = new AccountLockManager(registry, false, 16, 50);
+
+        try (Held held = disabled.acquire("transfer", List.of(Key.account(1L)))) {
+            CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(() -> {
+                try (Held h = disabled.acquire("transfer", List.of(Key.account(1L)))) {
+                    return true;
+                }
+            });
+
+            assertTrue(other.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void stripes_shouldRoundUpToPowerOfTwo() {
+        assertEquals(1024, new AccountLockManager(new SimpleMeterRegistry(), true, 1000, 50).stripeCount());
+        assertEquals(1, new AccountLockManager(new SimpleMeterRegistry(), true, 0, 50).stripeCount());
+    }
+}
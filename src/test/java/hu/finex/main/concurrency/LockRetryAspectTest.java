@@ -0,0 +1,105 @@
+package hu.finex.main.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LockRetryAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private FlakyOperation target;
+    private FlakyOperation proxy;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        target = new FlakyOperation();
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new LockRetryAspect(registry, 3, 0));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    void retry_shouldRecover_whenLockFailureIsTransient() {
+        target.failuresLeft = 2;
+
+        assertEquals("ok", proxy.run());
+
+        assertEquals(3, target.calls.get());
+        assertEquals(2.0, count("conflict"));
+        assertEquals(1.0, count("recovered"));
+        assertEquals(0.0, count("exhausted"));
+    }
+
+    @Test
+    void retry_shouldRecover_whenOptimisticVersionConflict() {
+        target.failuresLeft = 1;
+        target.transientFailure = new ObjectOptimisticLockingFailureException(Object.class, 1L);
+
+        assertEquals("ok", proxy.run());
+
+        assertEquals(2, target.calls.get());
+        assertEquals(1.0, count("conflict", "optimistic"));
+        assertEquals(1.0, count("recovered", "optimistic"));
+    }
+
+    @Test
+    void retry_shouldRethrow_whenAttemptsExhausted() {
+        target.failuresLeft = 5;
+
+        assertThrows(CannotAcquireLockException.class, () -> proxy.run());
+
+        assertEquals(3, target.calls.get());
+        assertEquals(3.0, count("conflict"));
+        assertEquals(1.0, count("exhausted"));
+    }
+
+    @Test
+    void retry_shouldNotRetry_otherExceptions() {
+        target.failWith = new IllegalStateException("boom");
+
+        assertThrows(IllegalStateException.class, () -> proxy.run());
+
+        assertEquals(1, target.calls.get());
+        assertEquals(0.0, count("conflict"));
+    }
+
+    private double count(String outcome) {
+        return count(outcome, "pessimistic");
+    }
+
+    private double count(String outcome, String type) {
+        var counter = registry.find(LockRetryAspect.METRIC_NAME)
+                .tags("operation", "flaky", "outcome", outcome, "type", type)
+                .counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+
+    static class FlakyOperation {
+        final AtomicInteger calls = new AtomicInteger();
+        int failuresLeft;
+        RuntimeException transientFailure = new CannotAcquireLockException("locked");
+        RuntimeException failWith;
+
+        @RetryOnLockFailure("flaky")
+        public String run() {
+            calls.incrementAndGet();
+            if (failWith != null) {
+                throw failWith;
+            }
+            if (failuresLeft-- > 0) {
+                throw transientFailure;
+            }
+            return "ok";
+        }
+    }
+}
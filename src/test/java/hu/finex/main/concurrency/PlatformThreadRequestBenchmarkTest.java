@@ -0,0 +1,14 @@
+package hu.finex.main.concurrency;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.context.TestPropertySource;
+
+@EnabledIfSystemProperty(named = "finex.benchmark", matches = "true")
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadRequestBenchmarkTest extends RequestConcurrencyBenchmark {
+
+    @Override
+    protected String mode() {
+        return "platform";
+    }
+}
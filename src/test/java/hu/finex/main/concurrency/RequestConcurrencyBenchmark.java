@@ -0,0 +1,116 @@
+package hu.finex.main.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import hu.finex.main.model.Account;
+import hu.finex.main.model.User;
+import hu.finex.main.model.enums.AccountStatus;
+import hu.finex.main.model.enums.AccountType;
+import hu.finex.main.repository.AccountRepository;
+import hu.finex.main.repository.PostgresRepositoryTestBase;
+import hu.finex.main.repository.UserRepository;
+import hu.finex.main.security.JwtTokenUtil;
+
+// Terheléses összehasonlítás: 2000 egyidejű kliens egy JDBC-n blokkoló olvasó végpontot hív (balance history szelet).
+// A két leszármazott csak a spring.threads.virtual.enabled értékében tér el; áteresztés és késleltetés-percentilisek a konzolra.
+// Alapból kimarad; futtatás: mvn test -Dfinex.benchmark=true -Dtest='*ThreadRequestBenchmarkTest' (a virtuális szálas JDK 21+ alatt)
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+abstract class RequestConcurrencyBenchmark extends PostgresRepositoryTestBase {
+
+    private static final int CLIENTS = 2000;
+    private static final int REQUESTS_PER_CLIENT = 10;
+
+    @LocalServerPort private int port;
+
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtTokenUtil jwtTokenUtil;
+
+    protected abstract String mode();
+
+    @Test
+    void concurrentBlockingReads() throws Exception {
+        User user = userRepository.save(User.builder()
+                .firstName("Bench")
+                .lastName("User")
+                .email(mode() + "@threads-bench.hu")
+                .phone("000")
+                .passwordHash("HASH")
+                .role("USER")
+                .build());
+        Account account = accountRepository.save(Account.builder()
+                .user(user)
+                .accountNumber(mode() + "-THREADS-BENCH")
+                .balance(BigDecimal.ZERO)
+                .currency("HUF")
+                .accountType(AccountType.CURRENT)
+                .status(AccountStatus.ACTIVE)
+                .build());
+
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/balance-history/account/" + account.getId() + "/slice"))
+                .header("Authorization", "Bearer " + jwtTokenUtil.generateToken(user))
+                .timeout(Duration.ofMinutes(2))
+                .build();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+        // Legfeljebb CLIENTS kérés van egyszerre úton; a kliens oldal aszinkron, nem szálanként blokkol
+        int total = CLIENTS * REQUESTS_PER_CLIENT;
+        Semaphore inFlight = new Semaphore(CLIENTS);
+        long[] latencies = new long[total];
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(total);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            int slot = i;
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        latencies[slot] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        inFlight.release();
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.MINUTES);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Arrays.sort(latencies);
+        System.out.printf("[threads-benchmark] mode=%s clients=%d requests=%d failures=%d elapsed=%dms throughput=%.0f/s "
+                        + "p50=%dms p99=%dms p999=%dms max=%dms%n",
+                mode(), CLIENTS, total, failures.get(), elapsedMs, total * 1000.0 / Math.max(1, elapsedMs),
+                percentileMs(latencies, 0.50), percentileMs(latencies, 0.99), percentileMs(latencies, 0.999),
+                TimeUnit.NANOSECONDS.toMillis(latencies[total - 1]));
+
+        assertEquals(0, failures.get());
+    }
+
+    private static long percentileMs(long[] sorted, double percentile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+    }
+}
@@ -0,0 +1,28 @@
+package hu.finex.main.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VirtualThreadPinningMonitorTest {
+
+    @Test
+    void record_shouldMeasurePinnedDuration() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, Duration.ofMillis(20), 8);
+
+        monitor.record(Duration.ofMillis(35), "42", List.of("hu.finex.main.Foo.bar:10"));
+        monitor.record(Duration.ofMillis(25), "43", List.of());
+
+        Timer timer = registry.get(VirtualThreadPinningMonitor.PINNED_METRIC).timer();
+        assertEquals(2, timer.count());
+        assertEquals(60, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+}
@@ -0,0 +1,17 @@
+package hu.finex.main.concurrency;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.TestPropertySource;
+
+@EnabledIfSystemProperty(named = "finex.benchmark", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadRequestBenchmarkTest extends RequestConcurrencyBenchmark {
+
+    @Override
+    protected String mode() {
+        return "virtual";
+    }
+}
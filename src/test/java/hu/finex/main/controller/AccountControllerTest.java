@@ -2,6 +2,7 @@ package hu.finex.main.controller;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -22,6 +23,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -38,6 +40,8 @@ import hu.finex.main.model.User;
 import hu.finex.main.model.enums.AccountStatus;
 import hu.finex.main.model.enums.AccountType;
 import hu.finex.main.repository.UserRepository;
+import hu.finex.main.security.AuthenticatedUser;
+import hu.finex.main.security.CurrentUser;
 import hu.finex.main.service.AccountService;
 
 @WebMvcTest(
@@ -49,6 +53,7 @@ import hu.finex.main.service.AccountService;
 	    }
 	)
 	@AutoConfigureMockMvc(addFilters = false)
+@Import(CurrentUser.class)
 
 @ActiveProfiles("test")
 class AccountControllerTest {
@@ -112,6 +117,18 @@ class AccountControllerTest {
         mockMvc.perform(get("/accounts/me").principal(principal)).andExpect(status().isOk()).andExpect(jsonPath("$.id").value(99));
     }
 
+    @Test
+    void getMyAccount_shouldUseTokenUserId_withoutUserLookup() throws Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(1L, "me@finex.hu", "USER");
+
+        AccountResponse resp = AccountResponse.builder().id(99L).userId(1L).build();
+        when(accountService.getMyAccount(1L)).thenReturn(resp);
+
+        mockMvc.perform(get("/accounts/me").principal(principal)).andExpect(status().isOk()).andExpect(jsonPath("$.id").value(99));
+
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void getMyAccount_shouldReturn404_whenUserMissing() throws Exception {
         Principal principal = () -> "missing@finex.hu";
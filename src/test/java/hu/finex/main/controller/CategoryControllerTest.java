@@ -26,6 +26,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import hu.finex.main.dto.CategoryResponse;
 import hu.finex.main.dto.CreateCategoryRequest;
+import hu.finex.main.service.CategoryCatalog;
 import hu.finex.main.service.CategoryService;
 
 @ActiveProfiles("test")
@@ -101,17 +102,41 @@ class CategoryControllerTest {
 
     @Test
     void listAll_shouldReturn200_andList() throws Exception {
-        when(categoryService.listAll()).thenReturn(List.of(
-                CategoryResponse.builder().id(1L).name("Food").icon("🍕").build(),
-                CategoryResponse.builder().id(2L).name("Transport").icon("🚗").build()
-        ));
+        CategoryCatalog.Snapshot catalog = catalog();
+        when(categoryService.catalog()).thenReturn(catalog);
 
         mockMvc.perform(get("/categories"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", catalog.etag()))
+                .andExpect(header().string("Cache-Control", "no-cache"))
                 .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value("Food"))
-                .andExpect(jsonPath("$[1].name").value("Transport"));
+                .andExpect(jsonPath("$[1].name").value("Transport"))
+                .andExpect(jsonPath("$[1].icon").value("🚗"));
+    }
+
+    @Test
+    void listAll_shouldReturn304_whenIfNoneMatchEqualsEtag() throws Exception {
+        CategoryCatalog.Snapshot catalog = catalog();
+        when(categoryService.catalog()).thenReturn(catalog);
+
+        mockMvc.perform(get("/categories").header("If-None-Match", catalog.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", catalog.etag()))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/categories").header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    private CategoryCatalog.Snapshot catalog() {
+        return CategoryCatalog.Snapshot.of(1, List.of(
+                new CategoryCatalog.Entry(1L, "Food", "🍕"),
+                new CategoryCatalog.Entry(2L, "Transport", "🚗")
+        ), objectMapper);
     }
 
     @Test
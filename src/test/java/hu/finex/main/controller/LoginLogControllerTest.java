@@ -27,6 +27,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import hu.finex.main.dto.LoginLogListItemResponse;
 import hu.finex.main.dto.LoginLogResponse;
+import hu.finex.main.dto.SliceResponse;
 import hu.finex.main.model.enums.LoginStatus;
 import hu.finex.main.service.LoginLogService;
 
@@ -98,6 +99,23 @@ class LoginLogControllerTest {
                 .andExpect(jsonPath("$.content[1].status").value("FAILED"));
     }
 
+    @Test
+    void listByUserSlice_shouldReturn200_withDefaultSize() throws Exception {
+        SliceResponse<LoginLogListItemResponse> slice = SliceResponse.<LoginLogListItemResponse>builder()
+                .content(List.of(LoginLogListItemResponse.builder().status(LoginStatus.SUCCESS).ipAddress("10.0.0.1").build()))
+                .size(1)
+                .hasNext(false)
+                .build();
+
+        when(loginLogService.listByUserSlice(eq(12L), eq(null), eq(20))).thenReturn(slice);
+
+        mockMvc.perform(get("/login-logs/user/12/slice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].ipAddress").value("10.0.0.1"))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
     @Test
     void listByStatus_shouldReturn200_andPage() throws Exception {
         List<LoginLogListItemResponse> items = List.of(
@@ -33,6 +33,7 @@ import hu.finex.main.dto.CreateSupportTicketRequest;
 import hu.finex.main.dto.SupportTicketResponse;
 import hu.finex.main.dto.UpdateSupportTicketStatusRequest;
 import hu.finex.main.model.enums.TicketStatus;
+import hu.finex.main.security.CurrentUser;
 import hu.finex.main.service.SupportTicketService;
 
 @ActiveProfiles("test")
@@ -50,6 +51,7 @@ class SupportTicketControllerTest {
     @Autowired ObjectMapper objectMapper;
 
     @MockBean SupportTicketService supportTicketService;
+    @MockBean CurrentUser currentUser;
 
     private SupportTicketResponse sampleTicket() {
         return SupportTicketResponse.builder()
@@ -72,7 +74,8 @@ class SupportTicketControllerTest {
                 .message("Az utalásom nem érkezett meg...")
                 .build();
 
-        when(supportTicketService.create(any(CreateSupportTicketRequest.class), any(Principal.class)))
+        when(currentUser.requireId(principal)).thenReturn(42L);
+        when(supportTicketService.create(any(CreateSupportTicketRequest.class), eq(42L)))
                 .thenReturn(sampleTicket());
 
         mockMvc.perform(post("/support-tickets")
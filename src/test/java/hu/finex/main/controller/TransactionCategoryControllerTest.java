@@ -62,6 +62,32 @@ class TransactionCategoryControllerTest {
                 .andExpect(jsonPath("$.categoryIcon").value("🍔"));
     }
 
+    @Test
+    void assignAll_shouldReturn200_andList() throws Exception {
+        List<TransactionCategoryResponse> resp = List.of(
+                TransactionCategoryResponse.builder().id(121L).transactionId(5012L).categoryId(3L).build(),
+                TransactionCategoryResponse.builder().id(122L).transactionId(5012L).categoryId(7L).build()
+        );
+
+        when(service.assignCategories(eq(5012L), eq(List.of(3L, 7L)))).thenReturn(resp);
+
+        mockMvc.perform(post("/transaction-categories/5012/assign")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryIds\":[3,7]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].categoryId").value(3))
+                .andExpect(jsonPath("$[1].categoryId").value(7));
+    }
+
+    @Test
+    void assignAll_shouldReturn400_whenCategoryIdsEmpty() throws Exception {
+        mockMvc.perform(post("/transaction-categories/5012/assign")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryIds\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void listByTransaction_shouldReturn200_andList() throws Exception {
         List<TransactionCategoryListItemResponse> list = List.of(
@@ -2,12 +2,18 @@ package hu.finex.main.controller;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 
@@ -25,17 +31,23 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import hu.finex.main.dto.CategoryResponse;
 import hu.finex.main.dto.CreateTransactionRequest;
+import hu.finex.main.dto.SliceResponse;
 import hu.finex.main.dto.TransactionListItemResponse;
 import hu.finex.main.dto.TransactionResponse;
 import hu.finex.main.dto.TransferRequest;
 import hu.finex.main.dto.TransferResponse;
+import hu.finex.main.exception.NotFoundException;
+import hu.finex.main.export.ExportFormat;
 import hu.finex.main.model.enums.TransactionType;
+import hu.finex.main.service.TransactionExportService;
 import hu.finex.main.service.TransactionService;
+import hu.finex.main.sqlbudget.SqlBudgetResponseAdvice;
 
 @ActiveProfiles("test")
 @WebMvcTest(
@@ -52,6 +64,7 @@ class TransactionControllerTest {
     @Autowired ObjectMapper objectMapper;
 
     @MockBean TransactionService transactionService;
+    @MockBean TransactionExportService transactionExportService;
 
     @Test
     void create_shouldReturn200_andBody() throws Exception {
@@ -119,7 +132,10 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.id").value(5012))
                 .andExpect(jsonPath("$.type").value("OUTCOME"))
                 .andExpect(jsonPath("$.amount").value(7500.00))
-                .andExpect(jsonPath("$.message").value("Kávézó"));
+                .andExpect(jsonPath("$.message").value("Kávézó"))
+                // Mockolt service: a kérés nem futtat SQL-t, de a mérés és a fejlécek élnek
+                .andExpect(header().string(SqlBudgetResponseAdvice.STATEMENTS_HEADER, "0"))
+                .andExpect(header().string(SqlBudgetResponseAdvice.SERVER_TIMING_HEADER, "sql;desc=\"0 statements\""));
     }
 
     @Test
@@ -159,6 +175,72 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.content[1].id").value(5013));
     }
 
+    @Test
+    void listByAccountSlice_shouldReturn200_andNextCursor() throws Exception {
+        TransactionListItemResponse item = TransactionListItemResponse.builder()
+                .id(5012L)
+                .type(TransactionType.OUTCOME)
+                .amount(new BigDecimal("7500.00"))
+                .currency("HUF")
+                .createdAt(Instant.parse("2025-02-15T11:00:15Z"))
+                .build();
+
+        SliceResponse<TransactionListItemResponse> slice = SliceResponse.<TransactionListItemResponse>builder()
+                .content(List.of(item))
+                .size(1)
+                .hasNext(true)
+                .nextCursor("abc")
+                .build();
+
+        when(transactionService.listByAccountSlice(eq(102L), eq("prev"), eq(1))).thenReturn(slice);
+
+        mockMvc.perform(get("/transactions/account/102/slice")
+                        .param("cursor", "prev")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(5012))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("abc"));
+    }
+
+    @Test
+    void export_shouldStreamCsvAttachment() throws Exception {
+        when(transactionExportService.export(eq(102L), eq(ExportFormat.CSV), any())).thenAnswer(inv -> {
+            OutputStream out = inv.getArgument(2);
+            out.write("id\n1\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/transactions/account/102/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions-102.csv\""))
+                .andExpect(content().string("id\n1\n"));
+
+        verify(transactionExportService).requireAccount(102L);
+    }
+
+    @Test
+    void export_shouldReturn404_whenAccountMissing() throws Exception {
+        doThrow(new NotFoundException("Számla nem található.")).when(transactionExportService).requireAccount(9L);
+
+        mockMvc.perform(get("/transactions/account/9/export").param("format", "ndjson"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void export_shouldReturn400_whenFormatUnknown() throws Exception {
+        mockMvc.perform(get("/transactions/account/102/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionExportService);
+    }
+
     @Test
     void transfer_shouldReturn200_andBody() throws Exception {
         TransferRequest req = TransferRequest.builder()
@@ -0,0 +1,100 @@
+package hu.finex.main.export;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hu.finex.main.dto.TransactionExportRow;
+import hu.finex.main.model.enums.TransactionType;
+
+class TransactionExportWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TransactionExportWriter writer = new TransactionExportWriter(objectMapper);
+
+    @Test
+    void csv_shouldGroupCategoriesPerTransaction() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = writer.write(rows().iterator(), ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(3, lines.length);
+        assertEquals(TransactionExportWriter.CSV_HEADER, lines[0]);
+        assertEquals("1,OUTCOME,7500.00,HUF,\"Kávé, sütemény\",,,2025-02-15T11:00:15Z,Food;Fun", lines[1]);
+        assertEquals("2,INCOME,300000.00,HUF,\"Fizetés \"\"február\"\"\",,HU1010,2025-02-16T08:00:00Z,", lines[2]);
+    }
+
+    @Test
+    void ndjson_shouldWriteOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = writer.write(rows().iterator(), ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("OUTCOME", first.get("type").asText());
+        assertTrue(lines[0].contains("\"amount\":7500.00"));
+        assertEquals("Food", first.get("categories").get(0).asText());
+        assertEquals("Fun", first.get("categories").get(1).asText());
+
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(2, second.get("id").asLong());
+        assertTrue(second.get("categories").isEmpty());
+        assertTrue(second.get("fromAccount").isNull());
+    }
+
+    @Test
+    void write_shouldOnlyWriteHeader_whenNoRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = writer.write(List.<TransactionExportRow>of().iterator(), ExportFormat.CSV, out);
+
+        assertEquals(0, count);
+        assertEquals(TransactionExportWriter.CSV_HEADER + "\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void csv_shouldLeavePlainValuesUnquoted() {
+        assertEquals("", TransactionExportWriter.csv(null));
+        assertEquals("Food", TransactionExportWriter.csv("Food"));
+        assertEquals("\"a\nb\"", TransactionExportWriter.csv("a\nb"));
+    }
+
+    private List<TransactionExportRow> rows() {
+        Instant first = Instant.parse("2025-02-15T11:00:15Z");
+        Instant second = Instant.parse("2025-02-16T08:00:00Z");
+        return List.of(
+                row(1L, TransactionType.OUTCOME, "7500.00", "Kávé, sütemény", null, first, "Food"),
+                row(1L, TransactionType.OUTCOME, "7500.00", "Kávé, sütemény", null, first, "Fun"),
+                row(2L, TransactionType.INCOME, "300000.00", "Fizetés \"február\"", "HU1010", second, null));
+    }
+
+    private TransactionExportRow row(Long id, TransactionType type, String amount, String message,
+                                     String toAccount, Instant createdAt, String category) {
+        return TransactionExportRow.builder()
+                .id(id)
+                .type(type)
+                .amount(new BigDecimal(amount))
+                .currency("HUF")
+                .message(message)
+                .toAccount(toAccount)
+                .createdAt(createdAt)
+                .categoryName(category)
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package hu.finex.main.history;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import hu.finex.main.mapper.BalanceHistoryMapper;
+import hu.finex.main.model.Account;
+import hu.finex.main.model.BalanceHistory;
+import hu.finex.main.model.Transaction;
+import hu.finex.main.repository.BalanceHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceHistoryOutboxTest {
+
+    @Mock private BalanceHistoryRepository balanceHistoryRepository;
+    @Mock private BalanceHistoryMapper balanceHistoryMapper;
+    @Mock private BalanceHistoryRelay relay;
+
+    private SimpleMeterRegistry registry;
+    private Account account;
+    private Transaction tx;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        account = Account.builder().id(1L).balance(new BigDecimal("120.00")).build();
+        tx = Transaction.builder().account(account).build();
+    }
+
+    @Test
+    void record_shouldMarkTransaction_andSignalRelay_whenWriteBehindAccepting() {
+        when(relay.accepting()).thenReturn(true);
+
+        outbox(Optional.of(relay)).record(tx, account);
+
+        assertTrue(tx.isHistoryPending());
+        assertEquals(new BigDecimal("120.00"), tx.getBalanceAfter());
+        verify(relay).signal();
+        verifyNoInteractions(balanceHistoryRepository, balanceHistoryMapper);
+        assertEquals(0.0, syncWrites());
+    }
+
+    @Test
+    void record_shouldInsertSynchronously_whenRelayIsSaturated() {
+        when(relay.accepting()).thenReturn(false);
+        BalanceHistory history = BalanceHistory.builder().account(account).balance(account.getBalance()).build();
+        when(balanceHistoryMapper.toEntity(account, new BigDecimal("120.00"))).thenReturn(history);
+
+        outbox(Optional.of(relay)).record(tx, account);
+
+        assertFalse(tx.isHistoryPending());
+        assertNull(tx.getBalanceAfter());
+        verify(balanceHistoryRepository).save(history);
+        verify(relay, never()).signal();
+        assertEquals(1.0, syncWrites());
+    }
+
+    @Test
+    void record_shouldInsertSynchronously_whenWriteBehindDisabled() {
+        BalanceHistory history = BalanceHistory.builder().account(account).balance(account.getBalance()).build();
+        when(balanceHistoryMapper.toEntity(account, new BigDecimal("120.00"))).thenReturn(history);
+
+        outbox(Optional.empty()).record(tx, account);
+
+        assertFalse(tx.isHistoryPending());
+        verify(balanceHistoryRepository).save(history);
+    }
+
+    private BalanceHistoryOutbox outbox(Optional<BalanceHistoryRelay> relay) {
+        return new BalanceHistoryOutbox(balanceHistoryRepository, balanceHistoryMapper, relay, registry);
+    }
+
+    private double syncWrites() {
+        return registry.counter(BalanceHistoryOutbox.SYNC_METRIC).count();
+    }
+}
@@ -0,0 +1,139 @@
+package hu.finex.main.history;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import hu.finex.main.history.BalanceHistoryRelay.PendingSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceHistoryRelayTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushBatch_shouldInsertHistoryRows_andClearPendingFlags_inOneTransaction() {
+        runCallbacksInline();
+        List<PendingSnapshot> pending = List.of(snapshot(11L), snapshot(12L));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(500))).thenReturn(pending);
+
+        int flushed = relay(500, 10).flushBatch();
+
+        assertEquals(2, flushed);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Collection<PendingSnapshot>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(sql.capture(), rows.capture(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        assertTrue(sql.getAllValues().get(0).contains("insert into balance_history"));
+        assertTrue(sql.getAllValues().get(1).contains("set history_pending = false"));
+        assertEquals(pending, rows.getAllValues().get(0));
+        assertEquals(pending, rows.getAllValues().get(1));
+        verify(transactionTemplate).execute(any());
+        assertEquals(2.0, registry.summary(BalanceHistoryRelay.FLUSH_METRIC).totalAmount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushBatch_shouldSkipWrites_whenNothingPending() {
+        runCallbacksInline();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(500))).thenReturn(List.of());
+
+        assertEquals(0, relay(500, 10).flushBatch());
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(0L, registry.summary(BalanceHistoryRelay.FLUSH_METRIC).count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drain_shouldKeepFlushing_whileBatchesAreFull() {
+        runCallbacksInline();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of(snapshot(1L), snapshot(2L)))
+                .thenReturn(List.of(snapshot(3L), snapshot(4L)))
+                .thenReturn(List.of(snapshot(5L)));
+
+        relay(2, 10).drain();
+
+        verify(jdbcTemplate, times(3)).query(anyString(), any(RowMapper.class), eq(2));
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        assertEquals(3L, registry.summary(BalanceHistoryRelay.FLUSH_METRIC).count());
+    }
+
+    @Test
+    void signal_shouldStopAccepting_whenBacklogReachesLimit() {
+        BalanceHistoryRelay relay = relay(500, 2);
+
+        relay.signal();
+        assertTrue(relay.accepting());
+
+        relay.signal();
+        assertFalse(relay.accepting());
+        assertEquals(2.0, registry.get(BalanceHistoryRelay.BACKLOG_METRIC).gauge().value());
+    }
+
+    @Test
+    void refreshBacklog_shouldExposeBacklog_andLagOfOldestPendingSnapshot() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(3L);
+        when(rs.getObject(2, OffsetDateTime.class)).thenReturn(NOW.minusSeconds(4).atOffset(ZoneOffset.UTC));
+        doAnswer(inv -> {
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        BalanceHistoryRelay relay = relay(500, 10);
+        assertEquals(0.0, relay.lagSeconds());
+
+        relay.refreshBacklog();
+
+        assertEquals(3L, relay.backlog());
+        assertEquals(4.0, registry.get(BalanceHistoryRelay.LAG_METRIC).gauge().value());
+    }
+
+    private BalanceHistoryRelay relay(int batchSize, long maxBacklog) {
+        return new BalanceHistoryRelay(jdbcTemplate, transactionTemplate, registry,
+                Clock.fixed(NOW, ZoneOffset.UTC), batchSize, 200, maxBacklog);
+    }
+
+    private void runCallbacksInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private PendingSnapshot snapshot(long transactionId) {
+        return new PendingSnapshot(transactionId, 1L, new BigDecimal("100.00"), NOW.atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,264 @@
+package hu.finex.main.idempotency;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hu.finex.main.dto.DepositRequest;
+import hu.finex.main.dto.SavingsTransferResponse;
+import hu.finex.main.dto.TransferResponse;
+import hu.finex.main.exception.BusinessException;
+import hu.finex.main.exception.ConflictException;
+import hu.finex.main.model.IdempotencyRecord;
+import hu.finex.main.model.enums.IdempotencyStatus;
+import hu.finex.main.security.AuthenticatedUser;
+
+class IdempotencyAspectTest {
+
+    private IdempotencyStore store;
+    private IdempotencyCache cache;
+    private DepositOperation target;
+    private DepositOperation proxy;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        store = mock(IdempotencyStore.class);
+        when(store.claim(anyString(), anyString())).thenReturn(Optional.empty());
+        cache = new IdempotencyCache(Duration.ofHours(1), 100);
+        target = new DepositOperation();
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new IdempotencyAspect(cache, store, new ObjectMapper()));
+        proxy = factory.getProxy();
+
+        request = new MockHttpServletRequest("POST", "/accounts/5/deposit");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void handle_shouldProceed_whenNoHeader() {
+        proxy.deposit(body("100"));
+        proxy.deposit(body("100"));
+
+        assertEquals(2, target.calls.get());
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void handle_shouldReplayFromMemory_onRepeatedKey() {
+        request.addHeader(IdempotencyAspect.HEADER, "k1");
+
+        ResponseEntity<DepositRequest> first = proxy.deposit(body("100"));
+        ResponseEntity<DepositRequest> second = proxy.deposit(body("100"));
+
+        assertEquals(1, target.calls.get());
+        assertEquals(0, second.getBody().getAmount().compareTo(first.getBody().getAmount()));
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyAspect.REPLAYED_HEADER));
+        verify(store, times(1)).claim(eq("deposit:anonymous:k1"), anyString());
+        verify(store).complete(eq("deposit:anonymous:k1"), eq(200), anyString());
+    }
+
+    @Test
+    void handle_shouldReplayFromDatabase_whenNotInMemory() {
+        request.addHeader(IdempotencyAspect.HEADER, "k1");
+        proxy.deposit(body("100"));
+
+        // új példány = üres memória, a DB-ben már lezárt rekord van
+        IdempotencyCache emptyCache = new IdempotencyCache(Duration.ofHours(1), 100);
+        String hash = captureHash();
+        when(store.claim(anyString(), anyString())).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .scopeKey("deposit:anonymous:k1")
+                .requestHash(hash)
+                .status(IdempotencyStatus.COMPLETED)
+                .responseStatus(200)
+                .responseBody("{\"amount\":100,\"message\":\"stored\"}")
+                .build()));
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new IdempotencyAspect(emptyCache, store, new ObjectMapper()));
+        DepositOperation fresh = factory.getProxy();
+
+        ResponseEntity<DepositRequest> replayed = fresh.deposit(body("100"));
+
+        assertEquals(1, target.calls.get());
+        assertEquals("stored", replayed.getBody().getMessage());
+    }
+
+    @Test
+    void handle_shouldReject_whenKeyReusedWithDifferentBody() {
+        request.addHeader(IdempotencyAspect.HEADER, "k1");
+        proxy.deposit(body("100"));
+
+        assertThrows(BusinessException.class, () -> proxy.deposit(body("999")));
+        assertEquals(1, target.calls.get());
+    }
+
+    @Test
+    void handle_shouldConflict_whenSameKeyInProgress() {
+        request.addHeader(IdempotencyAspect.HEADER, "k1");
+        when(store.claim(anyString(), anyString())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThrows(ConflictException.class, () -> proxy.deposit(body("100")));
+        assertEquals(0, target.calls.get());
+    }
+
+    @Test
+    void handle_shouldReleaseKey_whenOperationFails() {
+        request.addHeader(IdempotencyAspect.HEADER, "k1");
+        target.fail = true;
+
+        assertThrows(BusinessException.class, () -> proxy.deposit(body("100")));
+
+        verify(store).release("deposit:anonymous:k1");
+        verify(store, never()).complete(anyString(), anyInt(), anyString());
+    }
+
+    @Test
+    void handle_shouldFitScopeKeyInColumn_withMaxLengthEmailAndKey() {
+        String email = "a".repeat(255 - "@finex.hu".length()) + "@finex.hu";
+        String key = "k".repeat(100);
+        request.addHeader(IdempotencyAspect.HEADER, key);
+
+        authenticate(new AuthenticatedUser(42L, email, "USER"));
+        proxy.deposit(body("100"));
+        verify(store).claim(eq("deposit:42:" + key), anyString());
+
+        // uid claim nélküli (régi) token: az email helyett annak lenyomata kerül a kulcsba
+        authenticate(email);
+        proxy.deposit(body("100"));
+
+        ArgumentCaptor<String> scopeKeys = ArgumentCaptor.forClass(String.class);
+        verify(store, times(2)).claim(scopeKeys.capture(), anyString());
+        for (String scopeKey : scopeKeys.getAllValues()) {
+            assertTrue(scopeKey.length() <= 255, scopeKey);
+            assertFalse(scopeKey.contains(email));
+        }
+        assertEquals(2, target.calls.get());
+    }
+
+    @Test
+    void handle_shouldReplayTransferResponse_withBalances() {
+        request.addHeader(IdempotencyAspect.HEADER, "k1");
+        BalanceOperations operations = new BalanceOperations();
+        BalanceOperations balanceProxy = balanceProxy(operations);
+
+        TransferResponse first = balanceProxy.transfer(body("10")).getBody();
+        ResponseEntity<TransferResponse> replayed = balanceProxy.transfer(body("10"));
+
+        assertEquals(1, operations.calls.get());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyAspect.REPLAYED_HEADER));
+        assertEquals(first.getFromAccountNewBalance(), replayed.getBody().getFromAccountNewBalance());
+        assertEquals(first.getToAccountNewBalance(), replayed.getBody().getToAccountNewBalance());
+        assertEquals(first.getCreatedAt(), replayed.getBody().getCreatedAt());
+    }
+
+    @Test
+    void handle_shouldReplaySavingsTransferResponse_withBalances() {
+        request.addHeader(IdempotencyAspect.HEADER, "k1");
+        BalanceOperations operations = new BalanceOperations();
+        BalanceOperations balanceProxy = balanceProxy(operations);
+
+        SavingsTransferResponse first = balanceProxy.savingsDeposit(body("10")).getBody();
+        ResponseEntity<SavingsTransferResponse> replayed = balanceProxy.savingsDeposit(body("10"));
+
+        assertEquals(1, operations.calls.get());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyAspect.REPLAYED_HEADER));
+        assertEquals(first.getSavingsNewBalance(), replayed.getBody().getSavingsNewBalance());
+        assertEquals(first.getAccountNewBalance(), replayed.getBody().getAccountNewBalance());
+    }
+
+    private BalanceOperations balanceProxy(BalanceOperations operations) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(operations);
+        factory.addAspect(new IdempotencyAspect(cache, store, new ObjectMapper().findAndRegisterModules()));
+        return factory.getProxy();
+    }
+
+    private static void authenticate(Object principal) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    private String captureHash() {
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(store, atLeastOnce()).claim(anyString(), captor.capture());
+        return captor.getValue();
+    }
+
+    private DepositRequest body(String amount) {
+        return DepositRequest.builder().amount(new BigDecimal(amount)).build();
+    }
+
+    static class BalanceOperations {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Idempotent("transfer")
+        public ResponseEntity<TransferResponse> transfer(@RequestBody DepositRequest request) {
+            calls.incrementAndGet();
+            return ResponseEntity.ok(TransferResponse.builder()
+                    .fromAccountId(1L)
+                    .toAccountId(2L)
+                    .amount(request.getAmount())
+                    .currency("HUF")
+                    .fromAccountNewBalance(new BigDecimal("85000.00"))
+                    .toAccountNewBalance(new BigDecimal("120000.50"))
+                    .createdAt(Instant.parse("2025-02-15T13:25:44Z"))
+                    .build());
+        }
+
+        @Idempotent("savings-deposit")
+        public ResponseEntity<SavingsTransferResponse> savingsDeposit(@RequestBody DepositRequest request) {
+            calls.incrementAndGet();
+            return ResponseEntity.ok(SavingsTransferResponse.builder()
+                    .savingsAccountId(5L)
+                    .accountId(3L)
+                    .savingsNewBalance(new BigDecimal("60000.00"))
+                    .accountNewBalance(new BigDecimal("10000.10"))
+                    .createdAt(Instant.parse("2025-02-15T13:25:44Z"))
+                    .build());
+        }
+    }
+
+    static class DepositOperation {
+        final AtomicInteger calls = new AtomicInteger();
+        boolean fail;
+
+        @Idempotent("deposit")
+        public ResponseEntity<DepositRequest> deposit(@RequestBody DepositRequest request) {
+            calls.incrementAndGet();
+            if (fail) {
+                throw new BusinessException("Nincs elegendő fedezet.");
+            }
+            return ResponseEntity.ok(request);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package hu.finex.main.idempotency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+class IdempotencyCacheTest {
+
+    private static final StoredResponse RESPONSE = new StoredResponse("hash", 200, "{}");
+
+    @Test
+    void get_shouldReturnStoredResponse_untilTtlExpires() {
+        MutableClock clock = new MutableClock();
+        IdempotencyCache cache = new IdempotencyCache(clock, Duration.ofMinutes(10), 10);
+
+        cache.put("transfer:a@b.hu:k1", RESPONSE);
+        clock.advance(Duration.ofMinutes(9));
+        assertSame(RESPONSE, cache.get("transfer:a@b.hu:k1"));
+
+        clock.advance(Duration.ofMinutes(2));
+        assertNull(cache.get("transfer:a@b.hu:k1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsed_whenFull() {
+        IdempotencyCache cache = new IdempotencyCache(new MutableClock(), Duration.ofHours(1), 2);
+
+        cache.put("k1", RESPONSE);
+        cache.put("k2", RESPONSE);
+        cache.get("k1");
+        cache.put("k3", RESPONSE);
+
+        assertNotNull(cache.get("k1"));
+        assertNull(cache.get("k2"));
+        assertNotNull(cache.get("k3"));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package hu.finex.main.ledger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import hu.finex.main.model.Account;
+import hu.finex.main.model.User;
+import hu.finex.main.model.enums.AccountStatus;
+import hu.finex.main.model.enums.AccountType;
+import hu.finex.main.repository.AccountRepository;
+import hu.finex.main.repository.PostgresRepositoryTestBase;
+import hu.finex.main.repository.UserRepository;
+import hu.finex.main.service.AccountService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Terheléses összehasonlítás: sok párhuzamos befizetés néhány "forró" számlára.
+// A két leszármazott csak a finex.ledger.mode értékében tér el, az eredmény a konzolra kerül.
+// Alapból kimarad; futtatás: mvn test -Dfinex.benchmark=true -Dtest='*LedgerBenchmarkTest'
+
+@SpringBootTest
+abstract class LedgerThroughputBenchmark extends PostgresRepositoryTestBase {
+
+    private static final int THREADS = 32;
+    private static final int DEPOSITS_PER_THREAD = 200;
+    private static final int HOT_ACCOUNTS = 4;
+
+    @Autowired private AccountService accountService;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+
+    protected abstract String mode();
+
+    @Test
+    void hotAccountDeposits() throws Exception {
+        User user = userRepository.save(User.builder()
+                .firstName("Bench")
+                .lastName("User")
+                .email(mode() + "@bench.hu")
+                .phone("000")
+                .passwordHash("HASH")
+                .role("USER")
+                .build());
+
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            accounts.add(accountRepository.save(Account.builder()
+                    .user(user)
+                    .accountNumber(mode() + "-HOT-" + i)
+                    .balance(BigDecimal.ZERO)
+                    .currency("HUF")
+                    .accountType(AccountType.CURRENT)
+                    .status(AccountStatus.ACTIVE)
+                    .build()));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            Account account = accounts.get(t % HOT_ACCOUNTS);
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                    accountService.deposit(account.getId(), BigDecimal.ONE, "bench", user.getId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        pool.shutdown();
+
+        int total = THREADS * DEPOSITS_PER_THREAD;
+        System.out.printf("[ledger-benchmark] mode=%s deposits=%d elapsed=%dms throughput=%.0f/s%n",
+                mode(), total, elapsedMs, total * 1000.0 / Math.max(1, elapsedMs));
+
+        BigDecimal sum = accounts.stream()
+                .map(a -> accountRepository.findById(a.getId()).orElseThrow().getBalance())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, sum.compareTo(BigDecimal.valueOf(total)));
+    }
+}
@@ -0,0 +1,14 @@
+package hu.finex.main.ledger;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.context.TestPropertySource;
+
+@EnabledIfSystemProperty(named = "finex.benchmark", matches = "true")
+@TestPropertySource(properties = "finex.ledger.mode=row-lock")
+class RowLockLedgerBenchmarkTest extends LedgerThroughputBenchmark {
+
+    @Override
+    protected String mode() {
+        return "row-lock";
+    }
+}
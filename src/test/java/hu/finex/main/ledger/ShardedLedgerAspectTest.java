@@ -0,0 +1,209 @@
+package hu.finex.main.ledger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hu.finex.main.concurrency.AccountKeyResolver;
+import hu.finex.main.concurrency.AccountLockManager.Key;
+import hu.finex.main.concurrency.SerializedPerAccount;
+import hu.finex.main.exception.BusinessException;
+import hu.finex.main.exception.ConflictException;
+import hu.finex.main.exception.OutcomeUncertainException;
+import hu.finex.main.idempotency.Idempotent;
+import hu.finex.main.idempotency.IdempotencyAspect;
+import hu.finex.main.idempotency.IdempotencyCache;
+import hu.finex.main.idempotency.IdempotencyStore;
+import hu.finex.main.model.IdempotencyRecord;
+import hu.finex.main.model.enums.IdempotencyStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ShardedLedgerAspectTest {
+
+    private PlatformTransactionManager transactionManager;
+    private ShardedLedger ledger;
+    private Operations proxy;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        ledger = spy(new ShardedLedger(transactionManager, new SimpleMeterRegistry(), 2, 8, 16, 1000, 5000));
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Operations());
+        factory.addAspect(new ShardedLedgerAspect(ledger, new AccountKeyResolver()));
+        proxy = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.shutdown();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void route_shouldRunSingleShardCommandOnShardThread() {
+        assertEquals("shard", proxy.deposit(1L));
+    }
+
+    @Test
+    void route_shouldRunCrossShardCommandOnCallerThread() throws Throwable {
+        long other = 2L;
+        while (ledger.shardIndex(Key.account(other))
+                == ledger.shardIndex(Key.account(1L))) {
+            other++;
+        }
+
+        assertEquals("caller", proxy.transfer(1L, other));
+        verify(ledger, never()).submit(anyInt(), any());
+    }
+
+    @Test
+    void route_shouldPropagateCommandException() {
+        assertThrows(IllegalStateException.class, () -> proxy.deposit(-1L));
+    }
+
+    @Test
+    void route_shouldNotReExecuteUnderSameIdempotencyKey_whenOutcomeUncertain() throws Exception {
+        IdempotencyStore store = claimingStore();
+        SlowOperations operations = new SlowOperations();
+        DepositEndpoint endpoint = idempotentEndpoint(operations, store);
+
+        assertThrows(OutcomeUncertainException.class, () -> endpoint.deposit(1L));
+        assertTrue(operations.started.await(5, TimeUnit.SECONDS));
+
+        // A shard még dolgozik a parancson: az újraküldés nem futhat le másodszor
+        assertThrows(ConflictException.class, () -> endpoint.deposit(1L));
+        assertEquals(1, operations.runs.get());
+        verify(store, never()).release(anyString());
+
+        // A parancs végül visszagördül: a foglalás felszabadul, az újraküldés ismét lefuthat
+        operations.fail = true;
+        operations.release.countDown();
+        verify(store, timeout(5000)).release("deposit:anonymous:k1");
+
+        operations.fail = false;
+        assertEquals("shard", endpoint.deposit(1L).getBody());
+        assertEquals(2, operations.runs.get());
+    }
+
+    @Test
+    void route_shouldKeepIdempotencyClaim_whenUncertainCommandCommits() throws Throwable {
+        IdempotencyStore store = claimingStore();
+        SlowOperations operations = new SlowOperations();
+        DepositEndpoint endpoint = idempotentEndpoint(operations, store);
+
+        assertThrows(OutcomeUncertainException.class, () -> endpoint.deposit(1L));
+        operations.release.countDown();
+        assertEquals("next", ledger.submit(0, () -> "next"));
+
+        assertThrows(ConflictException.class, () -> endpoint.deposit(1L));
+        assertEquals(1, operations.runs.get());
+        verify(store, never()).release(anyString());
+    }
+
+    // Egy shard, rövid eredmény-várakozás; az IdempotencyAspect a controller-szintű proxyn, a ShardedLedgerAspect a service-en
+    private DepositEndpoint idempotentEndpoint(SlowOperations operations, IdempotencyStore store) {
+        ledger.shutdown();
+        ledger = new ShardedLedger(transactionManager, new SimpleMeterRegistry(), 1, 8, 16, 1000, 200);
+
+        AspectJProxyFactory ledgerFactory = new AspectJProxyFactory(operations);
+        ledgerFactory.addAspect(new ShardedLedgerAspect(ledger, new AccountKeyResolver()));
+        AspectJProxyFactory endpointFactory = new AspectJProxyFactory(new DepositEndpoint(ledgerFactory.getProxy()));
+        endpointFactory.addAspect(new IdempotencyAspect(new IdempotencyCache(Duration.ofHours(1), 100), store, new ObjectMapper()));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/accounts/1/deposit");
+        request.addHeader(IdempotencyAspect.HEADER, "k1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return endpointFactory.getProxy();
+    }
+
+    // A DB-s foglalás memóriabeli megfelelője: az első claim foglal (IN_PROGRESS), a release töröl
+    private static IdempotencyStore claimingStore() {
+        Map<String, IdempotencyRecord> claims = new ConcurrentHashMap<>();
+        IdempotencyStore store = mock(IdempotencyStore.class);
+        when(store.claim(anyString(), anyString())).thenAnswer(inv -> Optional.ofNullable(claims.putIfAbsent(inv.getArgument(0),
+                IdempotencyRecord.builder()
+                        .scopeKey(inv.getArgument(0))
+                        .requestHash(inv.getArgument(1))
+                        .status(IdempotencyStatus.IN_PROGRESS)
+                        .build())));
+        doAnswer(inv -> claims.remove(inv.getArgument(0))).when(store).release(anyString());
+        return store;
+    }
+
+    static class DepositEndpoint {
+        private final SlowOperations operations;
+
+        DepositEndpoint(SlowOperations operations) {
+            this.operations = operations;
+        }
+
+        @Idempotent("deposit")
+        public ResponseEntity<String> deposit(@RequestBody Long accountId) throws InterruptedException {
+            return ResponseEntity.ok(operations.deposit(accountId));
+        }
+    }
+
+    static class SlowOperations {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        volatile boolean fail;
+
+        @SerializedPerAccount(value = "deposit", accounts = "#accountId")
+        @LedgerCommand
+        public String deposit(Long accountId) throws InterruptedException {
+            if (runs.incrementAndGet() == 1) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            if (fail) {
+                throw new BusinessException("Nincs elegendő fedezet.");
+            }
+            return ShardedLedger.onShardThread() ? "shard" : "caller";
+        }
+    }
+
+    static class Operations {
+
+        @SerializedPerAccount(value = "deposit", accounts = "#accountId")
+        @LedgerCommand
+        public String deposit(Long accountId) {
+            if (accountId < 0) {
+                throw new IllegalStateException("boom");
+            }
+            return ShardedLedger.onShardThread() ? "shard" : "caller";
+        }
+
+        @SerializedPerAccount(value = "transfer", accounts = {"#from", "#to"})
+        @LedgerCommand
+        public String transfer(Long from, Long to) {
+            return ShardedLedger.onShardThread() ? "shard" : "caller";
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package hu.finex.main.ledger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import hu.finex.main.concurrency.AccountLockManager.Key;
+import hu.finex.main.exception.BusinessException;
+import hu.finex.main.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ShardedLedgerTest {
+
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry registry;
+    private ShardedLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        registry = new SimpleMeterRegistry();
+        ledger = new ShardedLedger(transactionManager, registry, 4, 16, 64, 1000, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.shutdown();
+    }
+
+    @Test
+    void shardFor_shouldBeEmpty_whenAccountsOnDifferentShards() {
+        Key first = Key.account(1L);
+        Key other = findKeyOnOtherShard(first);
+
+        assertEquals(OptionalInt.of(ledger.shardIndex(first)), ledger.shardFor(List.of(first, first)));
+        assertTrue(ledger.shardFor(List.of(first, other)).isEmpty());
+        assertTrue(ledger.shardFor(List.of()).isEmpty());
+    }
+
+    @Test
+    void submit_shouldRunOnShardThread() throws Throwable {
+        Object result = ledger.submit(0, () -> ShardedLedger.onShardThread() ? "shard" : "caller");
+
+        assertEquals("shard", result);
+        assertFalse(ShardedLedger.onShardThread());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void submit_shouldGroupQueuedCommandsIntoOneTransaction() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> blocker = submitAsync(() -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "first";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<CompletableFuture<Object>> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int value = i;
+            queued.add(submitAsync(() -> value));
+        }
+        awaitQueueDepth(5);
+        release.countDown();
+
+        assertEquals("first", blocker.get(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, queued.get(i).get(5, TimeUnit.SECONDS));
+        }
+        // 1 tranzakció a blokkoló parancsnak, 1 a közben felgyűlt ötnek
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(6.0, registry.get(ShardedLedger.BATCH_SIZE_METRIC).tag("shard", "0").summary().totalAmount());
+    }
+
+    @Test
+    void submit_shouldIsolateFailingCommand_byReplayingBatchOneByOne() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> blocker = submitAsync(() -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "first";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Object> ok = submitAsync(() -> "ok");
+        CompletableFuture<Object> failing = submitAsync(() -> {
+            throw new BusinessException("Nincs elegendő fedezet.");
+        });
+        awaitQueueDepth(2);
+        release.countDown();
+
+        assertEquals("first", blocker.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", ok.get(5, TimeUnit.SECONDS));
+        Exception ex = assertThrows(Exception.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(BusinessException.class, ex.getCause());
+
+        assertEquals(1.0, registry.get(ShardedLedger.FALLBACK_METRIC).tag("shard", "0").counter().count());
+        verify(transactionManager, atLeast(2)).rollback(any());
+    }
+
+    @Test
+    void submit_shouldTimeOut_andWithdrawQueuedCommand() throws Throwable {
+        ledger.shutdown();
+        ledger = new ShardedLedger(transactionManager, registry, 1, 16, 64, 1000, 200);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean queuedRan = new AtomicBoolean();
+
+        CompletableFuture<Object> running = submitAsync(() -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "late";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> queued = submitAsync(() -> queuedRan.getAndSet(true));
+
+        // A még sorban álló parancs visszavonható és újrapróbálható; a már futó kimenetele ismeretlen
+        Exception queuedFailure = assertThrows(Exception.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(CannotAcquireLockException.class, queuedFailure.getCause());
+        Exception runningFailure = assertThrows(Exception.class, () -> running.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, runningFailure.getCause());
+
+        release.countDown();
+        assertEquals("next", ledger.submit(0, () -> "next"));
+        assertFalse(queuedRan.get());
+    }
+
+    private CompletableFuture<Object> submitAsync(ShardedLedger.Work work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ledger.submit(0, work);
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get(ShardedLedger.QUEUE_METRIC).tag("shard", "0").gauge().value() < depth) {
+            assertTrue(System.nanoTime() < deadline, "A parancsok nem kerültek a sorba");
+            Thread.sleep(5);
+        }
+    }
+
+    private Key findKeyOnOtherShard(Key key) {
+        for (long id = 2; ; id++) {
+            Key candidate = Key.account(id);
+            if (ledger.shardIndex(candidate) != ledger.shardIndex(key)) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package hu.finex.main.loginlog;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import hu.finex.main.loginlog.LoginLogWriter.Entry;
+import hu.finex.main.loginlog.LoginLogWriter.OverflowPolicy;
+import hu.finex.main.model.enums.LoginStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class LoginLogWriterTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-18T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void record_shouldOnlyEnqueue_withoutTouchingTheDatabase() {
+        LoginLogWriter writer = writer(10, 5, OverflowPolicy.SYNC);
+
+        writer.record(1L, LoginStatus.SUCCESS, "127.0.0.1", "UA", null);
+
+        assertEquals(1, writer.queueDepth());
+        assertEquals(1.0, registry.get(LoginLogWriter.DEPTH_METRIC).gauge().value());
+        verifyNoInteractions(jdbcTemplate, transactionTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void collectAndFlush_shouldWriteOneMultiRowBatch_cappedAtBatchSize() throws Exception {
+        runCallbacksInline();
+        List<Long> written = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(eq(LoginLogWriter.INSERT), any(Collection.class), eq(3), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    Collection<Entry> rows = inv.getArgument(1);
+                    rows.forEach(e -> written.add(e.userId()));
+                    return new int[0][];
+                });
+        LoginLogWriter writer = writer(10, 3, OverflowPolicy.SYNC);
+        for (long userId = 1; userId <= 5; userId++) {
+            writer.record(userId, LoginStatus.SUCCESS, "127.0.0.1", "UA", null);
+        }
+
+        List<Entry> batch = new ArrayList<>();
+        writer.collect(batch);
+        writer.flush(batch);
+
+        assertEquals(List.of(1L, 2L, 3L), written);
+        assertTrue(batch.isEmpty());
+        assertEquals(2, writer.queueDepth());
+        assertEquals(3.0, registry.get(LoginLogWriter.FLUSH_METRIC).summary().totalAmount());
+    }
+
+    @Test
+    void record_shouldDropAndCount_whenQueueFull_andPolicyIsDrop() {
+        LoginLogWriter writer = writer(1, 5, OverflowPolicy.DROP);
+
+        writer.record(1L, LoginStatus.SUCCESS, null, null, null);
+        writer.record(2L, LoginStatus.FAILED, null, null, "Hibás jelszó.");
+
+        assertEquals(1, writer.queueDepth());
+        assertEquals(1.0, registry.get(LoginLogWriter.DROPPED_METRIC).counter().count());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_shouldWriteInCallerThread_whenQueueFull_andPolicyIsSync() {
+        runCallbacksInline();
+        // A kiírt bejegyzések kikerülnek a listából, ezért a sorokat a hívás pillanatában rögzítjük
+        List<Long> written = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(eq(LoginLogWriter.INSERT), any(Collection.class), eq(1), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    Collection<Entry> rows = inv.getArgument(1);
+                    rows.forEach(e -> written.add(e.userId()));
+                    return new int[0][];
+                });
+        LoginLogWriter writer = writer(1, 5, OverflowPolicy.SYNC);
+
+        writer.record(1L, LoginStatus.SUCCESS, null, null, null);
+        writer.record(2L, LoginStatus.FAILED, null, null, "Hibás jelszó.");
+
+        assertEquals(List.of(2L), written);
+        assertEquals(1.0, registry.get(LoginLogWriter.SYNC_METRIC).counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldRetryRowByRow_andDropOnlyTheFailingRow() {
+        runCallbacksInline();
+        when(jdbcTemplate.batchUpdate(eq(LoginLogWriter.INSERT), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    Collection<Entry> rows = inv.getArgument(1);
+                    if (rows.stream().anyMatch(e -> e.userId() == 2L)) {
+                        throw new DataIntegrityViolationException("fk_login_logs_user");
+                    }
+                    return new int[0][];
+                });
+        LoginLogWriter writer = writer(10, 5, OverflowPolicy.SYNC);
+
+        writer.flush(new ArrayList<>(List.of(entry(1L), entry(2L), entry(3L))));
+
+        verify(jdbcTemplate, times(4)).batchUpdate(eq(LoginLogWriter.INSERT), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(1.0, registry.get(LoginLogWriter.DROPPED_METRIC).counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldKeepOnlyUnwrittenRows_whenRowByRowRetryFailsMidway() {
+        runCallbacksInline();
+        List<Long> written = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(eq(LoginLogWriter.INSERT), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    Collection<Entry> rows = inv.getArgument(1);
+                    if (rows.size() > 1) {
+                        throw new DataIntegrityViolationException("fk_login_logs_user");
+                    }
+                    long userId = rows.iterator().next().userId();
+                    if (userId == 3L) {
+                        throw new QueryTimeoutException("statement timeout");
+                    }
+                    written.add(userId);
+                    return new int[0][];
+                });
+        LoginLogWriter writer = writer(10, 5, OverflowPolicy.SYNC);
+        List<Entry> batch = new ArrayList<>(List.of(entry(1L), entry(2L), entry(3L), entry(4L)));
+
+        assertThrows(QueryTimeoutException.class, () -> writer.flush(batch));
+
+        // A háttérszál csak ezeket teszi vissza a sorba; az 1-es és 2-es már commitolva van
+        assertEquals(List.of(1L, 2L), written);
+        assertEquals(List.of(3L, 4L), batch.stream().map(Entry::userId).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shutdown_shouldDrainQueue_andWriteLateRecordsSynchronously() throws Exception {
+        runCallbacksInline();
+        LoginLogWriter writer = writer(10, 2, OverflowPolicy.DROP);
+        for (long userId = 1; userId <= 3; userId++) {
+            writer.record(userId, LoginStatus.SUCCESS, null, null, null);
+        }
+
+        writer.shutdown();
+        writer.record(4L, LoginStatus.SUCCESS, null, null, null);
+
+        assertEquals(0, writer.queueDepth());
+        verify(jdbcTemplate).batchUpdate(eq(LoginLogWriter.INSERT), any(Collection.class), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(LoginLogWriter.INSERT), any(Collection.class), eq(1), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(0.0, registry.get(LoginLogWriter.DROPPED_METRIC).counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueue_shouldWriteEntry_whenOfferLandsAfterShutdownDrain() throws Exception {
+        runCallbacksInline();
+        LoginLogWriter writer = writer(10, 2, OverflowPolicy.SYNC);
+        writer.shutdown();
+
+        // Az a hívó, amely még a shutdown előtt látta az accepting == true értéket, csak most ér az offer-hez
+        assertTrue(writer.enqueue(entry(7L)));
+
+        assertEquals(0, writer.queueDepth());
+        verify(jdbcTemplate).batchUpdate(eq(LoginLogWriter.INSERT), any(Collection.class), eq(1), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(0.0, registry.get(LoginLogWriter.DROPPED_METRIC).counter().count());
+    }
+
+    private LoginLogWriter writer(int capacity, int batchSize, OverflowPolicy overflow) {
+        return new LoginLogWriter(jdbcTemplate, transactionTemplate, registry, CLOCK, capacity, batchSize, 10, overflow);
+    }
+
+    private static Entry entry(long userId) {
+        return new Entry(userId, LoginStatus.SUCCESS, null, null, null, CLOCK.instant());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runCallbacksInline() {
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
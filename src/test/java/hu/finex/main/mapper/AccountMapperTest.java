@@ -93,7 +93,7 @@ class AccountMapperTest {
         assertNull(account.getId());
         assertEquals(user, account.getUser());
         assertEquals("ACC999", account.getAccountNumber());
-        assertEquals(BigDecimal.ZERO, account.getBalance());
+        assertEquals(new BigDecimal("0.00"), account.getBalance());
         assertEquals("USD", account.getCurrency());
         assertEquals(AccountType.CURRENT, account.getAccountType());
         assertNull(account.getCardNumber());
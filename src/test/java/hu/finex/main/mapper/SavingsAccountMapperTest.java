@@ -2,6 +2,7 @@ package hu.finex.main.mapper;
 
 import hu.finex.main.dto.CreateSavingsAccountRequest;
 import hu.finex.main.dto.SavingsAccountResponse;
+import hu.finex.main.dto.SavingsAccountRow;
 import hu.finex.main.dto.UpdateSavingsAccountRequest;
 import hu.finex.main.model.SavingsAccount;
 import hu.finex.main.model.User;
@@ -107,5 +108,21 @@ class SavingsAccountMapperTest {
         assertEquals(createdAt, response.getCreatedAt());
         assertEquals(updatedAt, response.getUpdatedAt());
     }
+
+    @Test
+    void toResponse_shouldConvertRowBalanceFromMinorUnits() {
+        Instant createdAt = Instant.parse("2025-01-10T08:00:00Z");
+        SavingsAccountRow row = new SavingsAccountRow(123L, 7L, "Nyaralás", 25_000_050L, "EUR",
+                new BigDecimal("4.10"), SavingsStatus.ACTIVE, createdAt, createdAt);
+
+        SavingsAccountResponse response = mapper.toResponse(row);
+
+        assertEquals(123L, response.getId());
+        assertEquals(7L, response.getUserId());
+        assertEquals(new BigDecimal("250000.50"), response.getBalance());
+        assertEquals("EUR", response.getCurrency());
+        assertEquals(SavingsStatus.ACTIVE, response.getStatus());
+        assertEquals(createdAt, response.getUpdatedAt());
+    }
 }
 
@@ -0,0 +1,65 @@
+package hu.finex.main.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BusinessMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private BusinessMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new BusinessMetrics(registry);
+    }
+
+    @Test
+    void transferCompleted_shouldCountOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            metrics.transferCompleted();
+            assertEquals(0.0, transfers());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1.0, transfers());
+    }
+
+    @Test
+    void transferCompleted_shouldNotCount_whenRolledBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            metrics.transferCompleted();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0.0, transfers());
+    }
+
+    @Test
+    void rejections_shouldBeTaggedByOperationAndReason() {
+        metrics.insufficientFunds("transfer");
+        metrics.insufficientFunds("transfer");
+        metrics.loginFailed("bad-password");
+
+        assertEquals(2.0, registry.get(BusinessMetrics.INSUFFICIENT_FUNDS_METRIC).tag("operation", "transfer").counter().count());
+        assertEquals(1.0, registry.get(BusinessMetrics.LOGIN_FAILURES_METRIC).tag("reason", "bad-password").counter().count());
+    }
+
+    private double transfers() {
+        return registry.get(BusinessMetrics.TRANSFERS_METRIC).counter().count();
+    }
+}
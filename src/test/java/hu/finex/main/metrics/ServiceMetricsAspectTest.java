@@ -0,0 +1,64 @@
+package hu.finex.main.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import hu.finex.main.exception.BusinessException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ServiceMetricsAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private SampleService proxy;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetricsAspect(registry));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    void time_shouldRecordSuccess_perServiceAndMethod() {
+        assertEquals("ok", proxy.run());
+        assertEquals("ok", proxy.run());
+
+        Timer timer = registry.get(ServiceMetricsAspect.METRIC_NAME)
+                .tag("service", "SampleService")
+                .tag("method", "run")
+                .tag("outcome", "success")
+                .tag("exception", "none")
+                .timer();
+        assertEquals(2, timer.count());
+        assertNotNull(timer.takeSnapshot().histogramCounts());
+    }
+
+    @Test
+    void time_shouldRecordError_withExceptionType_andRethrow() {
+        assertThrows(BusinessException.class, () -> proxy.fail());
+
+        assertEquals(1, registry.get(ServiceMetricsAspect.METRIC_NAME)
+                .tag("method", "fail")
+                .tag("outcome", "error")
+                .tag("exception", "BusinessException")
+                .timer().count());
+    }
+
+    static class SampleService {
+
+        public String run() {
+            return "ok";
+        }
+
+        public void fail() {
+            throw new BusinessException("hiba");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package hu.finex.main.money;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import hu.finex.main.exception.BusinessException;
+import hu.finex.main.model.Account;
+
+class MinorUnitsTest {
+
+    @Test
+    void toMinor_shouldConvertToMinorUnits_exactly() {
+        assertEquals(1_050L, MinorUnits.toMinor(new BigDecimal("10.5")));
+        assertEquals(1_000L, MinorUnits.toMinor(new BigDecimal("10.000")));
+        assertEquals(-1L, MinorUnits.toMinor(new BigDecimal("-0.01")));
+        assertEquals(new BigDecimal("10.50"), MinorUnits.toDecimal(1_050L));
+    }
+
+    @Test
+    void toMinor_shouldReject_moreThanTwoDecimals_orOverflow() {
+        assertThrows(BusinessException.class, () -> MinorUnits.toMinor(new BigDecimal("10.005")));
+        assertThrows(BusinessException.class, () -> MinorUnits.toMinor(new BigDecimal("1e30")));
+        assertThrows(BusinessException.class, () -> MinorUnits.add(Long.MAX_VALUE, 1L));
+    }
+
+    @Test
+    void arithmetic_shouldStayExact() {
+        assertEquals(13_025L, MinorUnits.add(10_000L, 3_025L));
+        assertEquals(6_975L, MinorUnits.subtract(10_000L, 3_025L));
+        assertThrows(BusinessException.class, () -> MinorUnits.subtract(Long.MIN_VALUE, 1L));
+    }
+
+    @Test
+    void converter_shouldRoundTripNumericColumn() {
+        MinorUnitsConverter converter = new MinorUnitsConverter();
+
+        assertEquals(new BigDecimal("1234.56"), converter.convertToDatabaseColumn(123_456L));
+        assertEquals(123_456L, converter.convertToEntityAttribute(new BigDecimal("1234.56")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void account_shouldCreditAndDebit_inMinorUnits() {
+        Account account = Account.builder().balance(new BigDecimal("100.00")).currency("HUF").build();
+
+        account.debit(2_550L);
+        account.credit(50L);
+
+        assertEquals(7_500L, account.getBalanceMinor());
+        assertEquals(new BigDecimal("75.00"), account.getBalance());
+        assertTrue(account.covers(7_500L));
+        assertFalse(account.covers(7_501L));
+    }
+}
@@ -0,0 +1,79 @@
+package hu.finex.main.money;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+// Mikro-benchmark a főkönyvi forró útra: fedezet-ellenőrzés + terhelés + jóváírás BigDecimal-lal és long minor egységgel.
+// Bemelegítés után mért idő és a szálon allokált bájtok műveletenként; az eredmény a konzolra kerül.
+// Alapból kimarad; futtatás: mvn test -Dfinex.benchmark=true -Dtest=MoneyArithmeticBenchmarkTest
+
+@EnabledIfSystemProperty(named = "finex.benchmark", matches = "true")
+class MoneyArithmeticBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int OPERATIONS = 5_000_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void minorUnits_shouldBeFasterAndAllocationFree() {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            bigDecimalLedger(OPERATIONS);
+            minorUnitLedger(OPERATIONS);
+        }
+
+        Result decimal = measure(() -> bigDecimalLedger(OPERATIONS));
+        Result minor = measure(() -> minorUnitLedger(OPERATIONS));
+
+        System.out.printf("BigDecimal: %.2f ns/op, %.1f B/op%n", decimal.nanosPerOp(), decimal.bytesPerOp());
+        System.out.printf("long minor: %.2f ns/op, %.1f B/op%n", minor.nanosPerOp(), minor.bytesPerOp());
+
+        assertTrue(minor.bytesPerOp() < 1.0, "A long minor egységes út nem allokálhat");
+        assertTrue(minor.nanosPerOp() < decimal.nanosPerOp());
+    }
+
+    private Result measure(Runnable run) {
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        run.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        return new Result((double) elapsed / OPERATIONS, (double) allocated / OPERATIONS);
+    }
+
+    private static BigDecimal bigDecimalLedger(int operations) {
+        BigDecimal from = new BigDecimal("1000000000.00");
+        BigDecimal to = BigDecimal.ZERO.setScale(2);
+        BigDecimal amount = new BigDecimal("12.34");
+        for (int i = 0; i < operations; i++) {
+            if (from.compareTo(amount) >= 0) {
+                from = from.subtract(amount);
+                to = to.add(amount);
+            }
+        }
+        return from.add(to);
+    }
+
+    private static long minorUnitLedger(int operations) {
+        long from = 100_000_000_000L;
+        long to = 0L;
+        long amount = 1_234L;
+        for (int i = 0; i < operations; i++) {
+            if (from >= amount) {
+                from = MinorUnits.subtract(from, amount);
+                to = MinorUnits.add(to, amount);
+            }
+        }
+        return from + to;
+    }
+
+    private record Result(double nanosPerOp, double bytesPerOp) {
+    }
+}
@@ -0,0 +1,67 @@
+package hu.finex.main.pagination;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import hu.finex.main.dto.SliceResponse;
+import hu.finex.main.exception.BusinessException;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeDecode_shouldRoundTrip_withSubSecondPrecision() {
+        KeysetCursor cursor = new KeysetCursor(Instant.parse("2025-02-15T11:00:15.123456Z"), 5012L);
+
+        String token = cursor.encode();
+
+        assertFalse(token.contains("="));
+        assertEquals(cursor, KeysetCursor.decode(token));
+    }
+
+    @Test
+    void decode_shouldReturnNull_forMissingCursor() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(" "));
+    }
+
+    @Test
+    void decode_shouldThrowBusinessException_forGarbage() {
+        assertThrows(BusinessException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    void firstPage_shouldClampSize() {
+        assertEquals(1, KeysetCursor.firstPage(0).getPageSize());
+        assertEquals(KeysetCursor.MAX_SIZE, KeysetCursor.firstPage(10_000).getPageSize());
+        assertEquals(0, KeysetCursor.firstPage(20).getPageNumber());
+    }
+
+    @Test
+    void toResponse_shouldPointNextCursorAtLastItem_whenMoreRowsExist() {
+        Instant t = Instant.parse("2025-01-01T10:00:00Z");
+        SliceImpl<Long> slice = new SliceImpl<>(List.of(3L, 2L), PageRequest.of(0, 2), true);
+
+        SliceResponse<String> resp = KeysetCursor.toResponse(slice, String::valueOf, id -> new KeysetCursor(t, id));
+
+        assertEquals(List.of("3", "2"), resp.getContent());
+        assertEquals(2, resp.getSize());
+        assertTrue(resp.isHasNext());
+        assertEquals(new KeysetCursor(t, 2L), KeysetCursor.decode(resp.getNextCursor()));
+    }
+
+    @Test
+    void toResponse_shouldOmitNextCursor_onLastSlice() {
+        SliceImpl<Long> slice = new SliceImpl<>(List.of(1L), PageRequest.of(0, 2), false);
+
+        SliceResponse<Long> resp = KeysetCursor.toResponse(slice, id -> id, id -> new KeysetCursor(Instant.EPOCH, id));
+
+        assertFalse(resp.isHasNext());
+        assertNull(resp.getNextCursor());
+    }
+}
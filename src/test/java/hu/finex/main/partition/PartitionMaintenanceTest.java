@@ -0,0 +1,71 @@
+package hu.finex.main.partition;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-18T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ensureFuturePartitions_shouldCreateCurrentAndAheadMonths() {
+        new PartitionMaintenance(jdbcTemplate, CLOCK, 2, 12).ensureFuturePartitions("login_logs");
+
+        verify(jdbcTemplate).queryForObject(PartitionMaintenance.CREATE_PARTITION, String.class, "login_logs", LocalDate.of(2026, 10, 1));
+        verify(jdbcTemplate).queryForObject(PartitionMaintenance.CREATE_PARTITION, String.class, "login_logs", LocalDate.of(2026, 11, 1));
+        verify(jdbcTemplate).queryForObject(PartitionMaintenance.CREATE_PARTITION, String.class, "login_logs", LocalDate.of(2026, 12, 1));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void ensureFuturePartitions_shouldContinue_whenOneMonthFails() {
+        when(jdbcTemplate.queryForObject(PartitionMaintenance.CREATE_PARTITION, String.class, "balance_history", LocalDate.of(2026, 10, 1)))
+                .thenThrow(new DataIntegrityViolationException("default partition contains rows"));
+
+        new PartitionMaintenance(jdbcTemplate, CLOCK, 1, 12).ensureFuturePartitions("balance_history");
+
+        verify(jdbcTemplate).queryForObject(PartitionMaintenance.CREATE_PARTITION, String.class, "balance_history", LocalDate.of(2026, 11, 1));
+    }
+
+    @Test
+    void dropExpiredPartitions_shouldDropOnlyMonthsBeforeRetentionWindow() {
+        when(jdbcTemplate.queryForList(PartitionMaintenance.LIST_PARTITIONS, String.class, "login_logs")).thenReturn(List.of(
+                "login_logs_p2025_08", "login_logs_p2025_09", "login_logs_p2025_10", "login_logs_p2026_10", "login_logs_default"));
+
+        List<String> dropped = new PartitionMaintenance(jdbcTemplate, CLOCK, 3, 12).dropExpiredPartitions("login_logs", 12);
+
+        assertEquals(List.of("login_logs_p2025_08", "login_logs_p2025_09"), dropped);
+        verify(jdbcTemplate).execute("drop table if exists \"login_logs_p2025_08\"");
+        verify(jdbcTemplate).execute("drop table if exists \"login_logs_p2025_09\"");
+        verify(jdbcTemplate).update("delete from \"login_logs_default\" where created_at < ?",
+                OffsetDateTime.of(2025, 10, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        verify(jdbcTemplate, never()).execute(contains("p2025_10"));
+    }
+
+    @Test
+    void maintain_shouldSkipRetention_whenDisabled() {
+        new PartitionMaintenance(jdbcTemplate, CLOCK, 1, 0).maintain();
+
+        verify(jdbcTemplate, times(4)).queryForObject(eq(PartitionMaintenance.CREATE_PARTITION), eq(String.class), anyString(), any(LocalDate.class));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), any());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
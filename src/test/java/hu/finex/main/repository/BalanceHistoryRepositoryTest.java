@@ -10,8 +10,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 
@@ -67,8 +69,8 @@ class BalanceHistoryRepositoryTest extends PostgresRepositoryTestBase {
 
         Page<BalanceHistory> page = balanceHistoryRepository.findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtAsc(
                 account.getId(),
-                t1,
-                t3,
+                t1.toInstant(),
+                t3.toInstant(),
                 PageRequest.of(0, 10)
         );
 
@@ -91,20 +93,46 @@ class BalanceHistoryRepositoryTest extends PostgresRepositoryTestBase {
 
         assertTrue(balanceHistoryRepository.existsByAccount_IdAndCreatedAtAfter(
                 account.getId(),
-                OffsetDateTime.of(2025, 1, 1, 10, 30, 0, 0, ZoneOffset.UTC)
+                OffsetDateTime.of(2025, 1, 1, 10, 30, 0, 0, ZoneOffset.UTC).toInstant()
         ));
 
         assertFalse(balanceHistoryRepository.existsByAccount_IdAndCreatedAtAfter(
                 account.getId(),
-                OffsetDateTime.of(2025, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC)
+                OffsetDateTime.of(2025, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC).toInstant()
         ));
 
         assertFalse(balanceHistoryRepository.existsByAccount_IdAndCreatedAtAfter(
                 account.getId(),
-                t2
+                t2.toInstant()
         ));
     }
 
+    @Test
+    void keysetSlices_shouldWalkAllRowsInOrder_evenWithEqualTimestamps() {
+        User user = saveUser("bh4@a.com");
+        Account account = saveAccount(user, "BH-ACC-4");
+
+        OffsetDateTime t1 = OffsetDateTime.of(2025, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime t2 = OffsetDateTime.of(2025, 1, 1, 10, 5, 0, 0, ZoneOffset.UTC);
+
+        BalanceHistory h1 = saveHistory(account, new BigDecimal("1.00"), t1);
+        BalanceHistory h2 = saveHistory(account, new BigDecimal("2.00"), t2);
+        BalanceHistory h3 = saveHistory(account, new BigDecimal("3.00"), t2);
+
+        Slice<BalanceHistory> first = balanceHistoryRepository.findByAccount_IdOrderByCreatedAtAscIdAsc(account.getId(), PageRequest.of(0, 2));
+
+        assertTrue(first.hasNext());
+        assertEquals(h1.getId(), first.getContent().get(0).getId());
+        assertEquals(h2.getId(), first.getContent().get(1).getId());
+
+        BalanceHistory last = first.getContent().get(1);
+        Slice<BalanceHistory> second = balanceHistoryRepository.findByAccountAfter(account.getId(), last.getCreatedAt(), last.getId(), PageRequest.of(0, 2));
+
+        assertFalse(second.hasNext());
+        assertEquals(1, second.getNumberOfElements());
+        assertEquals(h3.getId(), second.getContent().get(0).getId());
+    }
+
     private User saveUser(String email) {
         User user = User.builder()
                 .firstName("Test")
@@ -113,6 +141,8 @@ class BalanceHistoryRepositoryTest extends PostgresRepositoryTestBase {
                 .phone("000")
                 .passwordHash("HASH")
                 .role("USER")
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
                 .build();
         return userRepository.saveAndFlush(user);
     }
@@ -126,6 +156,7 @@ class BalanceHistoryRepositoryTest extends PostgresRepositoryTestBase {
                 .accountType(AccountType.CURRENT)
                 .status(AccountStatus.ACTIVE)
                 .cardNumber("4895121234567890")
+                .createdAt(Instant.now())
                 .build();
         return accountRepository.saveAndFlush(account);
     }
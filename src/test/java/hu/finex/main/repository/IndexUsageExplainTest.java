@@ -0,0 +1,151 @@
+package hu.finex.main.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A Flyway migrációk indexeit ellenőrzi EXPLAIN-nel: a forró lekérdezések a nekik szánt indexen futnak,
+// és az ORDER BY-t az index sorrendje adja (nincs külön Sort lépés).
+// A particionált táblákon a partíciók indexe a szülő index oszlopaiból kapja a nevét (pl. ..._account_id_created_at_id_idx).
+// Üres táblán a planner szekvenciális vagy bitmap olvasást + rendezést választana, ezért a tranzakcióra kikapcsoljuk őket.
+
+@DataJpaTest
+class IndexUsageExplainTest extends PostgresRepositoryTestBase {
+
+    private static final Pattern SORT_NODE = Pattern.compile("(?m)^\\s*(->\\s+)?(Incremental )?Sort\\s+\\(");
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void preferIndexScans() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+    }
+
+    @Test
+    void transactionList_shouldUseAccountCreatedIdIndex_withoutSort() {
+        String plan = explain("select id from transactions where account_id = 1 "
+                + "order by created_at desc, id desc limit 20");
+
+        assertUsesIndex(plan, "idx_transactions_account_created_id");
+        assertNoSort(plan);
+    }
+
+    @Test
+    void transactionKeyset_shouldUseAccountCreatedIdIndex_withoutSort() {
+        String plan = explain("select id from transactions where account_id = 1 "
+                + "and (created_at, id) < (now(), 100) "
+                + "order by created_at desc, id desc limit 20");
+
+        assertUsesIndex(plan, "idx_transactions_account_created_id");
+        assertIndexCondBounds(plan, "created_at");
+        assertNoSort(plan);
+    }
+
+    @Test
+    void loginLogKeyset_shouldBoundIndexScan_andPrunePartitions() {
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        String plan = explain("select id from login_logs where user_id = 1 "
+                + "and (created_at, id) < (now(), 100) and created_at <= now() "
+                + "order by created_at desc, id desc limit 20");
+
+        assertUsesIndex(plan, "user_id_created_at_id_idx");
+        assertIndexCondBounds(plan, "created_at");
+        assertFalse(plan.contains("login_logs_p" + month.plusMonths(1).toString().replace('-', '_')), plan);
+        assertNoSort(plan);
+    }
+
+    @Test
+    void balanceHistoryChart_shouldUseAccountCreatedIdIndex_withoutSort() {
+        String plan = explain("select id from balance_history where account_id = 1 "
+                + "order by created_at asc, id asc limit 200");
+
+        assertUsesIndex(plan, "account_id_created_at_id_idx");
+        assertNoSort(plan);
+    }
+
+    @Test
+    void loginLogList_shouldUseUserCreatedIdIndex_withoutSort() {
+        String plan = explain("select id from login_logs where user_id = 1 "
+                + "and created_at > now() - interval '7 days' "
+                + "order by created_at desc, id desc limit 20");
+
+        assertUsesIndex(plan, "user_id_created_at_id_idx");
+        assertNoSort(plan);
+    }
+
+    @Test
+    void createdAtRange_shouldPruneToMatchingMonthlyPartition() {
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        String plan = explain("select id from login_logs where user_id = 1 "
+                + "and created_at between '" + month.atDay(1) + " 00:00:00+00' and '" + month.atDay(10) + " 00:00:00+00' "
+                + "order by created_at desc");
+
+        assertTrue(plan.contains("login_logs_p" + month.toString().replace('-', '_')), plan);
+        assertFalse(plan.contains("login_logs_default"), plan);
+        assertFalse(plan.contains("login_logs_p" + month.plusMonths(1).toString().replace('-', '_')), plan);
+    }
+
+    @Test
+    void emailLookup_shouldUseLowerEmailIndex() {
+        String plan = explain("select id from users where lower(email) = lower('Test@Finex.hu')");
+
+        assertUsesIndex(plan, "idx_users_email_lower");
+    }
+
+    @Test
+    void openTicketQueue_shouldUsePartialIndex_withoutSort() {
+        String plan = explain("select id from support_tickets where status = 'OPEN' "
+                + "order by created_at desc limit 20");
+
+        assertUsesIndex(plan, "idx_support_tickets_open_created_at");
+        assertNoSort(plan);
+    }
+
+    @Test
+    void historyRelay_shouldUsePendingPartialIndex_withoutSort() {
+        String plan = explain("select id from transactions where history_pending = true "
+                + "order by created_at, id limit 500");
+
+        assertUsesIndex(plan, "idx_transactions_history_pending");
+        assertNoSort(plan);
+    }
+
+    @Test
+    void redundantSingleColumnIndexes_shouldBeDropped() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select indexname from pg_indexes where schemaname = current_schema()", String.class);
+
+        assertFalse(indexes.contains("idx_transactions_account_id"));
+        assertFalse(indexes.contains("idx_balance_history_account_id"));
+        assertFalse(indexes.contains("idx_login_logs_user_id"));
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.contains(index + " on "), () -> "Várt index: " + index + "\n" + plan);
+    }
+
+    // A keyset határ az index tartomány-feltételében van, nem egy utólagos Filter sorban
+    private static void assertIndexCondBounds(String plan, String column) {
+        assertTrue(plan.lines().anyMatch(line -> line.contains("Index Cond:") && line.contains(column)),
+                () -> "A " + column + " határ nem része az Index Cond-nak:\n" + plan);
+    }
+
+    // A Merge Append "Sort Key" sora nem rendezés, csak a partíciók indexeinek összefésülése
+    private static void assertNoSort(String plan) {
+        assertFalse(SORT_NODE.matcher(plan).find(), () -> "Felesleges Sort lépés:\n" + plan);
+    }
+}
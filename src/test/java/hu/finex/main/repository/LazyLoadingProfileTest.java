@@ -0,0 +1,203 @@
+package hu.finex.main.repository;
+
+import hu.finex.main.config.JpaAuditingConfig;
+import hu.finex.main.history.BalanceHistoryOutbox;
+import hu.finex.main.mapper.AccountMapper;
+import hu.finex.main.mapper.BalanceHistoryMapper;
+import hu.finex.main.mapper.CategoryMapper;
+import hu.finex.main.mapper.LoginLogMapper;
+import hu.finex.main.mapper.SavingsAccountMapper;
+import hu.finex.main.mapper.SupportTicketMapper;
+import hu.finex.main.mapper.TransactionCategoryMapper;
+import hu.finex.main.mapper.TransactionMapper;
+import hu.finex.main.metrics.BusinessMetrics;
+import hu.finex.main.model.Account;
+import hu.finex.main.model.BalanceHistory;
+import hu.finex.main.model.Category;
+import hu.finex.main.model.LoginLog;
+import hu.finex.main.model.SavingsAccount;
+import hu.finex.main.model.SupportTicket;
+import hu.finex.main.model.Transaction;
+import hu.finex.main.model.TransactionCategory;
+import hu.finex.main.model.User;
+import hu.finex.main.model.enums.AccountStatus;
+import hu.finex.main.model.enums.AccountType;
+import hu.finex.main.model.enums.LoginStatus;
+import hu.finex.main.model.enums.SavingsStatus;
+import hu.finex.main.model.enums.TicketStatus;
+import hu.finex.main.model.enums.TransactionType;
+import hu.finex.main.service.AccountService;
+import hu.finex.main.service.BalanceHistoryService;
+import hu.finex.main.service.CategoryCatalog;
+import hu.finex.main.service.CategoryService;
+import hu.finex.main.service.LoginLogService;
+import hu.finex.main.service.SavingsAccountService;
+import hu.finex.main.service.SupportTicketService;
+import hu.finex.main.service.TransactionCategoryService;
+import hu.finex.main.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Minden olvasó use case csak azt töltheti be, amit a saját lekérdezése/entity graph-ja előír.
+// Ha egy service metódus lusta kapcsolatot inicializál (proxy vagy kollekció), a teszt elbukik.
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({JpaAuditingConfig.class,
+        TransactionService.class, TransactionMapper.class, BalanceHistoryMapper.class, CategoryService.class, CategoryMapper.class,
+        CategoryCatalog.class, JacksonAutoConfiguration.class,
+        BalanceHistoryOutbox.class, SimpleMeterRegistry.class, BusinessMetrics.class,
+        TransactionCategoryService.class, TransactionCategoryMapper.class,
+        AccountService.class, AccountMapper.class,
+        BalanceHistoryService.class,
+        LoginLogService.class, LoginLogMapper.class,
+        SupportTicketService.class, SupportTicketMapper.class,
+        SavingsAccountService.class, SavingsAccountMapper.class})
+class LazyLoadingProfileTest extends PostgresRepositoryTestBase {
+
+    private static final PageRequest PAGE = PageRequest.of(0, 20);
+
+    @Autowired private TransactionService transactionService;
+    @Autowired private TransactionCategoryService transactionCategoryService;
+    @Autowired private AccountService accountService;
+    @Autowired private BalanceHistoryService balanceHistoryService;
+    @Autowired private LoginLogService loginLogService;
+    @Autowired private SupportTicketService supportTicketService;
+    @Autowired private SavingsAccountService savingsAccountService;
+    @Autowired private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Long userId;
+    private Long accountId;
+    private Long transactionId;
+    private Long categoryId;
+    private Long historyId;
+    private Long loginLogId;
+    private Long ticketId;
+    private Long savingsId;
+
+    @BeforeEach
+    void setUp() {
+        User user = persist(User.builder()
+                .firstName("Lazy")
+                .lastName("User")
+                .email("lazy@a.com")
+                .phone("000")
+                .passwordHash("HASH")
+                .role("USER")
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build());
+        userId = user.getId();
+
+        Account account = persist(Account.builder()
+                .user(user)
+                .accountNumber("LAZY-1")
+                .balance(new BigDecimal("100.00"))
+                .currency("HUF")
+                .accountType(AccountType.CURRENT)
+                .status(AccountStatus.ACTIVE)
+                .createdAt(Instant.now())
+                .build());
+        accountId = account.getId();
+
+        Transaction tx = persist(Transaction.builder()
+                .account(account)
+                .type(TransactionType.INCOME)
+                .amount(new BigDecimal("10.00"))
+                .currency("HUF")
+                .build());
+        transactionId = tx.getId();
+
+        Category category = persist(Category.builder().name("Food").icon("i").build());
+        categoryId = category.getId();
+        persist(TransactionCategory.builder().transaction(tx).category(category).build());
+
+        historyId = persist(BalanceHistory.builder().account(account).balance(new BigDecimal("100.00")).build()).getId();
+
+        loginLogId = persist(LoginLog.builder()
+                .user(user)
+                .status(LoginStatus.SUCCESS)
+                .ipAddress("127.0.0.1")
+                .build()).getId();
+
+        ticketId = persist(SupportTicket.builder()
+                .user(user)
+                .title("Help")
+                .message("Lazy")
+                .status(TicketStatus.OPEN)
+                .build()).getId();
+
+        savingsId = persist(SavingsAccount.builder()
+                .user(user)
+                .name("Nyaralás")
+                .balance(BigDecimal.ZERO)
+                .currency("HUF")
+                .interestRate(new BigDecimal("2.50"))
+                .status(SavingsStatus.ACTIVE)
+                .build()).getId();
+
+        // Üres persistence context: minden kapcsolatot a vizsgált lekérdezésnek kell betöltenie
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void transactionReads_shouldStayWithinTheirProfile() {
+        assertNoLazyLoading("TransactionService.getById", () -> transactionService.getById(transactionId));
+        assertNoLazyLoading("TransactionService.listByAccount", () -> transactionService.listByAccount(accountId, PAGE));
+        assertNoLazyLoading("TransactionCategoryService.listByTransaction", () -> transactionCategoryService.listByTransaction(transactionId));
+        assertNoLazyLoading("TransactionCategoryService.listByCategory", () -> transactionCategoryService.listByCategory(categoryId));
+    }
+
+    @Test
+    void accountReads_shouldStayWithinTheirProfile() {
+        assertNoLazyLoading("AccountService.getById", () -> accountService.getById(accountId));
+        assertNoLazyLoading("AccountService.getMyAccount", () -> accountService.getMyAccount(userId));
+        assertNoLazyLoading("AccountService.listByUser", () -> accountService.listByUser(userId));
+        assertNoLazyLoading("BalanceHistoryService.getById", () -> balanceHistoryService.getById(historyId));
+        assertNoLazyLoading("BalanceHistoryService.listByAccount", () -> balanceHistoryService.listByAccount(accountId, PAGE));
+        assertNoLazyLoading("SavingsAccountService.getById", () -> savingsAccountService.getById(savingsId));
+        assertNoLazyLoading("SavingsAccountService.listByUser", () -> savingsAccountService.listByUser(userId, PAGE));
+    }
+
+    @Test
+    void userScopedReads_shouldStayWithinTheirProfile() {
+        assertNoLazyLoading("LoginLogService.getById", () -> loginLogService.getById(loginLogId));
+        assertNoLazyLoading("LoginLogService.listByUser", () -> loginLogService.listByUser(userId, PAGE));
+        assertNoLazyLoading("SupportTicketService.getById", () -> supportTicketService.getById(ticketId));
+        assertNoLazyLoading("SupportTicketService.listByUser", () -> supportTicketService.listByUser(userId, PAGE));
+    }
+
+    // Lusta betöltés = proxy vagy kollekció inicializálása a lekérdezésen kívül
+    private void assertNoLazyLoading(String useCase, Supplier<?> call) {
+        entityManager.clear();
+        statistics.clear();
+
+        assertNotNull(call.get());
+
+        assertEquals(0, statistics.getEntityFetchCount(), useCase + ": lusta entitás-betöltés a profilon kívül");
+        assertEquals(0, statistics.getCollectionFetchCount(), useCase + ": lusta kollekció-betöltés a profilon kívül");
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
@@ -0,0 +1,75 @@
+package hu.finex.main.repository;
+
+import hu.finex.main.partition.PartitionMaintenance;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A V5 migráció havi partícióit és a PartitionMaintenance-t ellenőrzi valódi PostgreSQL-en:
+// a sorok a hónapjuk partíciójába kerülnek, a jövőbeli partíciók előre elkészülnek, a lejártak egészben eltűnnek.
+
+@DataJpaTest
+class MonthlyPartitionTest extends PostgresRepositoryTestBase {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insert_shouldRouteRowToItsMonthlyPartition() {
+        long userId = insertUser("part1@a.com");
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+
+        insertLoginLog(userId, month.atDay(2).atStartOfDay().atOffset(ZoneOffset.UTC));
+
+        String partition = jdbcTemplate.queryForObject(
+                "select tableoid::regclass::text from login_logs where user_id = ?", String.class, userId);
+        assertEquals("login_logs_p" + suffix(month), partition);
+    }
+
+    @Test
+    void maintain_shouldCreateFuturePartitions_andDropExpiredLoginLogPartitions() {
+        long userId = insertUser("part2@a.com");
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        YearMonth expired = current.minusMonths(24);
+
+        jdbcTemplate.queryForObject("select create_monthly_partition('login_logs', ?)", String.class, expired.atDay(1));
+        insertLoginLog(userId, expired.atDay(5).atStartOfDay().atOffset(ZoneOffset.UTC));
+        insertLoginLog(userId, current.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+
+        new PartitionMaintenance(jdbcTemplate, 6, 12).maintain();
+
+        List<String> loginLogPartitions = partitions("login_logs");
+        List<String> historyPartitions = partitions("balance_history");
+        assertFalse(loginLogPartitions.contains("login_logs_p" + suffix(expired)));
+        assertTrue(loginLogPartitions.contains("login_logs_p" + suffix(current.plusMonths(6))));
+        assertTrue(historyPartitions.contains("balance_history_p" + suffix(current.plusMonths(6))));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from login_logs where user_id = ?", Integer.class, userId));
+    }
+
+    private List<String> partitions(String table) {
+        return jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid where i.inhparent = cast(? as regclass)",
+                String.class, table);
+    }
+
+    private long insertUser(String email) {
+        return jdbcTemplate.queryForObject(
+                "insert into users (first_name, last_name, email, password_hash) values ('Test', 'User', ?, 'HASH') returning id",
+                Long.class, email);
+    }
+
+    private void insertLoginLog(long userId, OffsetDateTime createdAt) {
+        jdbcTemplate.update("insert into login_logs (user_id, status, created_at) values (?, 'SUCCESS', ?)", userId, createdAt);
+    }
+
+    private static String suffix(YearMonth month) {
+        return month.toString().replace('-', '_');
+    }
+}
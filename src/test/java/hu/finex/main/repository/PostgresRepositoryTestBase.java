@@ -24,7 +24,8 @@ public abstract class PostgresRepositoryTestBase {
         registry.add("spring.datasource.password", postgres::getPassword);
         registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
 
-        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        // A séma a Flyway migrációkból épül, ugyanúgy, mint élesben
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
         registry.add("spring.jpa.show-sql", () -> "true");
         registry.add("spring.jpa.properties.hibernate.format_sql", () -> "true");
     }
@@ -0,0 +1,132 @@
+package hu.finex.main.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import hu.finex.main.model.Account;
+import hu.finex.main.model.Category;
+import hu.finex.main.model.User;
+import hu.finex.main.model.enums.AccountStatus;
+import hu.finex.main.model.enums.AccountType;
+import jakarta.persistence.EntityManagerFactory;
+
+// Az L2 cache régiói: az első betöltés után a User/Account/Category id szerinti olvasása és a számla létezés-ellenőrzése
+// SQL nélkül, a cache-ből jön; a login email-keresése a query cache-ből.
+// A cache csak lezárt tranzakciók adatát veszi fel, ezért itt minden repository hívás saját tranzakcióban fut (nincs teszt rollback).
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest extends PostgresRepositoryTestBase {
+
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private CategoryRepository categoryRepository;
+
+    private final String suffix = UUID.randomUUID().toString().substring(0, 8);
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        accountRepository.findAll().stream()
+                .filter(a -> a.getAccountNumber().endsWith(suffix))
+                .forEach(accountRepository::delete);
+        userRepository.findAll().stream()
+                .filter(u -> u.getEmail().endsWith(suffix))
+                .forEach(userRepository::delete);
+        categoryRepository.findAll().stream()
+                .filter(c -> c.getName().endsWith(suffix))
+                .forEach(categoryRepository::delete);
+    }
+
+    @Test
+    void findById_shouldHitSecondLevelCache_afterFirstLoad() {
+        User user = saveUser("l2-user@finex.hu");
+        Account account = saveAccount(user, "L2-ACC-");
+
+        accountRepository.findById(account.getId()).orElseThrow();
+        userRepository.findById(user.getId()).orElseThrow();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertTrue(accountRepository.findById(account.getId()).isPresent());
+        assertTrue(accountRepository.existsCachedById(account.getId()));
+        assertTrue(userRepository.findById(user.getId()).isPresent());
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getDomainDataRegionStatistics(Account.class.getName()).getHitCount() >= 1);
+        assertTrue(statistics.getDomainDataRegionStatistics(User.class.getName()).getHitCount() >= 1);
+    }
+
+    @Test
+    void category_shouldBeServedFromReadOnlyRegion() {
+        Category category = categoryRepository.save(Category.builder().name("L2 " + suffix).icon("x").build());
+
+        categoryRepository.findById(category.getId()).orElseThrow();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals("L2 " + suffix, categoryRepository.findById(category.getId()).orElseThrow().getName());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByEmailIgnoreCase_shouldHitQueryCache_untilUsersChange() {
+        User user = saveUser("l2-login@finex.hu");
+        String email = user.getEmail().toUpperCase();
+
+        userRepository.findByEmailIgnoreCase(email).orElseThrow();
+        userRepository.findByEmailIgnoreCase(email).orElseThrow();
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // Bármely users írás érvényteleníti a tárolt eredményt
+        userRepository.updatePasswordHash(user.getId(), "NEW_HASH");
+        assertEquals("NEW_HASH", userRepository.findByEmailIgnoreCase(email).orElseThrow().getPasswordHash());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    private User saveUser(String email) {
+        User user = User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email(email + "." + suffix)
+                .phone("000")
+                .passwordHash("HASH")
+                .role("USER")
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        return userRepository.save(user);
+    }
+
+    private Account saveAccount(User user, String accountNumber) {
+        Account account = Account.builder()
+                .user(user)
+                .accountNumber(accountNumber + suffix)
+                .balance(BigDecimal.ZERO)
+                .currency("HUF")
+                .accountType(AccountType.CURRENT)
+                .status(AccountStatus.ACTIVE)
+                .cardNumber("4895121234567890")
+                .createdAt(Instant.now())
+                .build();
+        return accountRepository.save(account);
+    }
+}
@@ -0,0 +1,117 @@
+package hu.finex.main.repository;
+
+import hu.finex.main.config.JpaAuditingConfig;
+import hu.finex.main.model.Account;
+import hu.finex.main.model.Category;
+import hu.finex.main.model.Transaction;
+import hu.finex.main.model.TransactionCategory;
+import hu.finex.main.model.User;
+import hu.finex.main.model.enums.AccountStatus;
+import hu.finex.main.model.enums.AccountType;
+import hu.finex.main.model.enums.TransactionType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tranzakció-részletek olvasása: a régi út (findById + kapcsolók + kategóriák egyenként)
+// és az entity graph-os findDetailById statement-számának összevetése N kategóriára.
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(JpaAuditingConfig.class)
+class TransactionDetailQueryCountTest extends PostgresRepositoryTestBase {
+
+    private static final int CATEGORY_COUNT = 3;
+
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private TransactionCategoryRepository transactionCategoryRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Long transactionId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.saveAndFlush(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("detail@a.com")
+                .phone("000")
+                .passwordHash("HASH")
+                .role("USER")
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build());
+
+        Account account = accountRepository.saveAndFlush(Account.builder()
+                .user(user)
+                .accountNumber("DETAIL-1")
+                .balance(BigDecimal.ZERO)
+                .currency("HUF")
+                .accountType(AccountType.CURRENT)
+                .status(AccountStatus.ACTIVE)
+                .createdAt(Instant.now())
+                .build());
+
+        Transaction tx = transactionRepository.saveAndFlush(Transaction.builder()
+                .account(account)
+                .type(TransactionType.INCOME)
+                .amount(new BigDecimal("10.00"))
+                .currency("HUF")
+                .build());
+        transactionId = tx.getId();
+
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            Category category = categoryRepository.save(Category.builder().name("Cat-" + i).icon("i").build());
+            transactionCategoryRepository.save(TransactionCategory.builder().transaction(tx).category(category).build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void legacyPath_needsSeveralStatements() {
+        Transaction tx = transactionRepository.findById(transactionId).orElseThrow();
+        List<String> names = transactionCategoryRepository.findByTransaction_Id(tx.getId()).stream()
+                .map(link -> link.getCategory().getName())
+                .toList();
+
+        assertEquals(CATEGORY_COUNT, names.size());
+        assertTrue(statistics.getPrepareStatementCount() > 1,
+                "A régi út statement-száma: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findDetailById_shouldLoadTransactionAndCategoriesInOneStatement() {
+        Transaction tx = transactionRepository.findDetailById(transactionId).orElseThrow();
+
+        List<String> names = tx.getCategoryLinks().stream()
+                .map(link -> link.getCategory().getName())
+                .toList();
+
+        assertEquals(List.of("Cat-0", "Cat-1", "Cat-2"), names);
+        // A számlából csak az id kell a válaszhoz, azt a proxy a FK oszlopból adja
+        assertEquals(transactionId, tx.getId());
+        assertNotNull(tx.getAccount().getId());
+        assertFalse(Hibernate.isInitialized(tx.getAccount()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,135 @@
+package hu.finex.main.repository;
+
+import hu.finex.main.config.JpaAuditingConfig;
+import hu.finex.main.dto.TransferRequest;
+import hu.finex.main.exception.NotFoundException;
+import hu.finex.main.history.BalanceHistoryOutbox;
+import hu.finex.main.history.BalanceHistoryRelay;
+import hu.finex.main.mapper.BalanceHistoryMapper;
+import hu.finex.main.mapper.CategoryMapper;
+import hu.finex.main.mapper.TransactionMapper;
+import hu.finex.main.metrics.BusinessMetrics;
+import hu.finex.main.model.Account;
+import hu.finex.main.model.Category;
+import hu.finex.main.model.User;
+import hu.finex.main.model.enums.AccountStatus;
+import hu.finex.main.model.enums.AccountType;
+import hu.finex.main.service.CategoryCatalog;
+import hu.finex.main.service.CategoryService;
+import hu.finex.main.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Egy átutalás JDBC statement-számát méri: 2 select (a két zárolt számla; a user lusta proxy marad),
+// 1 batch-elt számla update, 1 batch-elt transactions insert. A balance_history sorokat a relay írja ki (write-behind).
+// A válasz kategóriái a memóriából épülnek, nincs visszaolvasás.
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({JpaAuditingConfig.class, TransactionService.class, TransactionMapper.class, BalanceHistoryMapper.class,
+        CategoryService.class, CategoryMapper.class, CategoryCatalog.class, JacksonAutoConfiguration.class,
+        BalanceHistoryOutbox.class, BalanceHistoryRelay.class, SimpleMeterRegistry.class, BusinessMetrics.class})
+class TransferStatementCountTest extends PostgresRepositoryTestBase {
+
+    private static final long MAX_STATEMENTS_PER_TRANSFER = 4;
+
+    @Autowired private TransactionService transactionService;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CategoryService categoryService;
+    @Autowired private EntityManager entityManager;
+
+    @Test
+    void transfer_shouldBatchLedgerInserts() {
+        User user = saveUser("batch@a.com");
+        Account from = saveAccount(user, "BATCH-FROM", new BigDecimal("1000.00"));
+        Account to = saveAccount(user, "BATCH-TO", BigDecimal.ZERO);
+
+        // Első utalás: a pooled-lo szekvencia blokkok lefoglalása
+        transactionService.transfer(request(from, to));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        transactionService.transfer(request(from, to));
+        entityManager.flush();
+
+        assertEquals(2, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS_PER_TRANSFER,
+                "Túl sok statement egy átutaláshoz: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void transfer_shouldThrowNotFound_whenCategoryDeletedBehindStaleCatalog() {
+        User user = saveUser("stale-category@a.com");
+        Account from = saveAccount(user, "STALE-FROM", new BigDecimal("1000.00"));
+        Account to = saveAccount(user, "STALE-TO", BigDecimal.ZERO);
+        Category category = categoryRepository.saveAndFlush(Category.builder().name("Stale").icon("x").build());
+
+        // A katalógus betölti a kategóriát, majd egy "másik példány" törli, invalidálás nélkül
+        assertTrue(categoryService.catalog().find(category.getId()).isPresent());
+        entityManager.createNativeQuery("delete from categories where id = :id")
+                .setParameter("id", category.getId())
+                .executeUpdate();
+
+        TransferRequest request = request(from, to);
+        request.setCategoryIds(List.of(category.getId()));
+
+        NotFoundException ex = assertThrows(NotFoundException.class, () -> transactionService.transfer(request));
+        assertEquals("Kategória nem található.", ex.getMessage());
+    }
+
+    private TransferRequest request(Account from, Account to) {
+        return TransferRequest.builder()
+                .fromAccountId(from.getId())
+                .toAccountId(to.getId())
+                .amount(new BigDecimal("10.00"))
+                .currency("HUF")
+                .message("batch")
+                .build();
+    }
+
+    private User saveUser(String email) {
+        User user = User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email(email)
+                .phone("000")
+                .passwordHash("HASH")
+                .role("USER")
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        return userRepository.saveAndFlush(user);
+    }
+
+    private Account saveAccount(User user, String accountNumber, BigDecimal balance) {
+        Account account = Account.builder()
+                .user(user)
+                .accountNumber(accountNumber)
+                .balance(balance)
+                .currency("HUF")
+                .accountType(AccountType.CURRENT)
+                .status(AccountStatus.ACTIVE)
+                .createdAt(Instant.now())
+                .build();
+        return accountRepository.saveAndFlush(account);
+    }
+}
@@ -0,0 +1,118 @@
+package hu.finex.main.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+import hu.finex.main.model.User;
+import io.jsonwebtoken.JwtException;
+
+class JwtTokenUtilTest {
+
+    private static final String SECRET = "MySuperUltraSecretKeyForFinexJWT123456789";
+    private static final long EXPIRATION_MS = Duration.ofMinutes(10).toMillis();
+
+    @Test
+    void verify_shouldReturnSubjectAndExpiry_andCacheVerifiedToken() {
+        MutableClock clock = new MutableClock();
+        JwtTokenUtil util = new JwtTokenUtil(clock, SECRET, EXPIRATION_MS, 10);
+        String token = util.generateToken("a@finex.hu");
+
+        JwtTokenUtil.VerifiedToken verified = util.verify(token).orElseThrow();
+
+        assertEquals("a@finex.hu", verified.email());
+        assertEquals(clock.instant().plusMillis(EXPIRATION_MS), verified.expiresAt());
+        assertEquals(1, util.cacheSize());
+        assertSame(verified, util.verify(token).orElseThrow());
+        assertEquals("a@finex.hu", util.extractEmail(token));
+    }
+
+    @Test
+    void generateToken_forUser_shouldCarryIdAndRole_intoPrincipal() {
+        JwtTokenUtil util = new JwtTokenUtil(new MutableClock(), SECRET, EXPIRATION_MS, 10);
+        User user = User.builder().id(42L).email("a@finex.hu").role("ADMIN").build();
+
+        AuthenticatedUser principal = util.verify(util.generateToken(user)).orElseThrow().toPrincipal();
+
+        assertEquals(new AuthenticatedUser(42L, "a@finex.hu", "ADMIN"), principal);
+        assertEquals("a@finex.hu", principal.getName());
+    }
+
+    @Test
+    void verify_shouldAcceptTokenWithoutIdClaim_withNullId() {
+        JwtTokenUtil util = new JwtTokenUtil(new MutableClock(), SECRET, EXPIRATION_MS, 10);
+
+        JwtTokenUtil.VerifiedToken verified = util.verify(util.generateToken("a@finex.hu")).orElseThrow();
+
+        assertNull(verified.userId());
+        assertNull(verified.role());
+    }
+
+    @Test
+    void verify_shouldRejectExpiredToken_evenWhenCached() {
+        MutableClock clock = new MutableClock();
+        JwtTokenUtil util = new JwtTokenUtil(clock, SECRET, EXPIRATION_MS, 10);
+        String token = util.generateToken("a@finex.hu");
+        assertTrue(util.isValid(token));
+
+        clock.advance(Duration.ofMinutes(11));
+
+        assertTrue(util.verify(token).isEmpty());
+        assertEquals(0, util.cacheSize());
+    }
+
+    @Test
+    void verify_shouldRejectTamperedOrForeignToken_withoutCaching() {
+        MutableClock clock = new MutableClock();
+        JwtTokenUtil util = new JwtTokenUtil(clock, SECRET, EXPIRATION_MS, 10);
+        JwtTokenUtil other = new JwtTokenUtil(clock, SECRET.replace('M', 'X'), EXPIRATION_MS, 10);
+        String token = util.generateToken("a@finex.hu");
+
+        assertTrue(util.verify(token.substring(0, token.length() - 2) + "xx").isEmpty());
+        assertTrue(util.verify(other.generateToken("a@finex.hu")).isEmpty());
+        assertTrue(util.verify("not-a-jwt").isEmpty());
+        assertThrows(JwtException.class, () -> util.extractEmail("not-a-jwt"));
+        assertEquals(0, util.cacheSize());
+    }
+
+    @Test
+    void verify_shouldEvictLeastRecentlyUsed_whenCacheFull() {
+        MutableClock clock = new MutableClock();
+        JwtTokenUtil util = new JwtTokenUtil(clock, SECRET, EXPIRATION_MS, 2);
+
+        util.verify(util.generateToken("a@finex.hu"));
+        util.verify(util.generateToken("b@finex.hu"));
+        util.verify(util.generateToken("c@finex.hu"));
+
+        assertEquals(2, util.cacheSize());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package hu.finex.main.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import hu.finex.main.exception.ServiceUnavailableException;
+import hu.finex.main.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private SimpleMeterRegistry registry;
+    private PasswordHasher hasher;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_shouldDelegateToBCrypt_andRecordLatency() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(4), registry, 1, 4, 5_000);
+
+        String hash = hasher.encode("pw");
+
+        assertTrue(hasher.matches("pw", hash));
+        assertFalse(hasher.matches("wrong", hash));
+        assertEquals(1, registry.get(PasswordHasher.LATENCY_METRIC).tag("operation", "encode").timer().count());
+        assertEquals(2, registry.get(PasswordHasher.LATENCY_METRIC).tag("operation", "matches").timer().count());
+        assertEquals(3, registry.get(PasswordHasher.WAIT_METRIC).timer().count());
+    }
+
+    @Test
+    void needsRehash_shouldBeTrue_forWeakerStoredHash() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(6), registry, 1, 4, 5_000);
+
+        assertTrue(hasher.needsRehash(new BCryptPasswordEncoder(4).encode("pw")));
+        assertFalse(hasher.needsRehash(new BCryptPasswordEncoder(6).encode("pw")));
+    }
+
+    @Test
+    void submit_shouldThrowTooManyRequests_whenQueueFull() throws Exception {
+        hasher = new PasswordHasher(blockingEncoder(), registry, 1, 1, 5_000);
+
+        // Egy futó és egy sorban álló hash foglalja a teljes kapacitást
+        CompletableFuture.runAsync(() -> hasher.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture.runAsync(() -> hasher.encode("b"));
+        waitForQueueDepth(1);
+
+        assertThrows(TooManyRequestsException.class, () -> hasher.matches("c", "HASH"));
+        assertEquals(1.0, registry.get(PasswordHasher.REJECTED_METRIC).tag("reason", "queue-full").counter().count());
+    }
+
+    @Test
+    void submit_shouldThrowServiceUnavailable_whenWaitExceedsTimeout() {
+        hasher = new PasswordHasher(blockingEncoder(), registry, 1, 4, 50);
+
+        assertThrows(ServiceUnavailableException.class, () -> hasher.encode("pw"));
+        assertEquals(1.0, registry.get(PasswordHasher.REJECTED_METRIC).tag("reason", "timeout").counter().count());
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hasher.queueDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(depth, hasher.queueDepth());
+        assertEquals(depth, registry.get(PasswordHasher.QUEUE_METRIC).gauge().value());
+    }
+
+    // A hash addig "számol", amíg a teszt el nem engedi
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return "HASH";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return "HASH".equals(encode(rawPassword));
+            }
+        };
+    }
+}
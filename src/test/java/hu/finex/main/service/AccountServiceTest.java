@@ -3,13 +3,13 @@ package hu.finex.main.service;
 import hu.finex.main.dto.*;
 import hu.finex.main.exception.BusinessException;
 import hu.finex.main.exception.NotFoundException;
+import hu.finex.main.history.BalanceHistoryOutbox;
 import hu.finex.main.mapper.AccountMapper;
 import hu.finex.main.model.*;
 import hu.finex.main.model.enums.AccountStatus;
 import hu.finex.main.model.enums.AccountType;
 import hu.finex.main.model.enums.TransactionType;
 import hu.finex.main.repository.AccountRepository;
-import hu.finex.main.repository.BalanceHistoryRepository;
 import hu.finex.main.repository.TransactionRepository;
 import hu.finex.main.repository.UserRepository;
 import org.junit.jupiter.api.Test;
@@ -31,7 +31,7 @@ class AccountServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private AccountMapper accountMapper;
     @Mock private TransactionRepository transactionRepository;
-    @Mock private BalanceHistoryRepository balanceHistoryRepository;
+    @Mock private BalanceHistoryOutbox balanceHistoryOutbox;
 
     @InjectMocks private AccountService service;
 
@@ -91,7 +91,7 @@ class AccountServiceTest {
         verify(userRepository).findById(1L);
         verify(accountMapper).toEntity(eq(req), eq(user), anyString());
         verify(accountMapper).toResponse(saved);
-        verifyNoMoreInteractions(transactionRepository, balanceHistoryRepository);
+        verifyNoMoreInteractions(transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -107,7 +107,7 @@ class AccountServiceTest {
         assertThrows(NotFoundException.class, () -> service.create(req));
 
         verify(userRepository).findById(99L);
-        verifyNoInteractions(accountRepository, accountMapper, transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(accountRepository, accountMapper, transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -263,7 +263,7 @@ class AccountServiceTest {
                 .currency("HUF")
                 .build();
 
-        when(accountRepository.findById(accountId)).thenReturn(Optional.of(acc));
+        when(accountRepository.findByIdForUpdate(accountId)).thenReturn(Optional.of(acc));
 
         BigDecimal amount = new BigDecimal("250.00");
         String message = "Topup";
@@ -289,22 +289,20 @@ class AccountServiceTest {
         assertEquals("HUF", savedTx.getCurrency());
         assertEquals(message, savedTx.getMessage());
 
-        ArgumentCaptor<BalanceHistory> historyCaptor = ArgumentCaptor.forClass(BalanceHistory.class);
-        verify(balanceHistoryRepository).save(historyCaptor.capture());
-        BalanceHistory savedHistory = historyCaptor.getValue();
-        assertEquals(acc, savedHistory.getAccount());
-        assertEquals(new BigDecimal("1250.00"), savedHistory.getBalance());
+        InOrder inOrder = inOrder(balanceHistoryOutbox, transactionRepository);
+        inOrder.verify(balanceHistoryOutbox).record(savedTx, acc);
+        inOrder.verify(transactionRepository).save(savedTx);
 
-        verify(accountRepository).findById(accountId);
+        verify(accountRepository).findByIdForUpdate(accountId);
         verify(accountMapper).toResponse(acc);
     }
 
     @Test
     void deposit_shouldThrowNotFound_whenAccountMissing() {
-        when(accountRepository.findById(1L)).thenReturn(Optional.empty());
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
         assertThrows(NotFoundException.class, () -> service.deposit(1L, BigDecimal.ONE, "x", 1L));
-        verify(accountRepository).findById(1L);
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository, accountMapper);
+        verify(accountRepository).findByIdForUpdate(1L);
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox, accountMapper);
     }
 
     @Test
@@ -319,12 +317,12 @@ class AccountServiceTest {
                 .currency("HUF")
                 .build();
 
-        when(accountRepository.findById(accountId)).thenReturn(Optional.of(acc));
+        when(accountRepository.findByIdForUpdate(accountId)).thenReturn(Optional.of(acc));
 
         assertThrows(BusinessException.class, () ->
                 service.deposit(accountId, new BigDecimal("100.00"), "x", 7L));
 
         assertEquals(new BigDecimal("1000.00"), acc.getBalance());
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository, accountMapper);
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox, accountMapper);
     }
 }
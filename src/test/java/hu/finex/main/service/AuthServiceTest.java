@@ -3,18 +3,20 @@ package hu.finex.main.service;
 import hu.finex.main.dto.*;
 import hu.finex.main.exception.BusinessException;
 import hu.finex.main.exception.NotFoundException;
+import hu.finex.main.loginlog.LoginLogWriter;
 import hu.finex.main.mapper.UserMapper;
-import hu.finex.main.model.LoginLog;
+import hu.finex.main.metrics.BusinessMetrics;
 import hu.finex.main.model.User;
 import hu.finex.main.model.enums.LoginStatus;
-import hu.finex.main.repository.LoginLogRepository;
 import hu.finex.main.repository.UserRepository;
 import hu.finex.main.security.JwtTokenUtil;
+import hu.finex.main.security.PasswordHasher;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 
@@ -25,16 +27,18 @@ import static org.mockito.Mockito.*;
 class AuthServiceTest {
 
     @Mock private UserRepository userRepository;
-    @Mock private LoginLogRepository loginLogRepository;
-    @Mock private PasswordEncoder passwordEncoder;
+    @Mock private LoginLogWriter loginLogWriter;
+    @Mock private PasswordHasher passwordHasher;
     @Mock private JwtTokenUtil jwtTokenUtil;
     @Mock private UserMapper userMapper;
     @Mock private AccountService accountService;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private BusinessMetrics businessMetrics;
 
     @InjectMocks private AuthService service;
 
     @Test
-    void login_shouldReturnTokenAndUser_andSaveSuccessLoginLog() {
+    void login_shouldReturnTokenAndUser_andRecordSuccessLoginLog() {
         LoginRequest request = LoginRequest.builder()
                 .email("test@example.com")
                 .password("pw")
@@ -47,8 +51,8 @@ class AuthServiceTest {
                 .build();
 
         when(userRepository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches("pw", "HASH")).thenReturn(true);
-        when(jwtTokenUtil.generateToken("test@example.com")).thenReturn("JWT_TOKEN");
+        when(passwordHasher.matches("pw", "HASH")).thenReturn(true);
+        when(jwtTokenUtil.generateToken(user)).thenReturn("JWT_TOKEN");
 
         UserResponse userResponse = UserResponse.builder()
                 .id(10L)
@@ -64,21 +68,39 @@ class AuthServiceTest {
         assertEquals(10L, resp.getUser().getId());
         assertEquals("test@example.com", resp.getUser().getEmail());
 
-        ArgumentCaptor<LoginLog> logCaptor = ArgumentCaptor.forClass(LoginLog.class);
-        verify(loginLogRepository).save(logCaptor.capture());
-        LoginLog savedLog = logCaptor.getValue();
-        assertEquals(user, savedLog.getUser());
-        assertEquals(LoginStatus.SUCCESS, savedLog.getStatus());
-        assertEquals("127.0.0.1", savedLog.getIpAddress());
-        assertEquals("UA", savedLog.getUserAgent());
-        assertNull(savedLog.getFailureReason());
+        verify(loginLogWriter).record(10L, LoginStatus.SUCCESS, "127.0.0.1", "UA", null);
 
-        verify(jwtTokenUtil).generateToken("test@example.com");
+        verify(jwtTokenUtil).generateToken(user);
         verify(userMapper).toResponse(user);
+        verify(userRepository, never()).updatePasswordHash(any(), any());
     }
 
     @Test
-    void login_shouldSaveFailedLoginLog_andThrowBusinessException_whenPasswordWrong() {
+    void login_shouldRehashPassword_whenStoredHashIsWeaker() {
+        LoginRequest request = LoginRequest.builder()
+                .email("test@example.com")
+                .password("pw")
+                .build();
+
+        User user = User.builder()
+                .id(10L)
+                .email("test@example.com")
+                .passwordHash("OLD_HASH")
+                .build();
+
+        when(userRepository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordHasher.matches("pw", "OLD_HASH")).thenReturn(true);
+        when(passwordHasher.needsRehash("OLD_HASH")).thenReturn(true);
+        when(passwordHasher.encode("pw")).thenReturn("NEW_HASH");
+        when(jwtTokenUtil.generateToken(user)).thenReturn("JWT_TOKEN");
+
+        service.login(request, "127.0.0.1", "UA");
+
+        verify(userRepository).updatePasswordHash(10L, "NEW_HASH");
+    }
+
+    @Test
+    void login_shouldRecordFailedLoginLog_andThrowBusinessException_whenPasswordWrong() {
         LoginRequest request = LoginRequest.builder()
                 .email("test@example.com")
                 .password("wrong")
@@ -91,18 +113,12 @@ class AuthServiceTest {
                 .build();
 
         when(userRepository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches("wrong", "HASH")).thenReturn(false);
+        when(passwordHasher.matches("wrong", "HASH")).thenReturn(false);
 
         assertThrows(BusinessException.class, () -> service.login(request, "10.0.0.1", "UA2"));
 
-        ArgumentCaptor<LoginLog> logCaptor = ArgumentCaptor.forClass(LoginLog.class);
-        verify(loginLogRepository).save(logCaptor.capture());
-        LoginLog savedLog = logCaptor.getValue();
-        assertEquals(user, savedLog.getUser());
-        assertEquals(LoginStatus.FAILED, savedLog.getStatus());
-        assertEquals("10.0.0.1", savedLog.getIpAddress());
-        assertEquals("UA2", savedLog.getUserAgent());
-        assertEquals("Hibás jelszó.", savedLog.getFailureReason());
+        verify(loginLogWriter).record(10L, LoginStatus.FAILED, "10.0.0.1", "UA2", "Hibás jelszó.");
+        verify(businessMetrics).loginFailed("bad-password");
 
         verifyNoInteractions(jwtTokenUtil, userMapper);
     }
@@ -119,7 +135,8 @@ class AuthServiceTest {
         assertThrows(NotFoundException.class, () -> service.login(request, "1.1.1.1", "UA"));
 
         verify(userRepository).findByEmailIgnoreCase("missing@example.com");
-        verifyNoInteractions(passwordEncoder, loginLogRepository, jwtTokenUtil, userMapper);
+        verify(businessMetrics).loginFailed("unknown-user");
+        verifyNoInteractions(passwordHasher, loginLogWriter, jwtTokenUtil, userMapper);
     }
 
     @Test
@@ -138,7 +155,7 @@ class AuthServiceTest {
         assertThrows(BusinessException.class, () -> service.register(request));
 
         verify(userRepository).existsByEmailIgnoreCase("dup@example.com");
-        verifyNoInteractions(passwordEncoder, userMapper, accountService, loginLogRepository, jwtTokenUtil);
+        verifyNoInteractions(passwordHasher, userMapper, accountService, loginLogWriter, jwtTokenUtil, transactionTemplate);
         verify(userRepository, never()).save(any());
     }
 
@@ -154,7 +171,7 @@ class AuthServiceTest {
                 .build();
 
         when(userRepository.existsByEmailIgnoreCase("new@example.com")).thenReturn(false);
-        when(passwordEncoder.encode("pw")).thenReturn("HASHED");
+        when(passwordHasher.encode("pw")).thenReturn("HASHED");
 
         User mapped = User.builder()
                 .email("new@example.com")
@@ -174,6 +191,7 @@ class AuthServiceTest {
                 .email("new@example.com")
                 .build();
         when(userMapper.toResponse(saved)).thenReturn(expected);
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
 
         UserResponse resp = service.register(request);
 
@@ -182,11 +200,11 @@ class AuthServiceTest {
         assertEquals("new@example.com", resp.getEmail());
 
         verify(userRepository).existsByEmailIgnoreCase("new@example.com");
-        verify(passwordEncoder).encode("pw");
+        verify(passwordHasher).encode("pw");
         verify(userMapper).toEntity(request, "HASHED");
         verify(userRepository).save(mapped);
         verify(accountService).createDefaultAccount(saved);
         verify(userMapper).toResponse(saved);
-        verifyNoInteractions(loginLogRepository, jwtTokenUtil);
+        verifyNoInteractions(loginLogWriter, jwtTokenUtil);
     }
 }
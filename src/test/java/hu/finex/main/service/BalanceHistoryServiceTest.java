@@ -2,6 +2,7 @@ package hu.finex.main.service;
 
 import hu.finex.main.dto.BalanceHistoryListItemResponse;
 import hu.finex.main.dto.BalanceHistoryResponse;
+import hu.finex.main.dto.SliceResponse;
 import hu.finex.main.exception.NotFoundException;
 import hu.finex.main.mapper.BalanceHistoryMapper;
 import hu.finex.main.model.Account;
@@ -14,6 +15,7 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -125,7 +127,7 @@ class BalanceHistoryServiceTest {
         BalanceHistory h2 = BalanceHistory.builder().id(2L).build();
         Page<BalanceHistory> page = new PageImpl<>(List.of(h1, h2), pageable, 2);
 
-        when(balanceHistoryRepository.findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtAsc(5L, start, end, pageable))
+        when(balanceHistoryRepository.findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtAsc(5L, start.toInstant(), end.toInstant(), pageable))
                 .thenReturn(page);
 
         BalanceHistoryListItemResponse r1 = BalanceHistoryListItemResponse.builder().build();
@@ -142,8 +144,27 @@ class BalanceHistoryServiceTest {
         assertSame(r2, resp.getContent().get(1));
 
         verify(accountRepository).findById(5L);
-        verify(balanceHistoryRepository).findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtAsc(5L, start, end, pageable);
+        verify(balanceHistoryRepository).findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtAsc(5L, start.toInstant(), end.toInstant(), pageable);
         verify(balanceHistoryMapper).toListItem(h1);
         verify(balanceHistoryMapper).toListItem(h2);
     }
+
+    @Test
+    void listByAccountSlice_shouldReturnLastSlice_withoutNextCursor() {
+        when(accountRepository.existsById(3L)).thenReturn(true);
+
+        BalanceHistory h1 = BalanceHistory.builder().id(1L).createdAt(Instant.parse("2025-01-01T10:00:00Z")).build();
+        Pageable page = PageRequest.of(0, 20);
+        when(balanceHistoryRepository.findByAccount_IdOrderByCreatedAtAscIdAsc(3L, page))
+                .thenReturn(new SliceImpl<>(List.of(h1), page, false));
+
+        BalanceHistoryListItemResponse r1 = BalanceHistoryListItemResponse.builder().build();
+        when(balanceHistoryMapper.toListItem(h1)).thenReturn(r1);
+
+        SliceResponse<BalanceHistoryListItemResponse> resp = service.listByAccountSlice(3L, null, 20);
+
+        assertEquals(List.of(r1), resp.getContent());
+        assertFalse(resp.isHasNext());
+        assertNull(resp.getNextCursor());
+    }
 }
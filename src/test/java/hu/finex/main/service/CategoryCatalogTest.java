@@ -0,0 +1,91 @@
+package hu.finex.main.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hu.finex.main.model.Category;
+import hu.finex.main.repository.CategoryRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryCatalogTest {
+
+    @Mock private CategoryRepository categoryRepository;
+
+    private CategoryCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new CategoryCatalog(categoryRepository, new ObjectMapper());
+    }
+
+    @Test
+    void current_shouldLoadOnce_andServePrecomputedBody() {
+        when(categoryRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                Category.builder().id(1L).name("Food").icon("F").build(),
+                Category.builder().id(2L).name("Transport").build()));
+
+        CategoryCatalog.Snapshot snapshot = catalog.current();
+
+        assertSame(snapshot, catalog.current());
+        verify(categoryRepository, times(1)).findAll(any(Sort.class));
+        assertEquals("Transport", snapshot.find(2L).orElseThrow().name());
+        assertTrue(snapshot.find(3L).isEmpty());
+        assertEquals("[{\"id\":1,\"name\":\"Food\",\"icon\":\"F\"},{\"id\":2,\"name\":\"Transport\",\"icon\":null}]",
+                new String(snapshot.body(), StandardCharsets.UTF_8));
+        assertTrue(snapshot.etag().matches("\"[0-9a-f]{64}\""));
+    }
+
+    @Test
+    void invalidate_shouldRebuild_withNewVersion_andContentBasedEtag() {
+        Category food = Category.builder().id(1L).name("Food").build();
+        when(categoryRepository.findAll(any(Sort.class)))
+                .thenReturn(List.of(food))
+                .thenReturn(List.of(food))
+                .thenReturn(List.of(food, Category.builder().id(2L).name("Transport").build()));
+
+        CategoryCatalog.Snapshot first = catalog.current();
+        catalog.invalidate();
+        CategoryCatalog.Snapshot same = catalog.current();
+        catalog.invalidate();
+        CategoryCatalog.Snapshot changed = catalog.current();
+
+        assertTrue(same.version() > first.version());
+        assertEquals(first.etag(), same.etag());
+        assertNotEquals(first.etag(), changed.etag());
+        assertEquals(2, changed.entries().size());
+    }
+
+    @Test
+    void invalidateAfterCommit_shouldWaitForCommit() {
+        when(categoryRepository.findAll(any(Sort.class))).thenReturn(List.of());
+        CategoryCatalog.Snapshot before = catalog.current();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            catalog.invalidateAfterCommit();
+            assertSame(before, catalog.current());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNotSame(before, catalog.current());
+        verify(categoryRepository, times(2)).findAll(any(Sort.class));
+    }
+}
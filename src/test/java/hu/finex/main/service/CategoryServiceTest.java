@@ -12,6 +12,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +25,7 @@ class CategoryServiceTest {
 
     @Mock private CategoryRepository categoryRepository;
     @Mock private CategoryMapper categoryMapper;
+    @Mock private CategoryCatalog categoryCatalog;
 
     @InjectMocks private CategoryService service;
 
@@ -40,6 +43,7 @@ class CategoryServiceTest {
         verify(categoryRepository).existsByNameIgnoreCase("Food");
         verifyNoInteractions(categoryMapper);
         verify(categoryRepository, never()).save(any());
+        verifyNoInteractions(categoryCatalog);
     }
 
     @Test
@@ -82,56 +86,39 @@ class CategoryServiceTest {
         verify(categoryMapper).toEntity(request);
         verify(categoryRepository).save(mapped);
         verify(categoryMapper).toResponse(saved);
+        verify(categoryCatalog).invalidateAfterCommit();
     }
 
     @Test
-    void getById_shouldReturnResponse() {
-        Category category = Category.builder().id(5L).name("X").build();
-        when(categoryRepository.findById(5L)).thenReturn(Optional.of(category));
-
-        CategoryResponse expected = CategoryResponse.builder().id(5L).name("X").build();
-        when(categoryMapper.toResponse(category)).thenReturn(expected);
+    void getById_shouldReturnResponse_fromCatalog() {
+        when(categoryCatalog.current()).thenReturn(catalog());
 
-        CategoryResponse resp = service.getById(5L);
+        CategoryResponse resp = service.getById(2L);
 
-        assertNotNull(resp);
-        assertEquals(5L, resp.getId());
-
-        verify(categoryRepository).findById(5L);
-        verify(categoryMapper).toResponse(category);
+        assertEquals(2L, resp.getId());
+        assertEquals("Transport", resp.getName());
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     void getById_shouldThrowNotFound_whenMissing() {
-        when(categoryRepository.findById(5L)).thenReturn(Optional.empty());
+        when(categoryCatalog.current()).thenReturn(catalog());
 
         assertThrows(NotFoundException.class, () -> service.getById(5L));
 
-        verify(categoryRepository).findById(5L);
-        verifyNoInteractions(categoryMapper);
+        verifyNoInteractions(categoryRepository, categoryMapper);
     }
 
     @Test
-    void listAll_shouldMapAll() {
-        Category c1 = Category.builder().id(1L).name("A").build();
-        Category c2 = Category.builder().id(2L).name("B").build();
-        when(categoryRepository.findAll()).thenReturn(List.of(c1, c2));
-
-        CategoryResponse r1 = CategoryResponse.builder().id(1L).name("A").build();
-        CategoryResponse r2 = CategoryResponse.builder().id(2L).name("B").build();
-        when(categoryMapper.toResponse(c1)).thenReturn(r1);
-        when(categoryMapper.toResponse(c2)).thenReturn(r2);
+    void listAll_shouldMapAll_fromCatalog() {
+        when(categoryCatalog.current()).thenReturn(catalog());
 
         List<CategoryResponse> out = service.listAll();
 
-        assertNotNull(out);
         assertEquals(2, out.size());
         assertEquals(1L, out.get(0).getId());
         assertEquals(2L, out.get(1).getId());
-
-        verify(categoryRepository).findAll();
-        verify(categoryMapper).toResponse(c1);
-        verify(categoryMapper).toResponse(c2);
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
@@ -153,6 +140,35 @@ class CategoryServiceTest {
 
         verify(categoryRepository).findById(7L);
         verify(categoryRepository).delete(category);
+        verify(categoryCatalog).invalidateAfterCommit();
         verifyNoInteractions(categoryMapper);
     }
+
+    @Test
+    void requireAllById_shouldResolveFromCatalog_andKeepRequestOrder() {
+        when(categoryCatalog.current()).thenReturn(catalog());
+
+        List<Category> out = service.requireAllById(List.of(2L, 1L, 2L));
+
+        assertEquals(List.of(2L, 1L), out.stream().map(Category::getId).toList());
+        assertEquals("Transport", out.get(0).getName());
+        assertEquals("🍔", out.get(1).getIcon());
+        verifyNoInteractions(categoryRepository);
+    }
+
+    @Test
+    void requireAllById_shouldThrowNotFound_listingAllMissing() {
+        when(categoryCatalog.current()).thenReturn(catalog());
+
+        NotFoundException ex = assertThrows(NotFoundException.class, () -> service.requireAllById(List.of(1L, 5L, 9L)));
+
+        assertEquals("Kategória nem található: 5, 9", ex.getMessage());
+    }
+
+    private static CategoryCatalog.Snapshot catalog() {
+        return CategoryCatalog.Snapshot.of(1, List.of(
+                new CategoryCatalog.Entry(1L, "Food", "🍔"),
+                new CategoryCatalog.Entry(2L, "Transport", "🚗")
+        ), new ObjectMapper());
+    }
 }
@@ -2,10 +2,12 @@ package hu.finex.main.service;
 
 import hu.finex.main.dto.LoginLogListItemResponse;
 import hu.finex.main.dto.LoginLogResponse;
+import hu.finex.main.dto.SliceResponse;
 import hu.finex.main.exception.NotFoundException;
 import hu.finex.main.mapper.LoginLogMapper;
 import hu.finex.main.model.LoginLog;
 import hu.finex.main.model.enums.LoginStatus;
+import hu.finex.main.pagination.KeysetCursor;
 import hu.finex.main.repository.LoginLogRepository;
 import hu.finex.main.repository.UserRepository;
 import org.junit.jupiter.api.Test;
@@ -14,6 +16,7 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -42,20 +45,36 @@ class LoginLogServiceTest {
     }
 
     @Test
-    void listByUser_shouldReturnMappedPage() {
-        Pageable pageable = PageRequest.of(0, 2);
+    void listByUserSlice_shouldSeekPastCursor_withoutCountQuery() {
         when(userRepository.existsById(5L)).thenReturn(true);
 
-        LoginLog l1 = LoginLog.builder().id(1L).build();
-        LoginLog l2 = LoginLog.builder().id(2L).build();
-        Page<LoginLog> page = new PageImpl<>(List.of(l1, l2), pageable, 2);
+        KeysetCursor cursor = new KeysetCursor(Instant.parse("2025-01-01T10:00:00Z"), 40L);
+        Pageable page = PageRequest.of(0, 1);
 
-        when(loginLogRepository.findByUser_IdOrderByCreatedAtDesc(5L, pageable)).thenReturn(page);
+        LoginLog l1 = LoginLog.builder().id(39L).createdAt(Instant.parse("2025-01-01T09:00:00Z")).build();
+        when(loginLogRepository.findByUserBefore(5L, cursor.createdAt(), 40L, page))
+                .thenReturn(new SliceImpl<>(List.of(l1), page, true));
 
         LoginLogListItemResponse r1 = LoginLogListItemResponse.builder().build();
-        LoginLogListItemResponse r2 = LoginLogListItemResponse.builder().build();
         when(loginLogMapper.toListItem(l1)).thenReturn(r1);
-        when(loginLogMapper.toListItem(l2)).thenReturn(r2);
+
+        SliceResponse<LoginLogListItemResponse> resp = service.listByUserSlice(5L, cursor.encode(), 1);
+
+        assertEquals(List.of(r1), resp.getContent());
+        assertEquals(new KeysetCursor(l1.getCreatedAt(), 39L), KeysetCursor.decode(resp.getNextCursor()));
+        verify(loginLogRepository, never()).findListItemsByUserId(anyLong(), any());
+    }
+
+    @Test
+    void listByUser_shouldReturnProjectedPage() {
+        Pageable pageable = PageRequest.of(0, 2);
+        when(userRepository.existsById(5L)).thenReturn(true);
+
+        LoginLogListItemResponse r1 = LoginLogListItemResponse.builder().status(LoginStatus.SUCCESS).build();
+        LoginLogListItemResponse r2 = LoginLogListItemResponse.builder().status(LoginStatus.FAILED).build();
+        Page<LoginLogListItemResponse> page = new PageImpl<>(List.of(r1, r2), pageable, 2);
+
+        when(loginLogRepository.findListItemsByUserId(5L, pageable)).thenReturn(page);
 
         Page<LoginLogListItemResponse> resp = service.listByUser(5L, pageable);
 
@@ -65,51 +84,44 @@ class LoginLogServiceTest {
         assertSame(r2, resp.getContent().get(1));
 
         verify(userRepository).existsById(5L);
-        verify(loginLogRepository).findByUser_IdOrderByCreatedAtDesc(5L, pageable);
-        verify(loginLogMapper).toListItem(l1);
-        verify(loginLogMapper).toListItem(l2);
+        verify(loginLogRepository).findListItemsByUserId(5L, pageable);
+        verifyNoInteractions(loginLogMapper);
     }
 
     @Test
-    void listByStatus_shouldReturnMappedPage() {
+    void listByStatus_shouldReturnProjectedPage() {
         Pageable pageable = PageRequest.of(0, 1);
 
-        LoginLog log = LoginLog.builder().id(1L).status(LoginStatus.FAILED).build();
-        Page<LoginLog> page = new PageImpl<>(List.of(log), pageable, 1);
-
-        when(loginLogRepository.findByStatusOrderByCreatedAtDesc(LoginStatus.FAILED, pageable)).thenReturn(page);
+        LoginLogListItemResponse item = LoginLogListItemResponse.builder().status(LoginStatus.FAILED).build();
+        Page<LoginLogListItemResponse> page = new PageImpl<>(List.of(item), pageable, 1);
 
-        LoginLogListItemResponse item = LoginLogListItemResponse.builder().build();
-        when(loginLogMapper.toListItem(log)).thenReturn(item);
+        when(loginLogRepository.findListItemsByStatus(LoginStatus.FAILED, pageable)).thenReturn(page);
 
         Page<LoginLogListItemResponse> resp = service.listByStatus(LoginStatus.FAILED, pageable);
 
         assertEquals(1, resp.getTotalElements());
         assertSame(item, resp.getContent().get(0));
 
-        verify(loginLogRepository).findByStatusOrderByCreatedAtDesc(LoginStatus.FAILED, pageable);
-        verify(loginLogMapper).toListItem(log);
+        verify(loginLogRepository).findListItemsByStatus(LoginStatus.FAILED, pageable);
+        verifyNoInteractions(loginLogMapper);
     }
 
     @Test
-    void listByIp_shouldReturnMappedPage() {
+    void listByIp_shouldReturnProjectedPage() {
         Pageable pageable = PageRequest.of(0, 1);
 
-        LoginLog log = LoginLog.builder().id(1L).build();
-        Page<LoginLog> page = new PageImpl<>(List.of(log), pageable, 1);
-
-        when(loginLogRepository.findByIpAddressOrderByCreatedAtDesc("1.1.1.1", pageable)).thenReturn(page);
+        LoginLogListItemResponse item = LoginLogListItemResponse.builder().ipAddress("1.1.1.1").build();
+        Page<LoginLogListItemResponse> page = new PageImpl<>(List.of(item), pageable, 1);
 
-        LoginLogListItemResponse item = LoginLogListItemResponse.builder().build();
-        when(loginLogMapper.toListItem(log)).thenReturn(item);
+        when(loginLogRepository.findListItemsByIpAddress("1.1.1.1", pageable)).thenReturn(page);
 
         Page<LoginLogListItemResponse> resp = service.listByIp("1.1.1.1", pageable);
 
         assertEquals(1, resp.getTotalElements());
         assertSame(item, resp.getContent().get(0));
 
-        verify(loginLogRepository).findByIpAddressOrderByCreatedAtDesc("1.1.1.1", pageable);
-        verify(loginLogMapper).toListItem(log);
+        verify(loginLogRepository).findListItemsByIpAddress("1.1.1.1", pageable);
+        verifyNoInteractions(loginLogMapper);
     }
 
     @Test
@@ -125,19 +137,16 @@ class LoginLogServiceTest {
     }
 
     @Test
-    void listByUserAndStatus_shouldReturnMappedPage() {
+    void listByUserAndStatus_shouldReturnProjectedPage() {
         Pageable pageable = PageRequest.of(0, 1);
         when(userRepository.existsById(3L)).thenReturn(true);
 
-        LoginLog log = LoginLog.builder().id(9L).status(LoginStatus.SUCCESS).build();
-        Page<LoginLog> page = new PageImpl<>(List.of(log), pageable, 1);
+        LoginLogListItemResponse item = LoginLogListItemResponse.builder().status(LoginStatus.SUCCESS).build();
+        Page<LoginLogListItemResponse> page = new PageImpl<>(List.of(item), pageable, 1);
 
-        when(loginLogRepository.findByUser_IdAndStatusOrderByCreatedAtDesc(3L, LoginStatus.SUCCESS, pageable))
+        when(loginLogRepository.findListItemsByUserIdAndStatus(3L, LoginStatus.SUCCESS, pageable))
                 .thenReturn(page);
 
-        LoginLogListItemResponse item = LoginLogListItemResponse.builder().build();
-        when(loginLogMapper.toListItem(log)).thenReturn(item);
-
         Page<LoginLogListItemResponse> resp =
                 service.listByUserAndStatus(3L, LoginStatus.SUCCESS, pageable);
 
@@ -145,27 +154,23 @@ class LoginLogServiceTest {
         assertSame(item, resp.getContent().get(0));
 
         verify(userRepository).existsById(3L);
-        verify(loginLogRepository).findByUser_IdAndStatusOrderByCreatedAtDesc(3L, LoginStatus.SUCCESS, pageable);
-        verify(loginLogMapper).toListItem(log);
+        verify(loginLogRepository).findListItemsByUserIdAndStatus(3L, LoginStatus.SUCCESS, pageable);
+        verifyNoInteractions(loginLogMapper);
     }
 
     @Test
-    void listByDateRange_shouldReturnMappedPage() {
+    void listByDateRange_shouldQueryWithInstants() {
         Pageable pageable = PageRequest.of(0, 2);
-        OffsetDateTime start = OffsetDateTime.parse("2025-01-01T00:00:00+00:00");
-        OffsetDateTime end = OffsetDateTime.parse("2025-02-01T00:00:00+00:00");
-
-        LoginLog l1 = LoginLog.builder().id(1L).build();
-        LoginLog l2 = LoginLog.builder().id(2L).build();
-        Page<LoginLog> page = new PageImpl<>(List.of(l1, l2), pageable, 2);
-
-        when(loginLogRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(start, end, pageable))
-                .thenReturn(page);
+        OffsetDateTime start = OffsetDateTime.parse("2025-01-01T00:00:00+01:00");
+        OffsetDateTime end = OffsetDateTime.parse("2025-02-01T00:00:00+01:00");
 
         LoginLogListItemResponse r1 = LoginLogListItemResponse.builder().build();
         LoginLogListItemResponse r2 = LoginLogListItemResponse.builder().build();
-        when(loginLogMapper.toListItem(l1)).thenReturn(r1);
-        when(loginLogMapper.toListItem(l2)).thenReturn(r2);
+        Page<LoginLogListItemResponse> page = new PageImpl<>(List.of(r1, r2), pageable, 2);
+
+        when(loginLogRepository.findListItemsByCreatedAtBetween(
+                Instant.parse("2024-12-31T23:00:00Z"), Instant.parse("2025-01-31T23:00:00Z"), pageable))
+                .thenReturn(page);
 
         Page<LoginLogListItemResponse> resp =
                 service.listByDateRange(start, end, pageable);
@@ -174,9 +179,7 @@ class LoginLogServiceTest {
         assertSame(r1, resp.getContent().get(0));
         assertSame(r2, resp.getContent().get(1));
 
-        verify(loginLogRepository).findByCreatedAtBetweenOrderByCreatedAtDesc(start, end, pageable);
-        verify(loginLogMapper).toListItem(l1);
-        verify(loginLogMapper).toListItem(l2);
+        verifyNoInteractions(loginLogMapper);
     }
 
     @Test
@@ -3,11 +3,11 @@ package hu.finex.main.service;
 import hu.finex.main.dto.*;
 import hu.finex.main.exception.BusinessException;
 import hu.finex.main.exception.NotFoundException;
-import hu.finex.main.mapper.BalanceHistoryMapper;
+import hu.finex.main.history.BalanceHistoryOutbox;
 import hu.finex.main.mapper.SavingsAccountMapper;
 import hu.finex.main.mapper.TransactionMapper;
+import hu.finex.main.metrics.BusinessMetrics;
 import hu.finex.main.model.Account;
-import hu.finex.main.model.BalanceHistory;
 import hu.finex.main.model.SavingsAccount;
 import hu.finex.main.model.Transaction;
 import hu.finex.main.model.User;
@@ -15,7 +15,6 @@ import hu.finex.main.model.enums.AccountType;
 import hu.finex.main.model.enums.SavingsStatus;
 import hu.finex.main.model.enums.TransactionType;
 import hu.finex.main.repository.AccountRepository;
-import hu.finex.main.repository.BalanceHistoryRepository;
 import hu.finex.main.repository.SavingsAccountRepository;
 import hu.finex.main.repository.TransactionRepository;
 import hu.finex.main.repository.UserRepository;
@@ -40,10 +39,10 @@ class SavingsAccountServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private SavingsAccountMapper mapper;
     @Mock private AccountRepository accountRepository;
-    @Mock private BalanceHistoryRepository balanceHistoryRepository;
-    @Mock private BalanceHistoryMapper balanceHistoryMapper;
+    @Mock private BalanceHistoryOutbox balanceHistoryOutbox;
     @Mock private TransactionRepository transactionRepository;
     @Mock private TransactionMapper transactionMapper;
+    @Mock private BusinessMetrics businessMetrics;
 
     @InjectMocks private SavingsAccountService service;
 
@@ -61,7 +60,7 @@ class SavingsAccountServiceTest {
         assertThrows(NotFoundException.class, () -> service.create(req));
 
         verify(userRepository).findById(1L);
-        verifyNoInteractions(savingsAccountRepository, accountRepository, mapper, transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(savingsAccountRepository, accountRepository, mapper, transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -79,7 +78,7 @@ class SavingsAccountServiceTest {
         assertThrows(BusinessException.class, () -> service.create(req));
 
         verify(savingsAccountRepository).existsByUser_IdAndName(1L, "S1");
-        verifyNoInteractions(accountRepository, mapper, transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(accountRepository, mapper, transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -98,7 +97,7 @@ class SavingsAccountServiceTest {
         assertThrows(NotFoundException.class, () -> service.create(req));
 
         verify(accountRepository).findFirstByUser_IdAndAccountType(1L, AccountType.CURRENT);
-        verifyNoInteractions(mapper, transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(mapper, transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -122,7 +121,7 @@ class SavingsAccountServiceTest {
 
         assertThrows(BusinessException.class, () -> service.create(req));
 
-        verifyNoInteractions(mapper, transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(mapper, transactionRepository, balanceHistoryOutbox);
         verify(accountRepository, never()).save(any());
         verify(savingsAccountRepository, never()).save(any());
     }
@@ -150,7 +149,7 @@ class SavingsAccountServiceTest {
 
         verify(accountRepository, never()).save(any());
         verify(savingsAccountRepository, never()).save(any());
-        verifyNoInteractions(mapper, transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(mapper, transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -207,11 +206,6 @@ class SavingsAccountServiceTest {
                 .build();
         when(transactionRepository.save(any(Transaction.class))).thenReturn(savedTx);
 
-        when(balanceHistoryMapper.toEntity(eq(current), any(BigDecimal.class)))
-                .thenReturn(BalanceHistory.builder().account(current).build());
-        when(balanceHistoryRepository.save(any(BalanceHistory.class)))
-                .thenAnswer(inv -> inv.getArgument(0));
-
         SavingsAccountResponse expectedResp = SavingsAccountResponse.builder()
                 .id(99L)
                 .userId(1L)
@@ -237,8 +231,7 @@ class SavingsAccountServiceTest {
         assertEquals(current.getCurrency(), capturedTxReq.getCurrency());
         assertEquals(current.getAccountNumber(), capturedTxReq.getFromAccount());
 
-        verify(balanceHistoryMapper).toEntity(eq(current), eq(new BigDecimal("400.00")));
-        verify(balanceHistoryRepository).save(any(BalanceHistory.class));
+        verify(balanceHistoryOutbox).record(any(Transaction.class), eq(current));
         verify(transactionRepository).save(any(Transaction.class));
         verify(mapper).toResponse(savedSavings);
     }
@@ -273,29 +266,27 @@ class SavingsAccountServiceTest {
     @Test
     void listByUser_shouldThrowNotFound_whenUserMissing() {
         Pageable pageable = PageRequest.of(0, 10);
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> service.listByUser(1L, pageable));
 
-        verify(userRepository).findById(1L);
+        verify(userRepository).existsById(1L);
         verifyNoInteractions(savingsAccountRepository, mapper);
     }
 
     @Test
-    void listByUser_shouldReturnMappedPage() {
+    void listByUser_shouldReturnProjectedPage() {
         Pageable pageable = PageRequest.of(0, 2);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(User.builder().id(1L).build()));
-
-        SavingsAccount s1 = SavingsAccount.builder().id(1L).build();
-        SavingsAccount s2 = SavingsAccount.builder().id(2L).build();
-        Page<SavingsAccount> page = new PageImpl<>(List.of(s1, s2), pageable, 2);
-
-        when(savingsAccountRepository.findByUser_IdOrderByCreatedAtDesc(1L, pageable)).thenReturn(page);
+        when(userRepository.existsById(1L)).thenReturn(true);
 
+        SavingsAccountRow row1 = new SavingsAccountRow(1L, 1L, "A", 10_000L, "HUF", BigDecimal.ONE, SavingsStatus.ACTIVE, null, null);
+        SavingsAccountRow row2 = new SavingsAccountRow(2L, 1L, "B", 0L, "HUF", BigDecimal.ONE, SavingsStatus.ACTIVE, null, null);
         SavingsAccountResponse r1 = SavingsAccountResponse.builder().id(1L).build();
         SavingsAccountResponse r2 = SavingsAccountResponse.builder().id(2L).build();
-        when(mapper.toResponse(s1)).thenReturn(r1);
-        when(mapper.toResponse(s2)).thenReturn(r2);
+
+        when(savingsAccountRepository.findRowsByUserId(1L, pageable)).thenReturn(new PageImpl<>(List.of(row1, row2), pageable, 2));
+        when(mapper.toResponse(row1)).thenReturn(r1);
+        when(mapper.toResponse(row2)).thenReturn(r2);
 
         Page<SavingsAccountResponse> resp = service.listByUser(1L, pageable);
 
@@ -303,9 +294,7 @@ class SavingsAccountServiceTest {
         assertSame(r1, resp.getContent().get(0));
         assertSame(r2, resp.getContent().get(1));
 
-        verify(savingsAccountRepository).findByUser_IdOrderByCreatedAtDesc(1L, pageable);
-        verify(mapper).toResponse(s1);
-        verify(mapper).toResponse(s2);
+        verify(savingsAccountRepository).findRowsByUserId(1L, pageable);
     }
 
     @Test
@@ -383,12 +372,12 @@ class SavingsAccountServiceTest {
                 .amount(new BigDecimal("10.00"))
                 .build();
 
-        when(savingsAccountRepository.findById(5L)).thenReturn(Optional.empty());
+        when(savingsAccountRepository.findByIdForUpdate(5L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> service.depositFromAccount(5L, req));
 
-        verify(savingsAccountRepository).findById(5L);
-        verifyNoInteractions(accountRepository, transactionRepository, balanceHistoryRepository);
+        verify(savingsAccountRepository).findByIdForUpdate(5L);
+        verifyNoInteractions(accountRepository, transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -403,8 +392,8 @@ class SavingsAccountServiceTest {
                 .id(10L).user(u2).currency("HUF").balance(new BigDecimal("100.00")).accountNumber("CURR")
                 .build();
 
-        when(savingsAccountRepository.findById(5L)).thenReturn(Optional.of(savings));
-        when(accountRepository.findById(10L)).thenReturn(Optional.of(current));
+        when(savingsAccountRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(savings));
+        when(accountRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(current));
 
         SavingsTransferRequest req = SavingsTransferRequest.builder()
                 .accountId(10L)
@@ -415,7 +404,7 @@ class SavingsAccountServiceTest {
 
         verify(accountRepository, never()).save(any());
         verify(savingsAccountRepository, never()).save(any());
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -429,8 +418,8 @@ class SavingsAccountServiceTest {
                 .id(10L).user(u1).currency("HUF").balance(new BigDecimal("100.00")).accountNumber("CURR")
                 .build();
 
-        when(savingsAccountRepository.findById(5L)).thenReturn(Optional.of(savings));
-        when(accountRepository.findById(10L)).thenReturn(Optional.of(current));
+        when(savingsAccountRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(savings));
+        when(accountRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(current));
 
         SavingsTransferRequest req = SavingsTransferRequest.builder()
                 .accountId(10L)
@@ -441,7 +430,7 @@ class SavingsAccountServiceTest {
 
         verify(accountRepository, never()).save(any());
         verify(savingsAccountRepository, never()).save(any());
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -455,8 +444,8 @@ class SavingsAccountServiceTest {
                 .id(10L).user(u1).currency("HUF").balance(new BigDecimal("5.00")).accountNumber("CURR")
                 .build();
 
-        when(savingsAccountRepository.findById(5L)).thenReturn(Optional.of(savings));
-        when(accountRepository.findById(10L)).thenReturn(Optional.of(current));
+        when(savingsAccountRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(savings));
+        when(accountRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(current));
 
         SavingsTransferRequest req = SavingsTransferRequest.builder()
                 .accountId(10L)
@@ -467,7 +456,7 @@ class SavingsAccountServiceTest {
 
         verify(accountRepository, never()).save(any());
         verify(savingsAccountRepository, never()).save(any());
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -490,8 +479,8 @@ class SavingsAccountServiceTest {
                 .accountNumber("CURR-ACC")
                 .build();
 
-        when(savingsAccountRepository.findById(5L)).thenReturn(Optional.of(savings));
-        when(accountRepository.findById(10L)).thenReturn(Optional.of(current));
+        when(savingsAccountRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(savings));
+        when(accountRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(current));
 
         when(accountRepository.save(current)).thenAnswer(inv -> inv.getArgument(0));
         when(savingsAccountRepository.save(savings)).thenAnswer(inv -> inv.getArgument(0));
@@ -507,10 +496,6 @@ class SavingsAccountServiceTest {
                 .build();
         when(transactionRepository.save(txEntity)).thenReturn(savedTx);
 
-        when(balanceHistoryMapper.toEntity(eq(current), any(BigDecimal.class)))
-                .thenReturn(BalanceHistory.builder().account(current).build());
-        when(balanceHistoryRepository.save(any(BalanceHistory.class))).thenAnswer(inv -> inv.getArgument(0));
-
         SavingsTransferRequest req = SavingsTransferRequest.builder()
                 .accountId(10L)
                 .amount(new BigDecimal("50.00"))
@@ -535,8 +520,7 @@ class SavingsAccountServiceTest {
         assertEquals("HUF", capturedTxReq.getCurrency());
         assertEquals("CURR-ACC", capturedTxReq.getFromAccount());
 
-        verify(balanceHistoryMapper).toEntity(eq(current), eq(new BigDecimal("450.00")));
-        verify(balanceHistoryRepository).save(any(BalanceHistory.class));
+        verify(balanceHistoryOutbox).record(txEntity, current);
     }
 
     @Test
@@ -546,12 +530,12 @@ class SavingsAccountServiceTest {
                 .amount(new BigDecimal("10.00"))
                 .build();
 
-        when(savingsAccountRepository.findById(5L)).thenReturn(Optional.empty());
+        when(savingsAccountRepository.findByIdForUpdate(5L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> service.withdrawToAccount(5L, req));
 
-        verify(savingsAccountRepository).findById(5L);
-        verifyNoInteractions(accountRepository, transactionRepository, balanceHistoryRepository);
+        verify(savingsAccountRepository).findByIdForUpdate(5L);
+        verifyNoInteractions(accountRepository, transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -566,8 +550,8 @@ class SavingsAccountServiceTest {
                 .id(10L).user(u2).currency("HUF").balance(new BigDecimal("0.00")).accountNumber("CURR")
                 .build();
 
-        when(savingsAccountRepository.findById(5L)).thenReturn(Optional.of(savings));
-        when(accountRepository.findById(10L)).thenReturn(Optional.of(current));
+        when(savingsAccountRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(savings));
+        when(accountRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(current));
 
         SavingsTransferRequest req = SavingsTransferRequest.builder()
                 .accountId(10L)
@@ -578,7 +562,7 @@ class SavingsAccountServiceTest {
 
         verify(accountRepository, never()).save(any());
         verify(savingsAccountRepository, never()).save(any());
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -592,8 +576,8 @@ class SavingsAccountServiceTest {
                 .id(10L).user(u1).currency("HUF").balance(new BigDecimal("0.00")).accountNumber("CURR")
                 .build();
 
-        when(savingsAccountRepository.findById(5L)).thenReturn(Optional.of(savings));
-        when(accountRepository.findById(10L)).thenReturn(Optional.of(current));
+        when(savingsAccountRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(savings));
+        when(accountRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(current));
 
         SavingsTransferRequest req = SavingsTransferRequest.builder()
                 .accountId(10L)
@@ -604,7 +588,7 @@ class SavingsAccountServiceTest {
 
         verify(accountRepository, never()).save(any());
         verify(savingsAccountRepository, never()).save(any());
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -618,8 +602,8 @@ class SavingsAccountServiceTest {
                 .id(10L).user(u1).currency("HUF").balance(new BigDecimal("0.00")).accountNumber("CURR")
                 .build();
 
-        when(savingsAccountRepository.findById(5L)).thenReturn(Optional.of(savings));
-        when(accountRepository.findById(10L)).thenReturn(Optional.of(current));
+        when(savingsAccountRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(savings));
+        when(accountRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(current));
 
         SavingsTransferRequest req = SavingsTransferRequest.builder()
                 .accountId(10L)
@@ -628,9 +612,10 @@ class SavingsAccountServiceTest {
 
         assertThrows(BusinessException.class, () -> service.withdrawToAccount(5L, req));
 
+        verify(businessMetrics).insufficientFunds("savings-withdraw");
         verify(accountRepository, never()).save(any());
         verify(savingsAccountRepository, never()).save(any());
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -653,8 +638,8 @@ class SavingsAccountServiceTest {
                 .accountNumber("CURR-ACC")
                 .build();
 
-        when(savingsAccountRepository.findById(5L)).thenReturn(Optional.of(savings));
-        when(accountRepository.findById(10L)).thenReturn(Optional.of(current));
+        when(savingsAccountRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(savings));
+        when(accountRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(current));
 
         when(savingsAccountRepository.save(savings)).thenAnswer(inv -> inv.getArgument(0));
         when(accountRepository.save(current)).thenAnswer(inv -> inv.getArgument(0));
@@ -670,10 +655,6 @@ class SavingsAccountServiceTest {
                 .build();
         when(transactionRepository.save(txEntity)).thenReturn(savedTx);
 
-        when(balanceHistoryMapper.toEntity(eq(current), any(BigDecimal.class)))
-                .thenReturn(BalanceHistory.builder().account(current).build());
-        when(balanceHistoryRepository.save(any(BalanceHistory.class))).thenAnswer(inv -> inv.getArgument(0));
-
         SavingsTransferRequest req = SavingsTransferRequest.builder()
                 .accountId(10L)
                 .amount(new BigDecimal("50.00"))
@@ -698,8 +679,7 @@ class SavingsAccountServiceTest {
         assertEquals("HUF", capturedTxReq.getCurrency());
         assertEquals("CURR-ACC", capturedTxReq.getToAccount());
 
-        verify(balanceHistoryMapper).toEntity(eq(current), eq(new BigDecimal("550.00")));
-        verify(balanceHistoryRepository).save(any(BalanceHistory.class));
+        verify(balanceHistoryOutbox).record(txEntity, current);
     }
 
     @Test
@@ -17,7 +17,6 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 
-import java.security.Principal;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,51 +33,48 @@ class SupportTicketServiceTest {
     @InjectMocks private SupportTicketService service;
 
     @Test
-    void create_shouldThrowNotFound_whenUserMissing() {
-        Principal principal = () -> "missing@example.com";
+    void create_shouldThrowBusinessException_whenOpenTicketExists() {
         CreateSupportTicketRequest req = CreateSupportTicketRequest.builder()
                 .title("T")
                 .message("M")
                 .build();
 
-        when(userRepository.findByEmailIgnoreCase("missing@example.com")).thenReturn(Optional.empty());
+        when(supportTicketRepository.existsByUser_IdAndStatus(10L, TicketStatus.OPEN)).thenReturn(true);
 
-        assertThrows(NotFoundException.class, () -> service.create(req, principal));
+        assertThrows(BusinessException.class, () -> service.create(req, 10L));
 
-        verify(userRepository).findByEmailIgnoreCase("missing@example.com");
-        verifyNoInteractions(supportTicketRepository, supportTicketMapper);
+        verifyNoInteractions(userRepository);
+        verify(supportTicketRepository).existsByUser_IdAndStatus(10L, TicketStatus.OPEN);
+        verifyNoInteractions(supportTicketMapper);
+        verify(supportTicketRepository, never()).save(any());
     }
 
     @Test
-    void create_shouldThrowBusinessException_whenOpenTicketExists() {
-        Principal principal = () -> "user@example.com";
+    void create_shouldThrowNotFound_whenUserMissing() {
         CreateSupportTicketRequest req = CreateSupportTicketRequest.builder()
                 .title("T")
                 .message("M")
                 .build();
 
-        User user = User.builder().id(10L).email("user@example.com").build();
-        when(userRepository.findByEmailIgnoreCase("user@example.com")).thenReturn(Optional.of(user));
-        when(supportTicketRepository.existsByUser_IdAndStatus(10L, TicketStatus.OPEN)).thenReturn(true);
+        when(supportTicketRepository.existsByUser_IdAndStatus(10L, TicketStatus.OPEN)).thenReturn(false);
+        when(userRepository.findById(10L)).thenReturn(Optional.empty());
 
-        assertThrows(BusinessException.class, () -> service.create(req, principal));
+        assertThrows(NotFoundException.class, () -> service.create(req, 10L));
 
-        verify(userRepository).findByEmailIgnoreCase("user@example.com");
-        verify(supportTicketRepository).existsByUser_IdAndStatus(10L, TicketStatus.OPEN);
+        verify(userRepository).findById(10L);
         verifyNoInteractions(supportTicketMapper);
         verify(supportTicketRepository, never()).save(any());
     }
 
     @Test
     void create_shouldSetStatusOpen_saveAndReturnResponse() {
-        Principal principal = () -> "user@example.com";
         CreateSupportTicketRequest req = CreateSupportTicketRequest.builder()
                 .title("Title")
                 .message("Message")
                 .build();
 
         User user = User.builder().id(10L).email("user@example.com").build();
-        when(userRepository.findByEmailIgnoreCase("user@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.findById(10L)).thenReturn(Optional.of(user));
         when(supportTicketRepository.existsByUser_IdAndStatus(10L, TicketStatus.OPEN)).thenReturn(false);
 
         SupportTicket mapped = SupportTicket.builder()
@@ -107,7 +103,7 @@ class SupportTicketServiceTest {
                 .build();
         when(supportTicketMapper.toResponse(saved)).thenReturn(expected);
 
-        SupportTicketResponse resp = service.create(req, principal);
+        SupportTicketResponse resp = service.create(req, 10L);
 
         assertNotNull(resp);
         assertEquals(99L, resp.getId());
@@ -118,7 +114,8 @@ class SupportTicketServiceTest {
         verify(supportTicketRepository).save(ticketCaptor.capture());
         assertEquals(TicketStatus.OPEN, ticketCaptor.getValue().getStatus());
 
-        verify(userRepository).findByEmailIgnoreCase("user@example.com");
+        verify(userRepository).findById(10L);
+        verify(userRepository, never()).findByEmailIgnoreCase(any());
         verify(supportTicketRepository).existsByUser_IdAndStatus(10L, TicketStatus.OPEN);
         verify(supportTicketMapper).toEntity(req, user);
         verify(supportTicketMapper).toResponse(saved);
@@ -154,29 +151,24 @@ class SupportTicketServiceTest {
     @Test
     void listByUser_shouldThrowNotFound_whenUserMissing() {
         Pageable pageable = PageRequest.of(0, 10);
-        when(userRepository.findById(7L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(7L)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> service.listByUser(7L, pageable));
 
-        verify(userRepository).findById(7L);
+        verify(userRepository).existsById(7L);
         verifyNoInteractions(supportTicketRepository, supportTicketMapper);
     }
 
     @Test
-    void listByUser_shouldReturnMappedPage() {
+    void listByUser_shouldReturnProjectedPage() {
         Pageable pageable = PageRequest.of(0, 2);
-        when(userRepository.findById(7L)).thenReturn(Optional.of(User.builder().id(7L).build()));
-
-        SupportTicket t1 = SupportTicket.builder().id(1L).build();
-        SupportTicket t2 = SupportTicket.builder().id(2L).build();
-        Page<SupportTicket> page = new PageImpl<>(List.of(t1, t2), pageable, 2);
-
-        when(supportTicketRepository.findByUser_IdOrderByCreatedAtDesc(7L, pageable)).thenReturn(page);
+        when(userRepository.existsById(7L)).thenReturn(true);
 
         SupportTicketResponse r1 = SupportTicketResponse.builder().id(1L).build();
         SupportTicketResponse r2 = SupportTicketResponse.builder().id(2L).build();
-        when(supportTicketMapper.toResponse(t1)).thenReturn(r1);
-        when(supportTicketMapper.toResponse(t2)).thenReturn(r2);
+        Page<SupportTicketResponse> page = new PageImpl<>(List.of(r1, r2), pageable, 2);
+
+        when(supportTicketRepository.findResponsesByUserId(7L, pageable)).thenReturn(page);
 
         Page<SupportTicketResponse> resp = service.listByUser(7L, pageable);
 
@@ -184,64 +176,74 @@ class SupportTicketServiceTest {
         assertSame(r1, resp.getContent().get(0));
         assertSame(r2, resp.getContent().get(1));
 
-        verify(supportTicketRepository).findByUser_IdOrderByCreatedAtDesc(7L, pageable);
-        verify(supportTicketMapper).toResponse(t1);
-        verify(supportTicketMapper).toResponse(t2);
+        verify(supportTicketRepository).findResponsesByUserId(7L, pageable);
+        verifyNoInteractions(supportTicketMapper);
     }
 
     @Test
-    void listByStatus_shouldReturnMappedPage() {
+    void listByStatus_shouldReturnProjectedPage() {
         Pageable pageable = PageRequest.of(0, 1);
 
-        SupportTicket ticket = SupportTicket.builder().id(1L).status(TicketStatus.OPEN).build();
-        Page<SupportTicket> page = new PageImpl<>(List.of(ticket), pageable, 1);
+        SupportTicketResponse item = SupportTicketResponse.builder().id(1L).build();
+        Page<SupportTicketResponse> page = new PageImpl<>(List.of(item), pageable, 1);
+
+        when(supportTicketRepository.findResponsesByStatus(TicketStatus.RESOLVED, pageable)).thenReturn(page);
+
+        Page<SupportTicketResponse> resp = service.listByStatus(TicketStatus.RESOLVED, pageable);
+
+        assertEquals(1, resp.getTotalElements());
+        assertSame(item, resp.getContent().get(0));
 
-        when(supportTicketRepository.findByStatusOrderByCreatedAtDesc(TicketStatus.OPEN, pageable)).thenReturn(page);
+        verify(supportTicketRepository).findResponsesByStatus(TicketStatus.RESOLVED, pageable);
+        verifyNoInteractions(supportTicketMapper);
+    }
+
+    @Test
+    void listByStatus_shouldUseOpenQueueQuery_forOpenStatus() {
+        Pageable pageable = PageRequest.of(0, 1);
 
         SupportTicketResponse item = SupportTicketResponse.builder().id(1L).build();
-        when(supportTicketMapper.toResponse(ticket)).thenReturn(item);
+        Page<SupportTicketResponse> page = new PageImpl<>(List.of(item), pageable, 1);
+
+        when(supportTicketRepository.findOpenResponses(pageable)).thenReturn(page);
 
         Page<SupportTicketResponse> resp = service.listByStatus(TicketStatus.OPEN, pageable);
 
-        assertEquals(1, resp.getTotalElements());
         assertSame(item, resp.getContent().get(0));
 
-        verify(supportTicketRepository).findByStatusOrderByCreatedAtDesc(TicketStatus.OPEN, pageable);
-        verify(supportTicketMapper).toResponse(ticket);
+        verify(supportTicketRepository).findOpenResponses(pageable);
+        verify(supportTicketRepository, never()).findResponsesByStatus(any(), any());
     }
 
     @Test
     void listByUserAndStatus_shouldThrowNotFound_whenUserMissing() {
         Pageable pageable = PageRequest.of(0, 10);
-        when(userRepository.findById(7L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(7L)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> service.listByUserAndStatus(7L, TicketStatus.OPEN, pageable));
 
-        verify(userRepository).findById(7L);
+        verify(userRepository).existsById(7L);
         verifyNoInteractions(supportTicketRepository, supportTicketMapper);
     }
 
     @Test
-    void listByUserAndStatus_shouldReturnMappedPage() {
+    void listByUserAndStatus_shouldReturnProjectedPage() {
         Pageable pageable = PageRequest.of(0, 1);
-        when(userRepository.findById(7L)).thenReturn(Optional.of(User.builder().id(7L).build()));
+        when(userRepository.existsById(7L)).thenReturn(true);
 
-        SupportTicket ticket = SupportTicket.builder().id(1L).status(TicketStatus.OPEN).build();
-        Page<SupportTicket> page = new PageImpl<>(List.of(ticket), pageable, 1);
+        SupportTicketResponse item = SupportTicketResponse.builder().id(1L).build();
+        Page<SupportTicketResponse> page = new PageImpl<>(List.of(item), pageable, 1);
 
-        when(supportTicketRepository.findByUser_IdAndStatusOrderByCreatedAtDesc(7L, TicketStatus.OPEN, pageable))
+        when(supportTicketRepository.findResponsesByUserIdAndStatus(7L, TicketStatus.OPEN, pageable))
                 .thenReturn(page);
 
-        SupportTicketResponse item = SupportTicketResponse.builder().id(1L).build();
-        when(supportTicketMapper.toResponse(ticket)).thenReturn(item);
-
         Page<SupportTicketResponse> resp = service.listByUserAndStatus(7L, TicketStatus.OPEN, pageable);
 
         assertEquals(1, resp.getTotalElements());
         assertSame(item, resp.getContent().get(0));
 
-        verify(supportTicketRepository).findByUser_IdAndStatusOrderByCreatedAtDesc(7L, TicketStatus.OPEN, pageable);
-        verify(supportTicketMapper).toResponse(ticket);
+        verify(supportTicketRepository).findResponsesByUserIdAndStatus(7L, TicketStatus.OPEN, pageable);
+        verifyNoInteractions(supportTicketMapper);
     }
 
     @Test
@@ -29,6 +29,7 @@ class TransactionCategoryServiceTest {
     @Mock private TransactionRepository transactionRepository;
     @Mock private CategoryRepository categoryRepository;
     @Mock private TransactionCategoryMapper transactionCategoryMapper;
+    @Mock private CategoryService categoryService;
 
     @InjectMocks private TransactionCategoryService service;
 
@@ -109,6 +110,52 @@ class TransactionCategoryServiceTest {
         verify(transactionCategoryMapper).toResponse(saved);
     }
 
+    @Test
+    void assignCategories_shouldThrowBusinessException_whenAnyAlreadyAssigned() {
+        Transaction tx = Transaction.builder().id(1L).build();
+        Category c2 = Category.builder().id(2L).build();
+        Category c3 = Category.builder().id(3L).build();
+
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(tx));
+        when(categoryService.requireAllById(List.of(2L, 3L))).thenReturn(List.of(c2, c3));
+        when(transactionCategoryRepository.findAssignedCategoryIds(1L, List.of(2L, 3L))).thenReturn(List.of(3L));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> service.assignCategories(1L, List.of(2L, 3L)));
+
+        assertTrue(ex.getMessage().endsWith("3"));
+        verify(transactionCategoryRepository, never()).saveAll(any());
+        verifyNoInteractions(transactionCategoryMapper);
+    }
+
+    @Test
+    void assignCategories_shouldSaveAllLinksInOneBatch() {
+        Transaction tx = Transaction.builder().id(1L).build();
+        Category c2 = Category.builder().id(2L).name("Food").build();
+        Category c3 = Category.builder().id(3L).name("Transport").build();
+
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(tx));
+        when(categoryService.requireAllById(List.of(2L, 3L))).thenReturn(List.of(c2, c3));
+        when(transactionCategoryRepository.findAssignedCategoryIds(1L, List.of(2L, 3L))).thenReturn(List.of());
+
+        TransactionCategory l2 = TransactionCategory.builder().id(21L).transaction(tx).category(c2).build();
+        TransactionCategory l3 = TransactionCategory.builder().id(31L).transaction(tx).category(c3).build();
+        when(transactionCategoryMapper.toEntity(tx, c2)).thenReturn(l2);
+        when(transactionCategoryMapper.toEntity(tx, c3)).thenReturn(l3);
+        when(transactionCategoryRepository.saveAll(List.of(l2, l3))).thenReturn(List.of(l2, l3));
+
+        TransactionCategoryResponse r2 = TransactionCategoryResponse.builder().transactionId(1L).categoryId(2L).build();
+        TransactionCategoryResponse r3 = TransactionCategoryResponse.builder().transactionId(1L).categoryId(3L).build();
+        when(transactionCategoryMapper.toResponse(l2)).thenReturn(r2);
+        when(transactionCategoryMapper.toResponse(l3)).thenReturn(r3);
+
+        List<TransactionCategoryResponse> out = service.assignCategories(1L, List.of(2L, 3L));
+
+        assertEquals(List.of(r2, r3), out);
+        verify(transactionCategoryRepository).saveAll(List.of(l2, l3));
+        verify(transactionCategoryRepository, never()).save(any());
+        verify(transactionCategoryRepository, never()).existsByTransaction_IdAndCategory_Id(anyLong(), anyLong());
+    }
+
     @Test
     void listByTransaction_shouldThrowNotFound_whenTransactionMissing() {
         when(transactionRepository.existsById(5L)).thenReturn(false);
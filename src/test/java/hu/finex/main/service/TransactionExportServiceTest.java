@@ -0,0 +1,58 @@
+package hu.finex.main.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import hu.finex.main.dto.TransactionExportRow;
+import hu.finex.main.exception.NotFoundException;
+import hu.finex.main.export.ExportFormat;
+import hu.finex.main.export.TransactionExportWriter;
+import hu.finex.main.repository.AccountRepository;
+import hu.finex.main.repository.TransactionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock private AccountRepository accountRepository;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private TransactionExportWriter transactionExportWriter;
+
+    @InjectMocks private TransactionExportService service;
+
+    @Test
+    void requireAccount_shouldThrowNotFound_whenAccountMissing() {
+        when(accountRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> service.requireAccount(9L));
+
+        verifyNoInteractions(transactionRepository, transactionExportWriter);
+    }
+
+    @Test
+    void export_shouldWriteStreamAndCloseIt() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        TransactionExportRow row = TransactionExportRow.builder().id(1L).build();
+        Stream<TransactionExportRow> rows = List.of(row).stream().onClose(() -> closed.set(true));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        when(transactionRepository.streamExportRowsByAccountId(5L)).thenReturn(rows);
+        when(transactionExportWriter.write(any(), eq(ExportFormat.NDJSON), eq(out))).thenReturn(1L);
+
+        assertEquals(1L, service.export(5L, ExportFormat.NDJSON, out));
+
+        assertTrue(closed.get());
+        verify(transactionRepository).streamExportRowsByAccountId(5L);
+    }
+}
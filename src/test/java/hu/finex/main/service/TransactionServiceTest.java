@@ -3,18 +3,23 @@ package hu.finex.main.service;
 import hu.finex.main.dto.*;
 import hu.finex.main.exception.BusinessException;
 import hu.finex.main.exception.NotFoundException;
-import hu.finex.main.mapper.BalanceHistoryMapper;
+import hu.finex.main.history.BalanceHistoryOutbox;
 import hu.finex.main.mapper.TransactionMapper;
+import hu.finex.main.metrics.BusinessMetrics;
 import hu.finex.main.model.*;
 import hu.finex.main.model.enums.TransactionType;
+import hu.finex.main.pagination.KeysetCursor;
 import hu.finex.main.repository.*;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -27,11 +32,11 @@ class TransactionServiceTest {
 
     @Mock private AccountRepository accountRepository;
     @Mock private TransactionRepository transactionRepository;
-    @Mock private BalanceHistoryRepository balanceHistoryRepository;
     @Mock private TransactionMapper transactionMapper;
-    @Mock private BalanceHistoryMapper balanceHistoryMapper;
+    @Mock private BalanceHistoryOutbox balanceHistoryOutbox;
     @Mock private TransactionCategoryRepository transactionCategoryRepository;
-    @Mock private CategoryRepository categoryRepository;
+    @Mock private CategoryService categoryService;
+    @Mock private BusinessMetrics businessMetrics;
 
     @InjectMocks private TransactionService service;
 
@@ -49,7 +54,7 @@ class TransactionServiceTest {
         assertThrows(NotFoundException.class, () -> service.create(req));
 
         verify(accountRepository).findById(1L);
-        verifyNoInteractions(balanceHistoryRepository, transactionRepository, transactionMapper, balanceHistoryMapper, transactionCategoryRepository, categoryRepository);
+        verifyNoInteractions(balanceHistoryOutbox, transactionRepository, transactionMapper, transactionCategoryRepository, categoryService);
     }
 
     @Test
@@ -72,7 +77,7 @@ class TransactionServiceTest {
         assertThrows(BusinessException.class, () -> service.create(req));
 
         verify(accountRepository).findById(1L);
-        verifyNoInteractions(balanceHistoryRepository, transactionRepository, transactionMapper, balanceHistoryMapper, transactionCategoryRepository, categoryRepository);
+        verifyNoInteractions(balanceHistoryOutbox, transactionRepository, transactionMapper, transactionCategoryRepository, categoryService);
     }
 
     @Test
@@ -94,10 +99,6 @@ class TransactionServiceTest {
 
         when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
 
-        BalanceHistory history = BalanceHistory.builder().account(account).balance(new BigDecimal("110.00")).build();
-        when(balanceHistoryMapper.toEntity(account, new BigDecimal("110.00"))).thenReturn(history);
-        when(balanceHistoryRepository.save(history)).thenReturn(history);
-
         Transaction txEntity = Transaction.builder().account(account).build();
         when(transactionMapper.toEntity(req, account)).thenReturn(txEntity);
 
@@ -112,8 +113,6 @@ class TransactionServiceTest {
                 .build();
         when(transactionRepository.save(txEntity)).thenReturn(savedTx);
 
-        when(transactionCategoryRepository.findByTransaction_Id(10L)).thenReturn(List.of());
-
         TransactionResponse mappedResp = TransactionResponse.builder()
                 .id(10L)
                 .accountId(1L)
@@ -133,12 +132,10 @@ class TransactionServiceTest {
         assertNotNull(resp.getCategories());
         assertEquals(0, resp.getCategories().size());
 
-        verify(balanceHistoryMapper).toEntity(account, new BigDecimal("110.00"));
-        verify(balanceHistoryRepository).save(history);
+        verify(balanceHistoryOutbox).record(txEntity, account);
         verify(transactionRepository).save(txEntity);
         verify(transactionMapper).toResponse(savedTx);
-        verify(transactionCategoryRepository).findByTransaction_Id(10L);
-        verifyNoInteractions(categoryRepository);
+        verifyNoInteractions(categoryService, transactionCategoryRepository);
     }
 
     @Test
@@ -161,7 +158,8 @@ class TransactionServiceTest {
         assertThrows(BusinessException.class, () -> service.create(req));
 
         assertEquals(new BigDecimal("50.00"), account.getBalance());
-        verifyNoInteractions(balanceHistoryRepository, transactionRepository, transactionMapper, balanceHistoryMapper, transactionCategoryRepository, categoryRepository);
+        verify(businessMetrics).insufficientFunds("transaction");
+        verifyNoInteractions(balanceHistoryOutbox, transactionRepository, transactionMapper, transactionCategoryRepository, categoryService);
     }
 
     @Test
@@ -187,10 +185,6 @@ class TransactionServiceTest {
 
         when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
 
-        BalanceHistory history = BalanceHistory.builder().account(account).balance(new BigDecimal("70.00")).build();
-        when(balanceHistoryMapper.toEntity(account, new BigDecimal("70.00"))).thenReturn(history);
-        when(balanceHistoryRepository.save(history)).thenReturn(history);
-
         Transaction txEntity = Transaction.builder().account(account).build();
         when(transactionMapper.toEntity(req, account)).thenReturn(txEntity);
 
@@ -205,20 +199,9 @@ class TransactionServiceTest {
                 .build();
         when(transactionRepository.save(txEntity)).thenReturn(savedTx);
 
-        when(categoryRepository.existsById(7L)).thenReturn(true);
-        when(categoryRepository.existsById(8L)).thenReturn(true);
-
         Category c7 = Category.builder().id(7L).name("Food").icon("🍔").build();
         Category c8 = Category.builder().id(8L).name("Transport").icon("🚗").build();
-        when(categoryRepository.findById(7L)).thenReturn(Optional.of(c7));
-        when(categoryRepository.findById(8L)).thenReturn(Optional.of(c8));
-
-        when(transactionCategoryRepository.save(any(TransactionCategory.class)))
-                .thenAnswer(inv -> inv.getArgument(0));
-
-        TransactionCategory link1 = TransactionCategory.builder().transaction(savedTx).category(c7).build();
-        TransactionCategory link2 = TransactionCategory.builder().transaction(savedTx).category(c8).build();
-        when(transactionCategoryRepository.findByTransaction_Id(10L)).thenReturn(List.of(link1, link2));
+        when(categoryService.requireAllById(List.of(7L, 8L))).thenReturn(List.of(c7, c8));
 
         TransactionResponse mappedResp = TransactionResponse.builder()
                 .id(10L)
@@ -241,18 +224,22 @@ class TransactionServiceTest {
         assertEquals(7L, resp.getCategories().get(0).getId());
         assertEquals(8L, resp.getCategories().get(1).getId());
 
-        verify(categoryRepository).existsById(7L);
-        verify(categoryRepository).existsById(8L);
-        verify(categoryRepository).findById(7L);
-        verify(categoryRepository).findById(8L);
+        verify(categoryService).requireAllById(List.of(7L, 8L));
 
-        ArgumentCaptor<TransactionCategory> tcCaptor = ArgumentCaptor.forClass(TransactionCategory.class);
-        verify(transactionCategoryRepository, times(2)).save(tcCaptor.capture());
-        List<TransactionCategory> savedLinks = tcCaptor.getAllValues();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TransactionCategory>> tcCaptor = ArgumentCaptor.forClass(List.class);
+        verify(transactionCategoryRepository).saveAll(tcCaptor.capture());
+        verify(transactionCategoryRepository, never()).save(any());
+        List<TransactionCategory> savedLinks = tcCaptor.getValue();
+        assertEquals(2, savedLinks.size());
         assertEquals(savedTx, savedLinks.get(0).getTransaction());
+        assertEquals(c7, savedLinks.get(0).getCategory());
         assertEquals(savedTx, savedLinks.get(1).getTransaction());
+        assertEquals(c8, savedLinks.get(1).getCategory());
+        verify(balanceHistoryOutbox).record(txEntity, account);
 
-        verify(transactionCategoryRepository).findByTransaction_Id(10L);
+        // A válasz a már feloldott kategóriákból épül, nincs visszaolvasás
+        verify(transactionCategoryRepository, never()).findByTransaction_Id(anyLong());
     }
 
     @Test
@@ -272,18 +259,73 @@ class TransactionServiceTest {
                 .build();
 
         when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
-        when(categoryRepository.existsById(99L)).thenReturn(false);
+        when(categoryService.requireAllById(List.of(99L))).thenThrow(new NotFoundException("Kategória nem található: 99"));
 
         assertThrows(NotFoundException.class, () -> service.create(req));
 
-        verify(categoryRepository).existsById(99L);
-        verify(categoryRepository, never()).findById(anyLong());
-        verify(transactionCategoryRepository, never()).save(any());
+        // A kategória-hiba még a pénzmozgás előtt megáll
+        assertEquals(new BigDecimal("100.00"), account.getBalance());
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox);
+        verify(transactionCategoryRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void create_shouldThrowNotFound_whenCategoryDeletedBehindStaleCatalog() {
+        Account account = Account.builder()
+                .id(1L)
+                .currency("HUF")
+                .balance(new BigDecimal("100.00"))
+                .build();
+
+        CreateTransactionRequest req = CreateTransactionRequest.builder()
+                .accountId(1L)
+                .type(TransactionType.INCOME)
+                .amount(new BigDecimal("10.00"))
+                .currency("HUF")
+                .categoryIds(List.of(7L))
+                .build();
+
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        Transaction txEntity = Transaction.builder().account(account).build();
+        when(transactionMapper.toEntity(req, account)).thenReturn(txEntity);
+        when(transactionRepository.save(txEntity)).thenReturn(txEntity);
+        // A katalógus (másik példányon törölt kategória miatt) még átengedi, az FK már nem
+        when(categoryService.requireAllById(List.of(7L))).thenReturn(List.of(Category.builder().id(7L).name("Food").build()));
+        doThrow(foreignKeyViolation("fk_trxcat_category")).when(transactionCategoryRepository).flush();
+
+        NotFoundException ex = assertThrows(NotFoundException.class, () -> service.create(req));
+        assertEquals("Kategória nem található.", ex.getMessage());
+    }
+
+    @Test
+    void create_shouldRethrowOtherIntegrityViolations_whenFlushingCategoryLinks() {
+        Account account = Account.builder()
+                .id(1L)
+                .currency("HUF")
+                .balance(new BigDecimal("100.00"))
+                .build();
+
+        CreateTransactionRequest req = CreateTransactionRequest.builder()
+                .accountId(1L)
+                .type(TransactionType.INCOME)
+                .amount(new BigDecimal("10.00"))
+                .currency("HUF")
+                .categoryIds(List.of(7L))
+                .build();
+
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        Transaction txEntity = Transaction.builder().account(account).build();
+        when(transactionMapper.toEntity(req, account)).thenReturn(txEntity);
+        when(transactionRepository.save(txEntity)).thenReturn(txEntity);
+        when(categoryService.requireAllById(List.of(7L))).thenReturn(List.of(Category.builder().id(7L).name("Food").build()));
+        doThrow(foreignKeyViolation("fk_trxcat_transaction")).when(transactionCategoryRepository).flush();
+
+        assertThrows(DataIntegrityViolationException.class, () -> service.create(req));
     }
 
     @Test
     void getById_shouldThrowNotFound_whenMissing() {
-        when(transactionRepository.findById(5L)).thenReturn(Optional.empty());
+        when(transactionRepository.findDetailById(5L)).thenReturn(Optional.empty());
         assertThrows(NotFoundException.class, () -> service.getById(5L));
     }
 
@@ -296,13 +338,13 @@ class TransactionServiceTest {
                 .createdAt(Instant.parse("2025-01-01T10:00:00Z"))
                 .build();
 
-        when(transactionRepository.findById(10L)).thenReturn(Optional.of(tx));
-
         Category c1 = Category.builder().id(1L).name("Food").icon("🍔").build();
         Category c2 = Category.builder().id(2L).name("Transport").icon("🚗").build();
         TransactionCategory link1 = TransactionCategory.builder().transaction(tx).category(c1).build();
         TransactionCategory link2 = TransactionCategory.builder().transaction(tx).category(c2).build();
-        when(transactionCategoryRepository.findByTransaction_Id(10L)).thenReturn(List.of(link1, link2));
+        tx.getCategoryLinks().addAll(List.of(link1, link2));
+
+        when(transactionRepository.findDetailById(10L)).thenReturn(Optional.of(tx));
 
         TransactionResponse mapped = TransactionResponse.builder().id(10L).accountId(1L).build();
         when(transactionMapper.toResponse(tx)).thenReturn(mapped);
@@ -316,37 +358,76 @@ class TransactionServiceTest {
         assertEquals(1L, resp.getCategories().get(0).getId());
         assertEquals(2L, resp.getCategories().get(1).getId());
 
-        verify(transactionRepository).findById(10L);
-        verify(transactionCategoryRepository).findByTransaction_Id(10L);
+        verify(transactionRepository).findDetailById(10L);
+        verifyNoInteractions(transactionCategoryRepository);
         verify(transactionMapper).toResponse(tx);
     }
 
+    @Test
+    void listByAccountSlice_shouldUseFirstSliceQuery_andReturnNextCursor() {
+        when(accountRepository.existsCachedById(5L)).thenReturn(true);
+
+        TransactionListItemResponse r1 = TransactionListItemResponse.builder().id(12L).createdAt(Instant.parse("2025-01-02T10:00:00Z")).build();
+        TransactionListItemResponse r2 = TransactionListItemResponse.builder().id(11L).createdAt(Instant.parse("2025-01-01T10:00:00Z")).build();
+        Pageable page = PageRequest.of(0, 2);
+        when(transactionRepository.findListItemSliceByAccountId(5L, page))
+                .thenReturn(new SliceImpl<>(List.of(r1, r2), page, true));
+
+        SliceResponse<TransactionListItemResponse> resp = service.listByAccountSlice(5L, null, 2);
+
+        assertEquals(List.of(r1, r2), resp.getContent());
+        assertTrue(resp.isHasNext());
+        assertEquals(new KeysetCursor(r2.getCreatedAt(), 11L), KeysetCursor.decode(resp.getNextCursor()));
+        verify(transactionRepository, never()).findListItemsByAccountId(anyLong(), any());
+        verifyNoInteractions(transactionMapper);
+    }
+
+    @Test
+    void listByAccountSlice_shouldSeekPastCursor() {
+        when(accountRepository.existsCachedById(5L)).thenReturn(true);
+
+        KeysetCursor cursor = new KeysetCursor(Instant.parse("2025-01-01T10:00:00Z"), 11L);
+        Pageable page = PageRequest.of(0, 20);
+        when(transactionRepository.findListItemsByAccountBefore(5L, cursor.createdAt(), 11L, page))
+                .thenReturn(new SliceImpl<>(List.of(), page, false));
+
+        SliceResponse<TransactionListItemResponse> resp = service.listByAccountSlice(5L, cursor.encode(), 20);
+
+        assertTrue(resp.getContent().isEmpty());
+        assertFalse(resp.isHasNext());
+        assertNull(resp.getNextCursor());
+    }
+
+    @Test
+    void listByAccountSlice_shouldThrowNotFound_whenAccountMissing() {
+        when(accountRepository.existsCachedById(5L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> service.listByAccountSlice(5L, null, 20));
+
+        verifyNoInteractions(transactionRepository, transactionMapper);
+    }
+
     @Test
     void listByAccount_shouldThrowNotFound_whenAccountMissing() {
         Pageable pageable = PageRequest.of(0, 10);
-        when(accountRepository.findById(5L)).thenReturn(Optional.empty());
+        when(accountRepository.existsCachedById(5L)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> service.listByAccount(5L, pageable));
 
-        verify(accountRepository).findById(5L);
+        verify(accountRepository).existsCachedById(5L);
         verifyNoInteractions(transactionRepository, transactionMapper);
     }
 
     @Test
-    void listByAccount_shouldReturnMappedPage() {
+    void listByAccount_shouldReturnProjectedPage_withoutMapping() {
         Pageable pageable = PageRequest.of(0, 2);
-        when(accountRepository.findById(5L)).thenReturn(Optional.of(Account.builder().id(5L).build()));
-
-        Transaction t1 = Transaction.builder().id(1L).build();
-        Transaction t2 = Transaction.builder().id(2L).build();
-        Page<Transaction> page = new PageImpl<>(List.of(t1, t2), pageable, 2);
-
-        when(transactionRepository.findByAccount_IdOrderByCreatedAtDesc(5L, pageable)).thenReturn(page);
+        when(accountRepository.existsCachedById(5L)).thenReturn(true);
 
         TransactionListItemResponse r1 = TransactionListItemResponse.builder().id(1L).build();
         TransactionListItemResponse r2 = TransactionListItemResponse.builder().id(2L).build();
-        when(transactionMapper.toListItem(t1)).thenReturn(r1);
-        when(transactionMapper.toListItem(t2)).thenReturn(r2);
+        Page<TransactionListItemResponse> page = new PageImpl<>(List.of(r1, r2), pageable, 2);
+
+        when(transactionRepository.findListItemsByAccountId(5L, pageable)).thenReturn(page);
 
         Page<TransactionListItemResponse> resp = service.listByAccount(5L, pageable);
 
@@ -354,9 +435,9 @@ class TransactionServiceTest {
         assertSame(r1, resp.getContent().get(0));
         assertSame(r2, resp.getContent().get(1));
 
-        verify(transactionRepository).findByAccount_IdOrderByCreatedAtDesc(5L, pageable);
-        verify(transactionMapper).toListItem(t1);
-        verify(transactionMapper).toListItem(t2);
+        verify(transactionRepository).findListItemsByAccountId(5L, pageable);
+        verify(accountRepository, never()).findById(anyLong());
+        verifyNoInteractions(transactionMapper);
     }
 
     @Test
@@ -368,13 +449,13 @@ class TransactionServiceTest {
                 .amount(new BigDecimal("10.00"))
                 .build();
 
-        when(accountRepository.findById(1L)).thenReturn(Optional.empty());
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> service.transfer(req));
 
-        verify(accountRepository).findById(1L);
+        verify(accountRepository).findByIdForUpdate(1L);
         verifyNoMoreInteractions(accountRepository);
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -386,14 +467,14 @@ class TransactionServiceTest {
                 .amount(new BigDecimal("10.00"))
                 .build();
 
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(Account.builder().id(1L).build()));
-        when(accountRepository.findById(2L)).thenReturn(Optional.empty());
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(Account.builder().id(1L).build()));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> service.transfer(req));
 
-        verify(accountRepository).findById(1L);
-        verify(accountRepository).findById(2L);
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository);
+        verify(accountRepository).findByIdForUpdate(1L);
+        verify(accountRepository).findByIdForUpdate(2L);
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox);
     }
 
 
@@ -409,12 +490,12 @@ class TransactionServiceTest {
         Account from = Account.builder().id(1L).currency("EUR").build();
         Account to = Account.builder().id(2L).currency("HUF").build();
 
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(from));
-        when(accountRepository.findById(2L)).thenReturn(Optional.of(to));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(from));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(to));
 
         assertThrows(BusinessException.class, () -> service.transfer(req));
 
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository);
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox);
     }
 
     @Test
@@ -429,14 +510,90 @@ class TransactionServiceTest {
         Account from = Account.builder().id(1L).currency("HUF").balance(new BigDecimal("5.00")).build();
         Account to = Account.builder().id(2L).currency("HUF").balance(new BigDecimal("0.00")).build();
 
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(from));
-        when(accountRepository.findById(2L)).thenReturn(Optional.of(to));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(from));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(to));
 
         assertThrows(BusinessException.class, () -> service.transfer(req));
 
-        verifyNoInteractions(transactionRepository, balanceHistoryRepository);
+        verify(businessMetrics).insufficientFunds("transfer");
+        verify(businessMetrics, never()).transferCompleted();
+        verifyNoInteractions(transactionRepository, balanceHistoryOutbox);
     }
 
-    
-    
+    @Test
+    void transfer_shouldThrowBusinessException_whenSameAccount_withoutLocking() {
+        TransferRequest req = TransferRequest.builder()
+                .fromAccountId(1L)
+                .toAccountId(1L)
+                .currency("HUF")
+                .amount(new BigDecimal("10.00"))
+                .build();
+
+        assertThrows(BusinessException.class, () -> service.transfer(req));
+
+        verifyNoInteractions(accountRepository, transactionRepository, balanceHistoryOutbox);
+    }
+
+    @Test
+    void transfer_shouldLockAccountsInAscendingIdOrder_whenFromIdIsGreater() {
+        TransferRequest req = TransferRequest.builder()
+                .fromAccountId(2L)
+                .toAccountId(1L)
+                .currency("HUF")
+                .amount(new BigDecimal("10.00"))
+                .build();
+
+        Account from = Account.builder().id(2L).currency("HUF").balance(new BigDecimal("5.00")).build();
+        Account to = Account.builder().id(1L).currency("HUF").balance(new BigDecimal("0.00")).build();
+
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(to));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(from));
+
+        assertThrows(BusinessException.class, () -> service.transfer(req));
+
+        InOrder inOrder = inOrder(accountRepository);
+        inOrder.verify(accountRepository).findByIdForUpdate(1L);
+        inOrder.verify(accountRepository).findByIdForUpdate(2L);
+        verifyNoMoreInteractions(accountRepository);
+    }
+
+    @Test
+    void transfer_shouldRecordBothSnapshotsInOutbox_beforeSavingTransactions() {
+        TransferRequest req = TransferRequest.builder()
+                .fromAccountId(1L)
+                .toAccountId(2L)
+                .currency("HUF")
+                .amount(new BigDecimal("10.00"))
+                .build();
+
+        Account from = Account.builder().id(1L).currency("HUF").balance(new BigDecimal("50.00")).accountNumber("ACC-1").build();
+        Account to = Account.builder().id(2L).currency("HUF").balance(new BigDecimal("0.00")).accountNumber("ACC-2").build();
+        Transaction outTx = Transaction.builder().account(from).build();
+        Transaction inTx = Transaction.builder().account(to).build();
+
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(from));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(to));
+        when(transactionMapper.toEntity(any(CreateTransactionRequest.class), eq(from))).thenReturn(outTx);
+        when(transactionMapper.toEntity(any(CreateTransactionRequest.class), eq(to))).thenReturn(inTx);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TransferResponse resp = service.transfer(req);
+
+        assertEquals(new BigDecimal("40.00"), resp.getFromAccountNewBalance());
+        assertEquals(new BigDecimal("10.00"), resp.getToAccountNewBalance());
+
+        // A jelölésnek a mentés előtt kell megtörténnie, különben külön UPDATE lenne belőle
+        InOrder inOrder = inOrder(balanceHistoryOutbox, transactionRepository);
+        inOrder.verify(balanceHistoryOutbox).record(outTx, from);
+        inOrder.verify(transactionRepository).save(outTx);
+        inOrder.verify(balanceHistoryOutbox).record(inTx, to);
+        inOrder.verify(transactionRepository).save(inTx);
+        verify(businessMetrics).transferCompleted();
+        verifyNoInteractions(categoryService, transactionCategoryRepository);
+    }
+
+    private static DataIntegrityViolationException foreignKeyViolation(String constraint) {
+        return new DataIntegrityViolationException("FK",
+                new ConstraintViolationException("FK", new SQLException("FK", "23503"), constraint));
+    }
 }
@@ -0,0 +1,137 @@
+package hu.finex.main.sqlbudget;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SqlBudgetInterceptorTest {
+
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+    private SimpleMeterRegistry registry;
+    private SqlBudgetInterceptor interceptor;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        interceptor = new SqlBudgetInterceptor(counter,
+                new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class), 20, 3);
+        request = new MockHttpServletRequest("GET", "/things/7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/things/{id}");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void request_shouldUseAnnotatedBudget_andRecordStatementsPerEndpoint() throws Exception {
+        interceptor.preHandle(request, response, handler("budgeted"));
+        counter.inspect("select 1");
+        counter.inspect("select 2");
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertNull(SqlBudgetInterceptor.scope(request));
+        assertEquals(1, registry.get(SqlBudgetInterceptor.STATEMENTS_METRIC).tag("endpoint", "GET /things/{id}").summary().count());
+        assertEquals(2.0, registry.get(SqlBudgetInterceptor.STATEMENTS_METRIC).summary().totalAmount());
+        assertNull(registry.find(SqlBudgetInterceptor.EXCEEDED_METRIC).counter());
+
+        // A lezárt kérés után futó SQL már nem számolódik
+        counter.inspect("select 3");
+        assertEquals(2.0, registry.get(SqlBudgetInterceptor.STATEMENTS_METRIC).summary().totalAmount());
+    }
+
+    @Test
+    void request_shouldCountExceededBudget() throws Exception {
+        interceptor.preHandle(request, response, handler("budgeted"));
+        assertEquals(2, SqlBudgetInterceptor.scope(request).budget());
+        counter.inspect("select 1");
+        counter.inspect("select 2");
+        counter.inspect("select 3");
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertEquals(1.0, registry.get(SqlBudgetInterceptor.EXCEEDED_METRIC).tag("endpoint", "GET /things/{id}").counter().count());
+    }
+
+    @Test
+    void request_shouldFallBackToDefaultBudget_andIgnoreNonControllerHandlers() throws Exception {
+        interceptor.preHandle(request, response, handler("unbudgeted"));
+        assertEquals(20, SqlBudgetInterceptor.scope(request).budget());
+        interceptor.afterCompletion(request, response, null, null);
+
+        MockHttpServletRequest resource = new MockHttpServletRequest("GET", "/static.css");
+        interceptor.preHandle(resource, response, new Object());
+        assertNull(SqlBudgetInterceptor.scope(resource));
+    }
+
+    @Test
+    void advice_shouldExposeHeaders() throws Exception {
+        interceptor.preHandle(request, response, handler("budgeted"));
+        counter.inspect("select 1");
+
+        writeBody(new SqlBudgetResponseAdvice(true, false));
+
+        assertEquals("1", response.getHeader(SqlBudgetResponseAdvice.STATEMENTS_HEADER));
+        assertEquals("sql;desc=\"1 statements\"", response.getHeader(SqlBudgetResponseAdvice.SERVER_TIMING_HEADER));
+        interceptor.afterCompletion(request, response, null, null);
+    }
+
+    @Test
+    void advice_shouldFailOnce_whenBudgetExceededInFailMode() throws Exception {
+        interceptor.preHandle(request, response, handler("budgeted"));
+        counter.inspect("select 1");
+        counter.inspect("select 1");
+        counter.inspect("select 1");
+        SqlBudgetResponseAdvice advice = new SqlBudgetResponseAdvice(false, true);
+
+        SqlBudgetExceededException ex = assertThrows(SqlBudgetExceededException.class, () -> writeBody(advice));
+        assertTrue(ex.getMessage().contains("GET /things/{id} 3 statement (keret: 2)"));
+        // A hibaválasz kiírása már átmegy
+        assertDoesNotThrow(() -> writeBody(advice));
+        assertNull(response.getHeader(SqlBudgetResponseAdvice.STATEMENTS_HEADER));
+        interceptor.afterCompletion(request, response, null, null);
+    }
+
+    @Test
+    void afterConcurrentHandlingStarted_shouldCloseScopeOnRequestThread() throws Exception {
+        interceptor.preHandle(request, response, handler("unbudgeted"));
+        counter.inspect("select 1");
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+
+        counter.inspect("select 2");
+        assertNull(SqlBudgetInterceptor.scope(request));
+        assertEquals(1.0, registry.get(SqlBudgetInterceptor.STATEMENTS_METRIC).summary().totalAmount());
+    }
+
+    private void writeBody(SqlBudgetResponseAdvice advice) throws IOException {
+        ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(response);
+        advice.beforeBodyWrite("body", null, null, null, new ServletServerHttpRequest(request), outputMessage);
+        outputMessage.flush();
+    }
+
+    private HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getDeclaredMethod(method));
+    }
+
+    static class Handlers {
+
+        @SqlBudget(2)
+        void budgeted() {
+        }
+
+        void unbudgeted() {
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package hu.finex.main.sqlbudget;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SqlStatementCounterTest {
+
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+
+    @Test
+    void inspect_shouldCountOnlyInsideOpenScope_andReturnSqlUnchanged() {
+        assertEquals("select 1", counter.inspect("select 1"));
+
+        try (SqlStatementCounter.Scope scope = counter.open()) {
+            counter.inspect("select a from t where id=?");
+            counter.inspect("select a from t where id=?");
+            counter.inspect("update t set a=? where id=?");
+
+            assertEquals(3, scope.count());
+            assertEquals("select a from t where id=?", scope.mostRepeated().orElseThrow().getKey());
+            assertEquals(2, scope.mostRepeated().orElseThrow().getValue());
+        }
+
+        try (SqlStatementCounter.Scope scope = counter.open()) {
+            assertEquals(0, scope.count());
+            assertTrue(scope.mostRepeated().isEmpty());
+        }
+    }
+
+    @Test
+    void close_shouldAddNestedCountsToOuterScope() {
+        try (SqlStatementCounter.Scope outer = counter.open()) {
+            counter.inspect("select 1");
+
+            SqlStatementCounter.Scope inner = counter.open();
+            counter.inspect("select 1");
+            counter.inspect("select 2");
+            assertEquals(1, outer.count());
+            inner.close();
+            inner.close();
+
+            counter.inspect("select 1");
+            assertEquals(2, inner.count());
+            assertEquals(4, outer.count());
+            assertEquals(3, outer.mostRepeated().orElseThrow().getValue());
+        }
+
+        SqlStatementCounter.Scope afterwards = counter.open();
+        afterwards.close();
+        counter.inspect("select 1");
+        assertEquals(0, afterwards.count());
+    }
+
+    @Test
+    void scopes_shouldBeThreadConfined() throws Exception {
+        try (SqlStatementCounter.Scope scope = counter.open()) {
+            Thread other = new Thread(() -> counter.inspect("select 1"));
+            other.start();
+            other.join();
+
+            assertEquals(0, scope.count());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package hu.finex.main.sqlbudget;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hu.finex.main.dto.TransferRequest;
+import hu.finex.main.model.Account;
+import hu.finex.main.model.User;
+import hu.finex.main.model.enums.AccountStatus;
+import hu.finex.main.model.enums.AccountType;
+import hu.finex.main.repository.AccountRepository;
+import hu.finex.main.repository.PostgresRepositoryTestBase;
+import hu.finex.main.repository.TransactionRepository;
+import hu.finex.main.repository.UserRepository;
+import hu.finex.main.security.JwtTokenUtil;
+
+// A végpontok teljes (szűrők, aspektusok, service, Hibernate) útján mért statement-számát pontosan rögzíti, így a @SqlBudget keret alatti eltérés is látszik.
+// fail-on-exceed: keret-túllépésnél a kérés 500-zal bukik, így az új lekérdezést bevezető változás itt elakad.
+
+@SpringBootTest(properties = "finex.sql-budget.fail-on-exceed=true")
+@AutoConfigureMockMvc
+class TransactionEndpointSqlBudgetTest extends PostgresRepositoryTestBase {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private JwtTokenUtil jwtTokenUtil;
+
+    private final String suffix = UUID.randomUUID().toString().substring(0, 8);
+    private String token;
+    private Account from;
+    private Account to;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .firstName("Budget")
+                .lastName("User")
+                .email("sql-budget." + suffix + "@finex.hu")
+                .phone("000")
+                .passwordHash("HASH")
+                .role("USER")
+                .build());
+        from = saveAccount(user, "BUDGET-FROM-", new BigDecimal("1000.00"));
+        to = saveAccount(user, "BUDGET-TO-", BigDecimal.ZERO);
+        token = "Bearer " + jwtTokenUtil.generateToken(user);
+    }
+
+    @Test
+    void transfer_andGetById_shouldIssueExpectedStatementCount() throws Exception {
+        TransferRequest request = TransferRequest.builder()
+                .fromAccountId(from.getId())
+                .toAccountId(to.getId())
+                .amount(new BigDecimal("10.00"))
+                .currency("HUF")
+                .message("budget")
+                .build();
+
+        MvcResult transfer = mockMvc.perform(post("/transactions/transfer")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(5, statements(transfer));
+
+        Long transactionId = transactionRepository.findListItemSliceByAccountId(from.getId(), PageRequest.of(0, 1))
+                .getContent().get(0).getId();
+
+        MvcResult detail = mockMvc.perform(get("/transactions/" + transactionId).header("Authorization", token))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(1, statements(detail));
+    }
+
+    private static int statements(MvcResult result) {
+        String header = result.getResponse().getHeader(SqlBudgetResponseAdvice.STATEMENTS_HEADER);
+        assertNotNull(header);
+        return Integer.parseInt(header);
+    }
+
+    private Account saveAccount(User user, String accountNumber, BigDecimal balance) {
+        return accountRepository.save(Account.builder()
+                .user(user)
+                .accountNumber(accountNumber + suffix)
+                .balance(balance)
+                .currency("HUF")
+                .accountType(AccountType.CURRENT)
+                .status(AccountStatus.ACTIVE)
+                .build());
+    }
+}